@@ -0,0 +1,188 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.gemfire.listener.ContinuousQueryDefinition;
+import org.springframework.data.gemfire.listener.ContinuousQueryListener;
+import org.springframework.data.gemfire.listener.ContinuousQueryListenerContainer;
+import org.springframework.data.gemfire.listener.adapter.ContinuousQueryListenerAdapter;
+
+import com.gemstone.gemfire.cache.Operation;
+import com.gemstone.gemfire.cache.query.CqAttributes;
+import com.gemstone.gemfire.cache.query.CqEvent;
+import com.gemstone.gemfire.cache.query.CqListener;
+import com.gemstone.gemfire.cache.query.CqQuery;
+import com.gemstone.gemfire.cache.query.QueryService;
+
+/**
+ * Measures the dispatch of CQ events through {@link ContinuousQueryListenerContainer}, to a plain listener and to a
+ * POJO through {@link ContinuousQueryListenerAdapter}. As CQs require a server, the container runs against a stub
+ * query service capturing the registered GemFire {@link CqListener}s; the events are then pushed to them directly.
+ * The dispatch itself runs on the calling thread, so the measurement excludes any thread hand-off.
+ * 
+ * @author Costin Leau
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CqDispatchBenchmark {
+
+	private final List<CqListener> cqListeners = new ArrayList<CqListener>();
+
+	private ContinuousQueryListenerContainer container;
+	private CqListener directListener;
+	private CqListener adapterListener;
+	private CqEvent event;
+
+	// sink preventing the listeners from being optimized away
+	private static volatile Object received;
+
+	/** Target of the adapter */
+	public static class PojoListener {
+
+		public void handleEvent(Object key, Object newValue) {
+			received = newValue;
+		}
+	}
+
+	@Setup
+	public void setUp() {
+		Set<ContinuousQueryDefinition> definitions = new LinkedHashSet<ContinuousQueryDefinition>();
+		definitions.add(new ContinuousQueryDefinition("SELECT * FROM /customers", new ContinuousQueryListener() {
+			public void onEvent(CqEvent event) {
+				received = event;
+			}
+		}));
+		definitions.add(new ContinuousQueryDefinition("SELECT * FROM /customers", new ContinuousQueryListenerAdapter(
+				new PojoListener())));
+
+		container = new ContinuousQueryListenerContainer();
+		container.setQueryService(stub(QueryService.class, new QueryServiceHandler()));
+		container.setTaskExecutor(new SyncTaskExecutor());
+		container.setQueryListeners(definitions);
+		container.afterPropertiesSet();
+
+		directListener = cqListeners.get(0);
+		adapterListener = cqListeners.get(1);
+		event = stub(CqEvent.class, new CqEventHandler(Long.valueOf(42), Customer.create(42, 100)));
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		container.stop();
+		container.destroy();
+	}
+
+	@Benchmark
+	public void dispatchToListener() {
+		directListener.onEvent(event);
+	}
+
+	@Benchmark
+	public void dispatchToAdapter() {
+		adapterListener.onEvent(event);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T stub(Class<T> type, InvocationHandler handler) {
+		return (T) Proxy.newProxyInstance(CqDispatchBenchmark.class.getClassLoader(), new Class<?>[] { type },
+				handler);
+	}
+
+	private static Object defaultValue(Method method) {
+		Class<?> type = method.getReturnType();
+		if (boolean.class.equals(type)) {
+			return Boolean.FALSE;
+		}
+		if (int.class.equals(type)) {
+			return Integer.valueOf(0);
+		}
+		if (long.class.equals(type)) {
+			return Long.valueOf(0);
+		}
+		return null;
+	}
+
+	/**
+	 * Query service stub capturing the CQ listeners.
+	 */
+	private class QueryServiceHandler implements InvocationHandler {
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if ("newCq".equals(method.getName())) {
+				for (Object arg : args) {
+					if (arg instanceof CqAttributes) {
+						for (CqListener listener : ((CqAttributes) arg).getCqListeners()) {
+							cqListeners.add(listener);
+						}
+					}
+				}
+				return stub(CqQuery.class, new InvocationHandler() {
+					public Object invoke(Object proxy, Method method, Object[] args) {
+						return defaultValue(method);
+					}
+				});
+			}
+			return defaultValue(method);
+		}
+	}
+
+	/**
+	 * CQ event stub for an update of a given entry.
+	 */
+	private static class CqEventHandler implements InvocationHandler {
+
+		private final Object key;
+		private final Object value;
+
+		CqEventHandler(Object key, Object value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) {
+			String name = method.getName();
+			if ("getKey".equals(name)) {
+				return key;
+			}
+			if ("getNewValue".equals(name)) {
+				return value;
+			}
+			if ("getBaseOperation".equals(name) || "getQueryOperation".equals(name)) {
+				return Operation.UPDATE;
+			}
+			return defaultValue(method);
+		}
+	}
+}
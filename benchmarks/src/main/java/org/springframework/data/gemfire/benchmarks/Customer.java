@@ -0,0 +1,93 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.benchmarks;
+
+import java.io.Serializable;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.gemfire.mapping.Region;
+
+/**
+ * Domain class used by the benchmarks.
+ * 
+ * @author Costin Leau
+ */
+@Region(Customer.REGION)
+public class Customer implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	static final String REGION = "customers";
+
+	@Id
+	private Long id;
+	private String firstname;
+	private String lastname;
+	private int age;
+
+	public Customer() {
+	}
+
+	public Customer(Long id, String firstname, String lastname, int age) {
+		this.id = id;
+		this.firstname = firstname;
+		this.lastname = lastname;
+		this.age = age;
+	}
+
+	/**
+	 * Creates the customer for the given index; customers share their last name in groups of <tt>groups</tt>.
+	 */
+	static Customer create(long index, int groups) {
+		return new Customer(Long.valueOf(index), "Firstname" + index, lastname(index % groups), (int) (index % 80));
+	}
+
+	static String lastname(long group) {
+		return "Lastname" + group;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getFirstname() {
+		return firstname;
+	}
+
+	public void setFirstname(String firstname) {
+		this.firstname = firstname;
+	}
+
+	public String getLastname() {
+		return lastname;
+	}
+
+	public void setLastname(String lastname) {
+		this.lastname = lastname;
+	}
+
+	public int getAge() {
+		return age;
+	}
+
+	public void setAge(int age) {
+		this.age = age;
+	}
+}
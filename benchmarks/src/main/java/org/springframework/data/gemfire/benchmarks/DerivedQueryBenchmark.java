@@ -0,0 +1,89 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.gemfire.repository.query.PartTreeGemfireRepositoryQuery;
+import org.springframework.data.gemfire.repository.support.GemfireRepositoryFactory;
+
+import com.gemstone.gemfire.cache.Cache;
+import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.cache.query.IndexType;
+
+/**
+ * Measures the execution of derived ({@link PartTreeGemfireRepositoryQuery}) queries, with and without an index on
+ * the queried property.
+ * 
+ * @author Costin Leau
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DerivedQueryBenchmark {
+
+	private static final int ENTRIES = 10000;
+	private static final int GROUPS = 1000;
+
+	@Param( { "false", "true" })
+	public boolean indexed;
+
+	private Cache cache;
+	private CustomerRepository repository;
+
+	@Setup
+	public void setUp() throws Exception {
+		cache = LonerCache.create();
+		Region<Long, Customer> region = LonerCache.localRegion(cache, Customer.REGION);
+		for (long i = 0; i < ENTRIES; i++) {
+			region.put(Long.valueOf(i), Customer.create(i, GROUPS));
+		}
+		if (indexed) {
+			cache.getQueryService().createIndex("lastnameIdx", IndexType.FUNCTIONAL, "lastname",
+					region.getFullPath());
+		}
+
+		GemfireRepositoryFactory factory = new GemfireRepositoryFactory(Collections
+				.<Region<?, ?>> singleton(region), null);
+		repository = factory.getRepository(CustomerRepository.class);
+	}
+
+	@TearDown
+	public void tearDown() {
+		LonerCache.close(cache);
+	}
+
+	@Benchmark
+	public List<Customer> findByLastname() {
+		return repository.findByLastname(Customer.lastname(42));
+	}
+
+	@Benchmark
+	public List<Customer> findByLastnameAndAgeGreaterThan() {
+		return repository.findByLastnameAndAgeGreaterThan(Customer.lastname(42), 20);
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.benchmarks;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.gemfire.serialization.AsmInstantiatorGenerator;
+
+import com.gemstone.gemfire.DataSerializable;
+import com.gemstone.gemfire.Instantiator;
+
+/**
+ * Compares the instances created through the {@link Instantiator}s generated by {@link AsmInstantiatorGenerator}
+ * against reflection and plain constructor calls.
+ * 
+ * @author Costin Leau
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InstantiatorBenchmark {
+
+	private Instantiator generated;
+	private Constructor<Payload> constructor;
+
+	@Setup
+	public void setUp() throws Exception {
+		generated = new AsmInstantiatorGenerator().getInstantiator(Payload.class, 1025);
+		constructor = Payload.class.getConstructor();
+	}
+
+	@Benchmark
+	public DataSerializable asmInstantiator() {
+		return generated.newInstance();
+	}
+
+	@Benchmark
+	public Object reflectiveConstructor() throws Exception {
+		return constructor.newInstance();
+	}
+
+	@Benchmark
+	public Object reflectiveClass() throws Exception {
+		return Payload.class.newInstance();
+	}
+
+	@Benchmark
+	public Object constructorCall() {
+		return new Payload();
+	}
+
+	/**
+	 * {@link DataSerializable} class instantiated by the benchmarks.
+	 */
+	public static class Payload implements DataSerializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private long value;
+
+		public void toData(DataOutput out) throws IOException {
+			out.writeLong(value);
+		}
+
+		public void fromData(DataInput in) throws IOException, ClassNotFoundException {
+			value = in.readLong();
+		}
+	}
+}
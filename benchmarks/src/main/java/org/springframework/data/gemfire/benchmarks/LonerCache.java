@@ -0,0 +1,84 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.gemfire.benchmarks;
+
+import java.util.Properties;
+
+import com.gemstone.gemfire.cache.Cache;
+import com.gemstone.gemfire.cache.CacheFactory;
+import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.cache.RegionShortcut;
+import com.gemstone.gemfire.pdx.PdxSerializer;
+
+/**
+ * Utility for creating the embedded, non-distributed (loner) cache used by the benchmarks.
+ * 
+ * @author Costin Leau
+ */
+abstract class LonerCache {
+
+	private LonerCache() {
+	}
+
+	/**
+	 * Creates (or returns the already running) loner cache.
+	 * 
+	 * @return loner cache
+	 */
+	static Cache create() {
+		return create(null);
+	}
+
+	/**
+	 * Creates (or returns the already running) loner cache, using the given PDX serializer.
+	 * 
+	 * @param pdxSerializer PDX serializer; can be null
+	 * @return loner cache
+	 */
+	static Cache create(PdxSerializer pdxSerializer) {
+		Properties props = new Properties();
+		props.setProperty("mcast-port", "0");
+		props.setProperty("locators", "");
+		props.setProperty("log-level", "warning");
+		CacheFactory factory = new CacheFactory(props);
+		if (pdxSerializer != null) {
+			factory.setPdxSerializer(pdxSerializer);
+		}
+		return factory.create();
+	}
+
+	/**
+	 * Returns the local region with the given name, creating it if needed.
+	 * 
+	 * @param cache cache
+	 * @param name region name
+	 * @return local region
+	 */
+	static <K, V> Region<K, V> localRegion(Cache cache, String name) {
+		Region<K, V> region = cache.getRegion(name);
+		if (region == null) {
+			region = cache.<K, V> createRegionFactory(RegionShortcut.LOCAL).create(name);
+		}
+		return region;
+	}
+
+	static void close(Cache cache) {
+		if (cache != null && !cache.isClosed()) {
+			cache.close();
+		}
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.gemfire.mapping.GemfireMappingContext;
+import org.springframework.data.gemfire.mapping.MappingPdxSerializer;
+
+import com.gemstone.gemfire.DataSerializer;
+import com.gemstone.gemfire.cache.Cache;
+
+/**
+ * Measures {@link MappingPdxSerializer#toData(Object, com.gemstone.gemfire.pdx.PdxWriter)} and
+ * {@link MappingPdxSerializer#fromData(Class, com.gemstone.gemfire.pdx.PdxReader)}, driven through the GemFire
+ * serialization framework.
+ * 
+ * @author Costin Leau
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PdxSerializationBenchmark {
+
+	private Cache cache;
+	private Customer customer;
+	private ByteArrayOutputStream buffer;
+	private byte[] serialized;
+
+	@Setup
+	public void setUp() throws IOException {
+		cache = LonerCache.create(new MappingPdxSerializer(new GemfireMappingContext(),
+				new DefaultConversionService()));
+		customer = Customer.create(42, 100);
+		buffer = new ByteArrayOutputStream(256);
+		serialized = serialize();
+	}
+
+	@TearDown
+	public void tearDown() {
+		LonerCache.close(cache);
+	}
+
+	@Benchmark
+	public byte[] toData() throws IOException {
+		return serialize();
+	}
+
+	@Benchmark
+	public Object fromData() throws IOException, ClassNotFoundException {
+		return DataSerializer.readObject(new DataInputStream(new ByteArrayInputStream(serialized)));
+	}
+
+	private byte[] serialize() throws IOException {
+		buffer.reset();
+		DataSerializer.writeObject(customer, new DataOutputStream(buffer));
+		return buffer.toByteArray();
+	}
+}
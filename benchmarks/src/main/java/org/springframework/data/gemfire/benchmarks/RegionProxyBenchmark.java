@@ -0,0 +1,144 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.gemfire.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.gemfire.GemfireTemplate;
+import org.springframework.util.ClassUtils;
+
+import com.gemstone.gemfire.cache.Cache;
+import com.gemstone.gemfire.cache.Region;
+
+/**
+ * Compares the close-suppressing region used by {@link GemfireTemplate} against the JDK proxy based
+ * implementation it replaced.
+ * 
+ * @author Costin Leau
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RegionProxyBenchmark {
+
+	private static final String KEY = "key";
+
+	private Cache cache;
+	private Region<String, String> generated;
+	private Region<String, String> jdkProxy;
+
+	@Setup
+	public void setUp() {
+		cache = LonerCache.create();
+		Region<String, String> region = LonerCache.localRegion(cache, "proxyBenchmark");
+		region.put(KEY, "value");
+
+		generated = new ExposingTemplate(region).getRegionProxy();
+		jdkProxy = createJdkProxy(region);
+	}
+
+	@TearDown
+	public void tearDown() {
+		LonerCache.close(cache);
+	}
+
+	@Benchmark
+	public Object getThroughGeneratedWrapper() {
+		return generated.get(KEY);
+	}
+
+	@Benchmark
+	public Object getThroughJdkProxy() {
+		return jdkProxy.get(KEY);
+	}
+
+	@Benchmark
+	public boolean containsKeyThroughGeneratedWrapper() {
+		return generated.containsKey(KEY);
+	}
+
+	@Benchmark
+	public boolean containsKeyThroughJdkProxy() {
+		return jdkProxy.containsKey(KEY);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Region<String, String> createJdkProxy(Region<String, String> region) {
+		Class<?>[] ifcs = ClassUtils.getAllInterfacesForClass(region.getClass(), RegionProxyBenchmark.class
+				.getClassLoader());
+		return (Region<String, String>) Proxy.newProxyInstance(region.getClass().getClassLoader(), ifcs,
+				new CloseSuppressingInvocationHandler(region));
+	}
+
+	/**
+	 * Exposes the region proxy created by {@link GemfireTemplate}.
+	 */
+	private static class ExposingTemplate extends GemfireTemplate {
+
+		private final Region<String, String> region;
+
+		ExposingTemplate(Region<String, String> region) {
+			this.region = region;
+		}
+
+		Region<String, String> getRegionProxy() {
+			return createRegionProxy(region);
+		}
+	}
+
+	/**
+	 * Copy of the invocation handler previously used by {@link GemfireTemplate}.
+	 */
+	private static class CloseSuppressingInvocationHandler implements InvocationHandler {
+
+		private final Region<?, ?> target;
+
+		CloseSuppressingInvocationHandler(Region<?, ?> target) {
+			this.target = target;
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if (method.getName().equals("equals")) {
+				return (proxy == args[0]);
+			}
+			else if (method.getName().equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			}
+			else if (method.getName().equals("close")) {
+				return null;
+			}
+
+			try {
+				return method.invoke(this.target, args);
+			} catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+	}
+}
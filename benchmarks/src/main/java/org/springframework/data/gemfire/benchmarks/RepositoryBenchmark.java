@@ -0,0 +1,90 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.benchmarks;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.gemfire.repository.support.GemfireRepositoryFactory;
+import org.springframework.data.gemfire.repository.support.SimpleGemfireRepository;
+
+import com.gemstone.gemfire.cache.Cache;
+import com.gemstone.gemfire.cache.Region;
+
+/**
+ * Measures the CRUD operations of {@link SimpleGemfireRepository}, invoked through the repository proxy.
+ * 
+ * @author Costin Leau
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RepositoryBenchmark {
+
+	private static final int ENTRIES = 10000;
+
+	private Cache cache;
+	private CustomerRepository repository;
+	private Customer customer;
+
+	@Setup
+	public void setUp() {
+		cache = LonerCache.create();
+		Region<Long, Customer> region = LonerCache.localRegion(cache, Customer.REGION);
+		for (long i = 0; i < ENTRIES; i++) {
+			region.put(Long.valueOf(i), Customer.create(i, 100));
+		}
+
+		GemfireRepositoryFactory factory = new GemfireRepositoryFactory(Collections
+				.<Region<?, ?>> singleton(region), null);
+		repository = factory.getRepository(CustomerRepository.class);
+		customer = Customer.create(ENTRIES + 1, 100);
+	}
+
+	@TearDown
+	public void tearDown() {
+		LonerCache.close(cache);
+	}
+
+	@Benchmark
+	public Object save() {
+		return repository.save(customer);
+	}
+
+	@Benchmark
+	public Object findOne() {
+		return repository.findOne(Long.valueOf(42));
+	}
+
+	@Benchmark
+	public boolean exists() {
+		return repository.exists(Long.valueOf(42));
+	}
+
+	@Benchmark
+	public void saveAndDelete() {
+		repository.save(customer);
+		repository.delete(customer.getId());
+	}
+}
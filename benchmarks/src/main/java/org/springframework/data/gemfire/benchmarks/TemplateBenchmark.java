@@ -0,0 +1,101 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.gemfire.GemfireTemplate;
+
+import com.gemstone.gemfire.cache.Cache;
+import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.cache.query.SelectResults;
+
+/**
+ * Measures the {@link GemfireTemplate} convenience methods (including exception translation and region proxying)
+ * against a local region.
+ * 
+ * @author Costin Leau
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TemplateBenchmark {
+
+	private static final int ENTRIES = 10000;
+	private static final int GROUPS = 1000;
+	private static final String QUERY = "SELECT * FROM /templateBenchmark c WHERE c.lastname = $1";
+
+	@Param( { "100" })
+	public int bulkSize;
+
+	private Cache cache;
+	private GemfireTemplate template;
+	private List<Long> bulkKeys;
+	private Customer customer;
+
+	@Setup
+	public void setUp() {
+		cache = LonerCache.create();
+		Region<Long, Customer> region = LonerCache.localRegion(cache, "templateBenchmark");
+		for (long i = 0; i < ENTRIES; i++) {
+			region.put(Long.valueOf(i), Customer.create(i, GROUPS));
+		}
+
+		template = new GemfireTemplate(region);
+		bulkKeys = new ArrayList<Long>(bulkSize);
+		for (long i = 0; i < bulkSize; i++) {
+			bulkKeys.add(Long.valueOf(i * (ENTRIES / bulkSize)));
+		}
+		customer = Customer.create(ENTRIES + 1, GROUPS);
+	}
+
+	@TearDown
+	public void tearDown() {
+		LonerCache.close(cache);
+	}
+
+	@Benchmark
+	public Object get() {
+		return template.get(Long.valueOf(42));
+	}
+
+	@Benchmark
+	public Object put() {
+		return template.put(customer.getId(), customer);
+	}
+
+	@Benchmark
+	public Map<Long, Customer> getAll() {
+		return template.getAll(bulkKeys);
+	}
+
+	@Benchmark
+	public SelectResults<Customer> find() {
+		return template.find(QUERY, Customer.lastname(42));
+	}
+}
@@ -0,0 +1,417 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.gemfire;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.util.Assert;
+import org.springframework.util.CustomizableThreadCreator;
+
+import com.gemstone.gemfire.cache.query.SelectResults;
+
+/**
+ * Asynchronous counterpart of {@link GemfireTemplate}. Each operation is submitted to a bounded executor and a
+ * {@link Future} is returned right away, allowing independent (remote) operations to be issued concurrently.
+ *
+ * <p/>
+ * The operations are executed through the backing {@link GemfireTemplate} and thus are subject to the same
+ * exception translation - the translated {@link org.springframework.dao.DataAccessException} is available as the
+ * cause of the {@link ExecutionException} thrown by {@link Future#get()}.
+ *
+ * <p/>
+ * Every call is bounded by a timeout (the one configured through {@link #setTimeout(long)}, unless given to the call
+ * itself), measured from the moment the call is submitted. Once the timeout expires, the operation is cancelled by an
+ * internal timer thread, whether or not a caller waits for it: a queued operation is not executed anymore, a running
+ * one is interrupted, and {@link Future#get()} throws a {@link CancellationException}.
+ *
+ * <p/>
+ * Unless an external {@link Executor} is configured, the template creates (and on {@link #destroy()}, shuts down) a
+ * fixed-size thread pool backed by a bounded queue; submissions that exceed its capacity are rejected with a
+ * {@link TaskRejectedException}.
+ *
+ * @author Costin Leau
+ */
+public class AsyncGemfireTemplate implements InitializingBean, DisposableBean {
+
+	private static final Log log = LogFactory.getLog(AsyncGemfireTemplate.class);
+
+	private GemfireTemplate template;
+
+	private Executor executor;
+	private boolean internalExecutor = false;
+
+	private ScheduledExecutorService timer;
+
+	private int poolSize = Runtime.getRuntime().availableProcessors() * 2;
+	private int queueCapacity = 1000;
+	private long timeout = 0;
+
+	public AsyncGemfireTemplate() {
+	}
+
+	public AsyncGemfireTemplate(GemfireTemplate template) {
+		setTemplate(template);
+		afterPropertiesSet();
+	}
+
+	public void afterPropertiesSet() {
+		Assert.notNull(template, "Property 'template' is required");
+		Assert.isTrue(timeout >= 0, "Timeout must be positive (or 0 for no timeout)");
+
+		if (executor == null) {
+			Assert.isTrue(poolSize > 0, "Pool size must be positive");
+			Assert.isTrue(queueCapacity > 0, "Queue capacity must be positive");
+
+			final CustomizableThreadCreator threadCreator = new CustomizableThreadCreator("AsyncGemfireTemplate-");
+			threadCreator.setDaemon(true);
+
+			executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<Runnable>(queueCapacity), new ThreadFactory() {
+						public Thread newThread(Runnable runnable) {
+							return threadCreator.createThread(runnable);
+						}
+					});
+			internalExecutor = true;
+		}
+
+		final CustomizableThreadCreator timerThreadCreator = new CustomizableThreadCreator("AsyncGemfireTemplate-timer-");
+		timerThreadCreator.setDaemon(true);
+		// the timer thread is only started by the first call with a timeout
+		timer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+			public Thread newThread(Runnable runnable) {
+				return timerThreadCreator.createThread(runnable);
+			}
+		});
+	}
+
+	public void destroy() {
+		if (internalExecutor) {
+			if (log.isDebugEnabled()) {
+				log.debug("Shutting down internal executor");
+			}
+			((ExecutorService) executor).shutdown();
+		}
+		if (timer != null) {
+			timer.shutdownNow();
+		}
+	}
+
+	public <K, V> Future<V> get(K key) {
+		return get(key, timeout);
+	}
+
+	/**
+	 * Asynchronous variant of {@link GemfireTemplate#get(Object)}.
+	 *
+	 * @param key entry key
+	 * @param timeout time (in milliseconds) after which the operation is cancelled; 0 means no timeout
+	 * @return future holding the entry value
+	 */
+	public <K, V> Future<V> get(final K key, long timeout) {
+		return submit(new Callable<V>() {
+			public V call() {
+				return template.<K, V> get(key);
+			}
+		}, timeout);
+	}
+
+	public <K, V> Future<V> put(K key, V value) {
+		return put(key, value, timeout);
+	}
+
+	/**
+	 * Asynchronous variant of {@link GemfireTemplate#put(Object, Object)}.
+	 *
+	 * @param key entry key
+	 * @param value entry value
+	 * @param timeout time (in milliseconds) after which the operation is cancelled; 0 means no timeout
+	 * @return future holding the previous entry value
+	 */
+	public <K, V> Future<V> put(final K key, final V value, long timeout) {
+		return submit(new Callable<V>() {
+			public V call() {
+				return template.put(key, value);
+			}
+		}, timeout);
+	}
+
+	public <K, V> Future<Map<K, V>> getAll(Collection<?> keys) {
+		return getAll(keys, timeout);
+	}
+
+	/**
+	 * Asynchronous variant of {@link GemfireTemplate#getAll(Collection)}.
+	 *
+	 * @param keys entry keys
+	 * @param timeout time (in milliseconds) after which the operation is cancelled; 0 means no timeout
+	 * @return future holding the entries found
+	 */
+	public <K, V> Future<Map<K, V>> getAll(final Collection<?> keys, long timeout) {
+		return submit(new Callable<Map<K, V>>() {
+			public Map<K, V> call() {
+				return template.<K, V> getAll(keys);
+			}
+		}, timeout);
+	}
+
+	public <K, V> Future<Void> putAll(Map<? extends K, ? extends V> map) {
+		return putAll(map, timeout);
+	}
+
+	/**
+	 * Asynchronous variant of {@link GemfireTemplate#putAll(Map)}.
+	 *
+	 * @param map entries to put
+	 * @param timeout time (in milliseconds) after which the operation is cancelled; 0 means no timeout
+	 * @return future signaling the completion of the operation
+	 */
+	public <K, V> Future<Void> putAll(final Map<? extends K, ? extends V> map, long timeout) {
+		return submit(new Callable<Void>() {
+			public Void call() {
+				template.putAll(map);
+				return null;
+			}
+		}, timeout);
+	}
+
+	/**
+	 * Asynchronous variant of {@link GemfireTemplate#find(String, Object...)}.
+	 *
+	 * @param query GemFire query
+	 * @param params Values that are bound to parameters (such as $1) in this query.
+	 * @return future holding the {@link SelectResults} instance of the objects matching the query
+	 */
+	public <E> Future<SelectResults<E>> find(String query, Object... params) {
+		return find(query, params, timeout);
+	}
+
+	/**
+	 * Asynchronous variant of {@link GemfireTemplate#find(String, Object...)}.
+	 *
+	 * @param query GemFire query
+	 * @param params Values that are bound to parameters (such as $1) in this query.
+	 * @param timeout time (in milliseconds) after which the query is cancelled; 0 means no timeout
+	 * @return future holding the {@link SelectResults} instance of the objects matching the query
+	 */
+	public <E> Future<SelectResults<E>> find(final String query, final Object[] params, long timeout) {
+		return submit(new Callable<SelectResults<E>>() {
+			public SelectResults<E> call() {
+				return template.<E> find(query, params);
+			}
+		}, timeout);
+	}
+
+	public <T> Future<T> execute(GemfireCallback<T> action) {
+		return execute(action, timeout);
+	}
+
+	/**
+	 * Executes the given action asynchronously, through {@link GemfireTemplate#execute(GemfireCallback)}.
+	 *
+	 * @param action callback object that specifies the Gemfire action
+	 * @param timeout time (in milliseconds) after which the action is cancelled; 0 means no timeout
+	 * @return future holding the result returned by the action
+	 */
+	public <T> Future<T> execute(final GemfireCallback<T> action, long timeout) {
+		Assert.notNull(action, "Callback object must not be null");
+		return submit(new Callable<T>() {
+			public T call() {
+				return template.execute(action);
+			}
+		}, timeout);
+	}
+
+	private <T> Future<T> submit(Callable<T> task, long timeout) {
+		Assert.isTrue(timeout >= 0, "Timeout must be positive (or 0 for no timeout)");
+		final TimeoutFuture<T> future = new TimeoutFuture<T>(task, timeout);
+		try {
+			executor.execute(future);
+		} catch (RejectedExecutionException ex) {
+			throw new TaskRejectedException("Executor [" + executor + "] did not accept task: " + task, ex);
+		}
+		if (timeout > 0 && !future.isDone()) {
+			future.setExpiration(timer.schedule(new Runnable() {
+				public void run() {
+					future.cancel(true);
+				}
+			}, timeout, TimeUnit.MILLISECONDS));
+		}
+		return future;
+	}
+
+	/**
+	 * Returns the template used for executing the operations.
+	 *
+	 * @return the backing template
+	 */
+	public GemfireTemplate getTemplate() {
+		return template;
+	}
+
+	/**
+	 * Sets the template used for executing the operations.
+	 *
+	 * @param template the backing template
+	 */
+	public void setTemplate(GemfireTemplate template) {
+		this.template = template;
+	}
+
+	/**
+	 * Sets the executor used for running the operations. Should be bounded to avoid unlimited queueing when the
+	 * cluster slows down. If not set, an internal fixed-size pool is used.
+	 *
+	 * @see #setPoolSize(int)
+	 * @see #setQueueCapacity(int)
+	 * @param executor the executor to use
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Sets the number of threads of the internal executor. Ignored if an external executor is configured.
+	 * Default is twice the number of available processors.
+	 *
+	 * @param poolSize number of threads
+	 */
+	public void setPoolSize(int poolSize) {
+		this.poolSize = poolSize;
+	}
+
+	/**
+	 * Sets the number of operations the internal executor can queue before rejecting new ones. Ignored if an external
+	 * executor is configured. Default is 1000.
+	 *
+	 * @param queueCapacity queue capacity
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Sets the default timeout (in milliseconds) applied to each call. Default is 0 (no timeout).
+	 *
+	 * @param timeout timeout in milliseconds
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * {@link FutureTask} that is cancelled once its deadline (counted from creation) expires, by the template timer or
+	 * by the callers waiting for it, whichever comes first.
+	 */
+	private static class TimeoutFuture<T> extends FutureTask<T> {
+
+		private final long timeout;
+		private final long deadline;
+		private volatile ScheduledFuture<?> expiration;
+
+		TimeoutFuture(Callable<T> callable, long timeout) {
+			super(callable);
+			this.timeout = timeout;
+			this.deadline = (timeout > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout) : 0);
+		}
+
+		void setExpiration(ScheduledFuture<?> expiration) {
+			this.expiration = expiration;
+			// completed while being scheduled
+			if (isDone()) {
+				expiration.cancel(false);
+			}
+		}
+
+		@Override
+		protected void done() {
+			ScheduledFuture<?> scheduled = expiration;
+			if (scheduled != null) {
+				scheduled.cancel(false);
+			}
+		}
+
+		@Override
+		public void run() {
+			// don't bother executing the operation if it expired while queued
+			if (deadline != 0 && deadline - System.nanoTime() <= 0) {
+				cancel(false);
+				return;
+			}
+			super.run();
+		}
+
+		@Override
+		public T get() throws InterruptedException, ExecutionException {
+			if (deadline == 0) {
+				return super.get();
+			}
+			try {
+				return super.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+			} catch (TimeoutException ex) {
+				return timedOut();
+			}
+		}
+
+		@Override
+		public T get(long waitTime, TimeUnit unit) throws InterruptedException, ExecutionException,
+				TimeoutException {
+			if (deadline == 0) {
+				return super.get(waitTime, unit);
+			}
+			long remaining = deadline - System.nanoTime();
+			long wait = unit.toNanos(waitTime);
+			try {
+				return super.get(Math.min(remaining, wait), TimeUnit.NANOSECONDS);
+			} catch (TimeoutException ex) {
+				if (remaining <= wait) {
+					return timedOut();
+				}
+				throw ex;
+			}
+		}
+
+		private T timedOut() throws InterruptedException, ExecutionException {
+			if (cancel(true)) {
+				throw new CancellationException("Operation timed out after " + timeout + " ms");
+			}
+			// completed in the meantime
+			return super.get();
+		}
+	}
+}
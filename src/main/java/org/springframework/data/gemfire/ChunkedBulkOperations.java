@@ -0,0 +1,284 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.gemfire;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+import org.springframework.util.CustomizableThreadCreator;
+
+import com.gemstone.gemfire.GemFireCheckedException;
+import com.gemstone.gemfire.GemFireException;
+import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.cache.partition.PartitionRegionHelper;
+
+/**
+ * Executes bulk (<tt>getAll</tt>/<tt>putAll</tt>/<tt>removeAll</tt>) operations on behalf of {@link GemfireTemplate} by splitting them
+ * into chunks that are run concurrently, with a bounded number of chunks in flight.
+ * <p/>
+ * For partitioned regions, keys are first grouped by the member hosting their primary bucket, and each chunk is filled
+ * from the keys of a single member, so that it targets that member only. The bucket assignment is only known to peer
+ * members: client (<tt>PROXY</tt> or <tt>CACHING_PROXY</tt>) regions are chunked in iteration order and the routing
+ * of each chunk is left to the client pool.
+ * <p/>
+ * Within a transaction, the chunks are executed sequentially on the calling thread, as GemFire transactions are
+ * thread-bound.
+ *
+ * @author Costin Leau
+ */
+class ChunkedBulkOperations {
+
+	private final GemfireTemplate template;
+	private final int chunkSize;
+	private final int concurrency;
+	private final Executor executor;
+	private final boolean internalExecutor;
+
+	/**
+	 * Creates a new {@link ChunkedBulkOperations} instance.
+	 *
+	 * @param template template used for executing the chunks
+	 * @param chunkSize maximum number of entries per chunk
+	 * @param concurrency maximum number of chunks in flight
+	 * @param executor executor running the chunks; if <code>null</code> an internal one is created
+	 */
+	ChunkedBulkOperations(GemfireTemplate template, int chunkSize, int concurrency, Executor executor) {
+		Assert.notNull(template);
+		Assert.isTrue(chunkSize > 0, "Chunk size must be positive");
+		Assert.isTrue(concurrency > 0, "Concurrency must be positive");
+
+		this.template = template;
+		this.chunkSize = chunkSize;
+		this.concurrency = concurrency;
+
+		if (executor == null) {
+			final CustomizableThreadCreator threadCreator = new CustomizableThreadCreator("GemfireTemplate-bulk-");
+			threadCreator.setDaemon(true);
+
+			this.executor = Executors.newFixedThreadPool(concurrency, new ThreadFactory() {
+				public Thread newThread(Runnable runnable) {
+					return threadCreator.createThread(runnable);
+				}
+			});
+			this.internalExecutor = true;
+		}
+		else {
+			this.executor = executor;
+			this.internalExecutor = false;
+		}
+	}
+
+	int getChunkSize() {
+		return chunkSize;
+	}
+
+	void destroy() {
+		if (internalExecutor) {
+			((ExecutorService) executor).shutdown();
+		}
+	}
+
+	<K, V> Map<K, V> getAll(Collection<?> keys) {
+		List<Callable<Map<K, V>>> tasks = new ArrayList<Callable<Map<K, V>>>();
+
+		for (final List<Object> chunk : chunk(keys)) {
+			tasks.add(new Callable<Map<K, V>>() {
+				public Map<K, V> call() {
+					return template.execute("getAll", chunk.size(), new GemfireCallback<Map<K, V>>() {
+						@SuppressWarnings("unchecked")
+						public Map<K, V> doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
+							return (Map<K, V>) region.getAll(chunk);
+						}
+					}, template.isExposeNativeRegion());
+				}
+			});
+		}
+
+		Map<K, V> result = new HashMap<K, V>(keys.size());
+		for (Map<K, V> chunkResult : run(tasks)) {
+			result.putAll(chunkResult);
+		}
+		return result;
+	}
+
+	<K, V> void putAll(Map<? extends K, ? extends V> map) {
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+
+		for (List<Object> chunk : chunk(map.keySet())) {
+			final Map<Object, Object> entries = new LinkedHashMap<Object, Object>(chunk.size());
+			for (Object key : chunk) {
+				entries.put(key, map.get(key));
+			}
+			tasks.add(new Callable<Object>() {
+				public Object call() {
+					template.execute("putAll", entries.size(), new GemfireCallback<Object>() {
+						@SuppressWarnings("unchecked")
+						public Object doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
+							region.putAll(entries);
+							return null;
+						}
+					}, template.isExposeNativeRegion());
+					return null;
+				}
+			});
+		}
+
+		run(tasks);
+	}
+
+	void removeAll(Collection<?> keys) {
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+
+		for (final List<Object> chunk : chunk(keys)) {
+			tasks.add(new Callable<Object>() {
+				public Object call() {
+					return template.execute("removeAll", chunk.size(), new GemfireTemplate.RemoveAllCallback(chunk),
+							template.isExposeNativeRegion());
+				}
+			});
+		}
+
+		run(tasks);
+	}
+
+	/**
+	 * Runs the given tasks, keeping at most <tt>concurrency</tt> of them in flight.
+	 */
+	private <T> List<T> run(List<Callable<T>> tasks) {
+		List<T> results = new ArrayList<T>(tasks.size());
+
+		// transactions are bound to the calling thread
+		if (tasks.size() == 1 || TransactionSynchronizationManager.isActualTransactionActive()) {
+			for (Callable<T> task : tasks) {
+				try {
+					results.add(task.call());
+				} catch (RuntimeException ex) {
+					throw ex;
+				} catch (Exception ex) {
+					throw new DataAccessResourceFailureException("Bulk operation failed", ex);
+				}
+			}
+			return results;
+		}
+
+		CompletionService<T> completionService = new ExecutorCompletionService<T>(executor);
+		List<Future<T>> futures = new ArrayList<Future<T>>(tasks.size());
+		Iterator<Callable<T>> it = tasks.iterator();
+
+		try {
+			while (it.hasNext() && futures.size() < concurrency) {
+				futures.add(completionService.submit(it.next()));
+			}
+
+			for (int done = 0; done < tasks.size(); done++) {
+				results.add(completionService.take().get());
+				if (it.hasNext()) {
+					futures.add(completionService.submit(it.next()));
+				}
+			}
+			return results;
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new DataAccessResourceFailureException("Interrupted while waiting for bulk operation", ex);
+		} catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new DataAccessResourceFailureException("Bulk operation failed", cause);
+		} finally {
+			// no-op for the completed ones
+			for (Future<T> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Splits the given keys into chunks. For partitioned (peer) regions, each chunk only holds keys whose primary
+	 * bucket is hosted by the same member.
+	 */
+	List<List<Object>> chunk(Collection<?> keys) {
+		List<List<Object>> chunks = new ArrayList<List<Object>>();
+
+		for (Collection<?> group : group(keys)) {
+			List<Object> current = new ArrayList<Object>(Math.min(chunkSize, group.size()));
+			for (Object key : group) {
+				current.add(key);
+				if (current.size() == chunkSize) {
+					chunks.add(current);
+					current = new ArrayList<Object>(chunkSize);
+				}
+			}
+			if (!current.isEmpty()) {
+				chunks.add(current);
+			}
+		}
+		return chunks;
+	}
+
+	private Collection<? extends Collection<?>> group(Collection<?> keys) {
+		Region<?, ?> region = template.getRegion();
+
+		// also the case of client regions, whatever the server region partitioning
+		if (region.getAttributes().getPartitionAttributes() == null) {
+			return Collections.singleton(keys);
+		}
+
+		Map<Object, List<Object>> groups = new LinkedHashMap<Object, List<Object>>();
+		for (Object key : keys) {
+			Object member = getPrimaryMember(region, key);
+			List<Object> group = groups.get(member);
+			if (group == null) {
+				group = new ArrayList<Object>();
+				groups.put(member, group);
+			}
+			group.add(key);
+		}
+		return groups.values();
+	}
+
+	/**
+	 * Returns the member hosting the primary bucket of the given key, as assigned by GemFire (thus honouring the region
+	 * {@link com.gemstone.gemfire.cache.PartitionResolver}), or <code>null</code> if the bucket has not been created
+	 * yet.
+	 */
+	Object getPrimaryMember(Region<?, ?> region, Object key) {
+		return PartitionRegionHelper.getPrimaryMemberForKey(region, key);
+	}
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.gemfire;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.FieldVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+import com.gemstone.gemfire.cache.Region;
+
+/**
+ * ASM based generator of close-suppressing {@link Region} wrappers. The generated classes implement all the
+ * (public) interfaces of the target region and delegate every call through plain interface dispatch, except for
+ * {@link Region#close()} which is ignored. As opposed to a JDK proxy, no reflection, argument array or exception
+ * unwrapping is involved on the invocation path.
+ * <p/>
+ * Equality follows the JDK proxy semantics used previously: two wrappers are equal only when identical.
+ * <p/>
+ * Relies on the ASM 2.x package repacked by Spring framework, similar to {@link org.springframework.data.gemfire.serialization.AsmInstantiatorGenerator}.
+ *
+ * @author Costin Leau
+ */
+class CloseSuppressingRegionGenerator implements Opcodes {
+
+	private static final String PKG = "org/springframework/data/gemfire/";
+	private static final String CLASS_LABEL = "CloseSuppressingRegion$Synthetic";
+	private static final String OBJECT_NAME = Type.getInternalName(Object.class);
+	private static final String OBJECT_DESCRIPTOR = Type.getDescriptor(Object.class);
+	private static final String TARGET_FIELD_NAME = "target";
+
+	private static final String INIT = "<init>";
+	private static final String INIT_DESC = Type.getMethodDescriptor(Type.VOID_TYPE, new Type[] { Type
+			.getType(Object.class) });
+	private static final String NO_ARG_INIT_DESC = Type.getMethodDescriptor(Type.VOID_TYPE, new Type[] {});
+	private static final String TO_STRING_DESC = Type.getMethodDescriptor(Type.getType(String.class), new Type[] {});
+
+	// generated class counter
+	private static final AtomicLong counter = new AtomicLong(1);
+
+	// region class -> wrapper constructor cache
+	private final ConcurrentMap<Class<?>, Constructor<?>> cache = new ConcurrentHashMap<Class<?>, Constructor<?>>();
+
+	private static final class BytecodeClassLoader extends ClassLoader {
+
+		public BytecodeClassLoader(ClassLoader loader) {
+			super(loader);
+		}
+
+		public Class<?> loadClass(String name, byte[] bytecode) {
+			return defineClass(name, bytecode, 0, bytecode.length);
+		}
+	}
+
+	/**
+	 * Returns a close-suppressing wrapper around the given region.
+	 *
+	 * @param region region to wrap
+	 * @return the wrapper, implementing all public interfaces implemented by the given region
+	 * @throws IllegalArgumentException if no wrapper can be generated for the given region type
+	 */
+	@SuppressWarnings("unchecked")
+	public <K, V> Region<K, V> createRegion(Region<K, V> region) {
+		Assert.notNull(region, "Region must not be null");
+		Constructor<?> ctor = getConstructor(region.getClass());
+		return (Region<K, V>) BeanUtils.instantiateClass(ctor, region);
+	}
+
+	private Constructor<?> getConstructor(Class<?> regionClass) {
+		Constructor<?> ctor = cache.get(regionClass);
+		if (ctor == null) {
+			synchronized (cache) {
+				ctor = cache.get(regionClass);
+				if (ctor == null) {
+					ctor = ClassUtils.getConstructorIfAvailable(createWrapperClass(regionClass), Object.class);
+					cache.putIfAbsent(regionClass, ctor);
+				}
+			}
+		}
+		return ctor;
+	}
+
+	Class<?> createWrapperClass(Class<?> regionClass) {
+		Class<?>[] ifcs = getInterfaces(regionClass);
+		String classInternalName = PKG + CLASS_LABEL + counter.getAndIncrement();
+		byte[] bytecode = generateClassBytecode(classInternalName, ifcs);
+
+		final ClassLoader parent = regionClass.getClassLoader();
+		BytecodeClassLoader loader = AccessController.doPrivileged(new PrivilegedAction<BytecodeClassLoader>() {
+			public BytecodeClassLoader run() {
+				return new BytecodeClassLoader(parent != null ? parent : ClassUtils.getDefaultClassLoader());
+			}
+		});
+		// translate internal name to binary form
+		return loader.loadClass(classInternalName.replace('/', '.'), bytecode);
+	}
+
+	private Class<?>[] getInterfaces(Class<?> regionClass) {
+		List<Class<?>> result = new ArrayList<Class<?>>();
+		for (Class<?> ifc : ClassUtils.getAllInterfacesForClass(regionClass, regionClass.getClassLoader())) {
+			if (Modifier.isPublic(ifc.getModifiers())) {
+				result.add(ifc);
+			}
+		}
+		Assert.isTrue(result.contains(Region.class), "Class " + regionClass + " does not implement Region");
+		return result.toArray(new Class<?>[result.size()]);
+	}
+
+	/**
+	 * Generates the wrapper class implementing the given interfaces.
+	 *
+	 * The generated class has the following definition:
+	 *
+	 * <pre>
+	 * public class CloseSuppressingRegion$Synthetic<i>Counter</i> implements <i>Region, ...</i> {
+	 *
+	 *  private final Object target;
+	 *
+	 *  public CloseSuppressingRegion$Synthetic<i>Counter</i>(Object target) {
+	 *     this.target = target;
+	 *  }
+	 *
+	 *  public void close() {
+	 *  }
+	 *
+	 *  public <i>R</i> <i>method</i>(<i>args</i>) {
+	 *     return ((<i>Interface</i>) target).<i>method</i>(<i>args</i>);
+	 *  }
+	 *
+	 *  public String toString() {
+	 *     return target.toString();
+	 *  }
+	 * }
+	 * </pre>
+	 *
+	 * @param className
+	 * @param ifcs
+	 * @return
+	 */
+	byte[] generateClassBytecode(String className, Class<?>[] ifcs) {
+		ClassWriter cw = new ClassWriter(true);
+
+		String[] ifcNames = new String[ifcs.length];
+		for (int i = 0; i < ifcs.length; i++) {
+			ifcNames[i] = Type.getInternalName(ifcs[i]);
+		}
+
+		cw.visit(V1_5, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, className, null, OBJECT_NAME, ifcNames);
+		FieldVisitor fv = cw.visitField(ACC_PRIVATE + ACC_FINAL, TARGET_FIELD_NAME, OBJECT_DESCRIPTOR, null, null);
+		fv.visitEnd();
+
+		// constructor
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, INIT, INIT_DESC, null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, OBJECT_NAME, INIT, NO_ARG_INIT_DESC);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitFieldInsn(PUTFIELD, className, TARGET_FIELD_NAME, OBJECT_DESCRIPTOR);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		for (Method method : collectMethods(ifcs).values()) {
+			String desc = Type.getMethodDescriptor(method);
+			mv = cw.visitMethod(ACC_PUBLIC, method.getName(), desc, null, null);
+			mv.visitCode();
+
+			if (isCloseMethod(method)) {
+				// suppress close, not valid
+				mv.visitInsn(RETURN);
+			}
+			else {
+				String owner = Type.getInternalName(method.getDeclaringClass());
+				mv.visitVarInsn(ALOAD, 0);
+				mv.visitFieldInsn(GETFIELD, className, TARGET_FIELD_NAME, OBJECT_DESCRIPTOR);
+				mv.visitTypeInsn(CHECKCAST, owner);
+
+				int slot = 1;
+				for (Type argType : Type.getArgumentTypes(method)) {
+					mv.visitVarInsn(argType.getOpcode(ILOAD), slot);
+					slot += argType.getSize();
+				}
+				mv.visitMethodInsn(INVOKEINTERFACE, owner, method.getName(), desc);
+
+				Type returnType = Type.getReturnType(method);
+				mv.visitInsn(Type.VOID_TYPE.equals(returnType) ? RETURN : returnType.getOpcode(IRETURN));
+			}
+
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		// toString delegates to the target, as the JDK proxy did
+		mv = cw.visitMethod(ACC_PUBLIC, "toString", TO_STRING_DESC, null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, className, TARGET_FIELD_NAME, OBJECT_DESCRIPTOR);
+		mv.visitMethodInsn(INVOKEVIRTUAL, OBJECT_NAME, "toString", TO_STRING_DESC);
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		// end class generation
+		cw.visitEnd();
+
+		return cw.toByteArray();
+	}
+
+	/**
+	 * Collects the methods to implement, keyed by name and descriptor. equals/hashCode/toString are left out as
+	 * equality is identity based (like for the JDK proxy) and toString is generated separately.
+	 */
+	private Map<String, Method> collectMethods(Class<?>[] ifcs) {
+		Map<String, Method> methods = new LinkedHashMap<String, Method>();
+		for (Class<?> ifc : ifcs) {
+			for (Method method : ifc.getMethods()) {
+				if (Modifier.isStatic(method.getModifiers()) || isObjectMethod(method)) {
+					continue;
+				}
+				Assert.isTrue(Modifier.isPublic(method.getDeclaringClass().getModifiers()), "Method " + method
+						+ " is declared by a non-public interface");
+				String key = method.getName() + Type.getMethodDescriptor(method);
+				if (!methods.containsKey(key)) {
+					methods.put(key, method);
+				}
+			}
+		}
+		return methods;
+	}
+
+	private static boolean isCloseMethod(Method method) {
+		return "close".equals(method.getName()) && method.getParameterTypes().length == 0
+				&& void.class.equals(method.getReturnType());
+	}
+
+	private static boolean isObjectMethod(Method method) {
+		String name = method.getName();
+		Class<?>[] params = method.getParameterTypes();
+		return ("equals".equals(name) && params.length == 1 && Object.class.equals(params[0]))
+				|| ("hashCode".equals(name) && params.length == 0) || ("toString".equals(name) && params.length == 0);
+	}
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.gemfire;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+import org.springframework.util.CustomizableThreadCreator;
+
+import com.gemstone.gemfire.GemFireCheckedException;
+import com.gemstone.gemfire.GemFireException;
+import com.gemstone.gemfire.cache.Region;
+
+/**
+ * Buffer used by {@link GemfireTemplate} for coalescing writes: entries are collected by key (the last value wins) and
+ * written through a single {@link Region#putAll(Map)} once the batch size is reached, the flush interval elapses or
+ * {@link #flush()} is called.
+ * <p/>
+ * Writes performed within a (Spring-managed) transaction are collected in a separate, transaction-bound buffer which
+ * is written right before the transaction commits (and discarded on rollback).
+ *
+ * @author Costin Leau
+ */
+class CoalescingPutBuffer {
+
+	private static final Log log = LogFactory.getLog(CoalescingPutBuffer.class);
+
+	private final GemfireTemplate template;
+	private final int batchSize;
+
+	// guards the pending map
+	private final Object lock = new Object();
+	// serializes the writes so that batches reach the region in order
+	private final Object flushLock = new Object();
+
+	private Map<Object, Object> pending = new LinkedHashMap<Object, Object>();
+
+	private final ScheduledExecutorService scheduler;
+
+	/**
+	 * Creates a new {@link CoalescingPutBuffer} instance.
+	 *
+	 * @param template template used for writing the batches
+	 * @param batchSize number of (distinct) entries that triggers a write
+	 * @param flushInterval interval (in milliseconds) at which the buffer is written; 0 disables time-based writes
+	 */
+	CoalescingPutBuffer(GemfireTemplate template, int batchSize, long flushInterval) {
+		Assert.notNull(template);
+		Assert.isTrue(batchSize > 0, "Batch size must be positive");
+		Assert.isTrue(flushInterval >= 0, "Flush interval must be positive (or 0 to disable it)");
+
+		this.template = template;
+		this.batchSize = batchSize;
+
+		if (flushInterval > 0) {
+			final CustomizableThreadCreator threadCreator = new CustomizableThreadCreator("GemfireTemplate-flush-");
+			threadCreator.setDaemon(true);
+
+			scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+				public Thread newThread(Runnable runnable) {
+					return threadCreator.createThread(runnable);
+				}
+			});
+			scheduler.scheduleWithFixedDelay(new Runnable() {
+				public void run() {
+					try {
+						flush();
+					} catch (RuntimeException ex) {
+						log.warn("Cannot write buffered entries to region " + regionName(), ex);
+					}
+				}
+			}, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+		}
+		else {
+			scheduler = null;
+		}
+	}
+
+	/**
+	 * Adds the given entry to the buffer, writing the buffer if the batch size has been reached.
+	 *
+	 * @param key entry key
+	 * @param value entry value
+	 */
+	void put(Object key, Object value) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			Map<Object, Object> txBuffer = transactionalBuffer();
+			txBuffer.put(key, value);
+			if (txBuffer.size() >= batchSize) {
+				write(new LinkedHashMap<Object, Object>(txBuffer));
+				txBuffer.clear();
+			}
+			return;
+		}
+
+		boolean full;
+		synchronized (lock) {
+			pending.put(key, value);
+			full = pending.size() >= batchSize;
+		}
+		if (full) {
+			flush();
+		}
+	}
+
+	/**
+	 * Writes all the buffered entries to the region. Inside a transaction, the transaction-bound entries are written
+	 * as well.
+	 */
+	void flush() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			@SuppressWarnings("unchecked")
+			Map<Object, Object> txBuffer = (Map<Object, Object>) TransactionSynchronizationManager.getResource(this);
+			if (txBuffer != null && !txBuffer.isEmpty()) {
+				write(new LinkedHashMap<Object, Object>(txBuffer));
+				txBuffer.clear();
+			}
+		}
+
+		synchronized (flushLock) {
+			Map<Object, Object> batch;
+			synchronized (lock) {
+				if (pending.isEmpty()) {
+					return;
+				}
+				batch = pending;
+				pending = new LinkedHashMap<Object, Object>();
+			}
+			write(batch);
+		}
+	}
+
+	/**
+	 * Stops the time-based writes and drains the buffer.
+	 */
+	void destroy() {
+		if (scheduler != null) {
+			scheduler.shutdown();
+		}
+		flush();
+	}
+
+	private void write(final Map<Object, Object> batch) {
+		if (log.isTraceEnabled()) {
+			log.trace("Writing " + batch.size() + " buffered entries to region " + regionName());
+		}
+		template.execute("putAll", batch.size(), new GemfireCallback<Object>() {
+			@SuppressWarnings("unchecked")
+			public Object doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
+				region.putAll(batch);
+				return null;
+			}
+		}, true);
+		// values read while the entries were buffered are stale now
+		template.invalidateNear(batch.keySet());
+	}
+
+	private Map<Object, Object> transactionalBuffer() {
+		@SuppressWarnings("unchecked")
+		Map<Object, Object> txBuffer = (Map<Object, Object>) TransactionSynchronizationManager.getResource(this);
+		if (txBuffer == null) {
+			final Map<Object, Object> buffer = new LinkedHashMap<Object, Object>();
+			TransactionSynchronizationManager.bindResource(this, buffer);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void beforeCommit(boolean readOnly) {
+					if (!buffer.isEmpty()) {
+						write(new LinkedHashMap<Object, Object>(buffer));
+						buffer.clear();
+					}
+				}
+
+				@Override
+				public void afterCompletion(int status) {
+					buffer.clear();
+					if (TransactionSynchronizationManager.hasResource(CoalescingPutBuffer.this)) {
+						TransactionSynchronizationManager.unbindResource(CoalescingPutBuffer.this);
+					}
+				}
+			});
+			txBuffer = buffer;
+		}
+		return txBuffer;
+	}
+
+	private String regionName() {
+		Region<?, ?> region = template.getRegion();
+		return (region != null ? region.getFullPath() : null);
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.gemfire;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.Assert;
+
+import com.gemstone.gemfire.cache.query.Query;
+import com.gemstone.gemfire.cache.query.QueryService;
+
+/**
+ * Bounded, least-recently-used cache of compiled GemFire {@link Query} objects, keyed by query string and
+ * {@link QueryService}. Used by {@link GemfireTemplate} to avoid parsing and compiling the same OQL over and over.
+ * <p/>
+ * All the cached queries are discarded once indexes are created or removed through {@link IndexFactoryBean};
+ * for indexes changed by other means, call {@link #clear()}.
+ *
+ * @author Costin Leau
+ */
+public class CompiledQueryCache {
+
+	// bumped each time the indexes change
+	private static final AtomicLong indexGeneration = new AtomicLong();
+
+	private final int maxSize;
+	private final Map<QueryKey, Query> queries;
+	private long generation = indexGeneration.get();
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * Creates a new {@link CompiledQueryCache} instance.
+	 *
+	 * @param maxSize maximum number of queries held by the cache
+	 */
+	public CompiledQueryCache(int maxSize) {
+		Assert.isTrue(maxSize > 0, "Cache size must be positive");
+		this.maxSize = maxSize;
+		this.queries = new LinkedHashMap<QueryKey, Query>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<QueryKey, Query> eldest) {
+				if (size() > CompiledQueryCache.this.maxSize) {
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Returns the compiled query for the given query string, creating (and caching) it if needed.
+	 *
+	 * @param queryService query service creating the query
+	 * @param query query string
+	 * @return compiled query
+	 */
+	public Query getQuery(QueryService queryService, String query) {
+		QueryKey key = new QueryKey(queryService, query);
+
+		synchronized (queries) {
+			long current = indexGeneration.get();
+			if (generation != current) {
+				queries.clear();
+				generation = current;
+			}
+
+			Query compiled = queries.get(key);
+			if (compiled != null) {
+				hits.incrementAndGet();
+				return compiled;
+			}
+		}
+
+		misses.incrementAndGet();
+		// compile outside the lock
+		Query compiled = queryService.newQuery(query);
+
+		synchronized (queries) {
+			Query existing = queries.get(key);
+			if (existing != null) {
+				return existing;
+			}
+			queries.put(key, compiled);
+		}
+		return compiled;
+	}
+
+	/**
+	 * Removes all the cached queries.
+	 */
+	public void clear() {
+		synchronized (queries) {
+			queries.clear();
+		}
+	}
+
+	/**
+	 * Returns the number of cached queries.
+	 *
+	 * @return number of cached queries
+	 */
+	public int size() {
+		synchronized (queries) {
+			return queries.size();
+		}
+	}
+
+	/**
+	 * Returns the maximum number of cached queries.
+	 *
+	 * @return maximum number of cached queries
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Returns the number of lookups that found a cached query.
+	 *
+	 * @return number of cache hits
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * Returns the number of lookups that required compiling the query.
+	 *
+	 * @return number of cache misses
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * Returns the number of queries removed to make room for new ones.
+	 *
+	 * @return number of evictions
+	 */
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	/**
+	 * Signals that indexes have been created or removed, invalidating all the cached queries.
+	 */
+	static void indexesChanged() {
+		indexGeneration.incrementAndGet();
+	}
+
+	private static class QueryKey {
+
+		private final QueryService queryService;
+		private final String query;
+
+		QueryKey(QueryService queryService, String query) {
+			this.queryService = queryService;
+			this.query = query;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof QueryKey)) {
+				return false;
+			}
+			QueryKey other = (QueryKey) obj;
+			return queryService == other.queryService && query.equals(other.query);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(queryService) + query.hashCode();
+		}
+	}
+}
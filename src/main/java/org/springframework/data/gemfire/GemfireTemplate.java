@@ -20,19 +20,34 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.gemfire.client.NearCache;
+import org.springframework.data.gemfire.function.RemoveAllFunction;
+import org.springframework.data.gemfire.metrics.OperationMetrics;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 
 import com.gemstone.gemfire.GemFireCheckedException;
 import com.gemstone.gemfire.GemFireException;
+import com.gemstone.gemfire.cache.EntryNotFoundException;
 import com.gemstone.gemfire.cache.Region;
 import com.gemstone.gemfire.cache.Scope;
 import com.gemstone.gemfire.cache.client.ClientCache;
+import com.gemstone.gemfire.cache.execute.FunctionService;
 import com.gemstone.gemfire.cache.query.IndexInvalidException;
 import com.gemstone.gemfire.cache.query.Query;
 import com.gemstone.gemfire.cache.query.QueryInvalidException;
@@ -53,14 +68,51 @@ import com.gemstone.gemfire.internal.cache.LocalRegion;
  * are GemFire-agnostic in their interface. The latter or code calling the latter only have to deal with business
  * objects, query objects, and <tt>org.springframework.dao</tt> exceptions. 
  * 
+ * <p/>
+ * Optionally, <tt>put</tt> and <tt>create</tt> calls can be buffered and coalesced by key, the buffered entries
+ * being written through a single {@link Region#putAll(Map)} call (see {@link #setBatchSize(int)}).
+ * 
+ * <p/>
+ * For client <tt>PROXY</tt> regions, reads can be served from a bounded, in-process {@link NearCache}
+ * (see {@link #setNearCache(NearCache)}).
+ * 
  * @author Costin Leau
  */
-public class GemfireTemplate extends GemfireAccessor {
+public class GemfireTemplate extends GemfireAccessor implements DisposableBean {
+
+	// shared between templates so that wrapper classes are generated once per region type
+	private static final CloseSuppressingRegionGenerator regionGenerator = new CloseSuppressingRegionGenerator();
 
 	private boolean exposeNativeRegion = false;
 
 	private Region<?, ?> regionProxy;
 
+	private int batchSize = 0;
+
+	private long flushInterval = 0;
+
+	private CoalescingPutBuffer putBuffer;
+
+	private int bulkChunkSize = 0;
+
+	private int bulkConcurrency = 4;
+
+	private Executor bulkExecutor;
+
+	private ChunkedBulkOperations bulkOperations;
+
+	private boolean useRemoveAllFunction = false;
+
+	private int queryCacheSize = 256;
+
+	private CompiledQueryCache queryCache;
+
+	private NearCache<Object, Object> nearCache;
+
+	private OperationMetrics metrics;
+
+	private String regionPath;
+
 	public GemfireTemplate() {
 	}
 
@@ -73,6 +125,28 @@ public class GemfireTemplate extends GemfireAccessor {
 	public void afterPropertiesSet() {
 		super.afterPropertiesSet();
 		regionProxy = createRegionProxy(getRegion());
+		regionPath = getRegion().getFullPath();
+		if (batchSize > 0) {
+			putBuffer = new CoalescingPutBuffer(this, batchSize, flushInterval);
+		}
+		if (queryCacheSize > 0) {
+			queryCache = new CompiledQueryCache(queryCacheSize);
+		}
+		if (bulkChunkSize > 0) {
+			bulkOperations = new ChunkedBulkOperations(this, bulkChunkSize, bulkConcurrency, bulkExecutor);
+		}
+	}
+
+	/**
+	 * Writes any buffered entries to the region and releases the internal executors (if any).
+	 */
+	public void destroy() {
+		if (putBuffer != null) {
+			putBuffer.destroy();
+		}
+		if (bulkOperations != null) {
+			bulkOperations.destroy();
+		}
 	}
 
 	/**
@@ -96,8 +170,119 @@ public class GemfireTemplate extends GemfireAccessor {
 		return this.exposeNativeRegion;
 	}
 
+	/**
+	 * Sets the number of entries after which buffered <code>put</code>/<code>create</code> calls are written to the
+	 * region. Default is 0, meaning writes are not buffered.
+	 * <p>When buffering, calls for the same key are coalesced (the last value wins) and the batch is written through
+	 * one <code>putAll</code> call. Note that buffered <code>put</code> calls always return <code>null</code>, 
+	 * <code>create</code> calls behave like <code>put</code> (an existing entry is overwritten) and reads do not see
+	 * the entries until they are written. Other write operations (<code>remove</code>, <code>replace</code>, etc...)
+	 * write the buffer first. Within a transaction, the buffered entries are written before the transaction commits.
+	 * @see #flush()
+	 * @see #setFlushInterval(long)
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Sets the interval (in milliseconds) at which buffered entries are written to the region, regardless of the
+	 * batch size. Default is 0 (no time-based writes). Used only when buffering is enabled.
+	 * @see #setBatchSize(int)
+	 */
+	public void setFlushInterval(long flushInterval) {
+		this.flushInterval = flushInterval;
+	}
+
+	/**
+	 * Sets the maximum number of entries sent in one <code>getAll</code>/<code>putAll</code> call. Larger bulk operations
+	 * are split into chunks that are executed concurrently (see {@link #setBulkConcurrency(int)}) and whose results are
+	 * merged. For partitioned regions, each chunk holds keys whose primary bucket is on the same member, so that it
+	 * targets that member only; client regions lack the bucket assignment, so their keys are chunked in iteration
+	 * order. Default is 0 (no chunking).
+	 */
+	public void setBulkChunkSize(int bulkChunkSize) {
+		this.bulkChunkSize = bulkChunkSize;
+	}
+
+	/**
+	 * Sets the maximum number of bulk operation chunks in flight. Default is 4.
+	 * @see #setBulkChunkSize(int)
+	 */
+	public void setBulkConcurrency(int bulkConcurrency) {
+		this.bulkConcurrency = bulkConcurrency;
+	}
+
+	/**
+	 * Sets the executor running the bulk operation chunks. If not set, an internal pool sized after the bulk
+	 * concurrency is used.
+	 * @see #setBulkChunkSize(int)
+	 */
+	public void setBulkExecutor(Executor bulkExecutor) {
+		this.bulkExecutor = bulkExecutor;
+	}
+
+	/**
+	 * Sets whether {@link #removeAll(Collection)} destroys the entries through the {@link RemoveAllFunction}, executed
+	 * on the members (or servers) hosting the keys, in one round trip per member rather than one per key. The function
+	 * needs to be registered on the members hosting the region data. Default is "false".
+	 */
+	public void setUseRemoveAllFunction(boolean useRemoveAllFunction) {
+		this.useRemoveAllFunction = useRemoveAllFunction;
+	}
+
+	/**
+	 * Sets the maximum number of compiled queries cached by the template for its <code>find</code> methods.
+	 * Default is 256. Use 0 to disable the caching.
+	 * @see CompiledQueryCache
+	 */
+	public void setQueryCacheSize(int queryCacheSize) {
+		this.queryCacheSize = queryCacheSize;
+	}
+
+	/**
+	 * Returns the cache of compiled queries (for statistics or manual invalidation).
+	 * 
+	 * @return the query cache, or <code>null</code> if disabled
+	 */
+	public CompiledQueryCache getQueryCache() {
+		return queryCache;
+	}
+
+	/**
+	 * Sets the near cache serving the <code>get</code>/<code>getAll</code> calls. Values fetched from the region are
+	 * added to the near cache while the keys written through the template are removed from it; changes made by
+	 * others are propagated through the region events (see {@link NearCache}). The near cache is bypassed within
+	 * transactions. Note that operations executed through callbacks do not use the near cache.
+	 * @see org.springframework.data.gemfire.client.ClientRegionFactoryBean#setNearCache(NearCache)
+	 */
+	@SuppressWarnings("unchecked")
+	public void setNearCache(NearCache<?, ?> nearCache) {
+		this.nearCache = (NearCache<Object, Object>) nearCache;
+	}
+
+	/**
+	 * Sets the metrics recording the latency, errors and (for bulk calls) payload size of each operation executed
+	 * by the template. Default is none (no overhead).
+	 * @see org.springframework.data.gemfire.metrics.DefaultOperationMetrics
+	 */
+	public void setMetrics(OperationMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Writes the buffered <code>put</code>/<code>create</code> entries (if any) to the region. 
+	 * Does nothing if buffering is disabled.
+	 * @see #setBatchSize(int)
+	 */
+	public void flush() {
+		if (putBuffer != null) {
+			putBuffer.flush();
+		}
+	}
+
 	public boolean containsKey(final Object key) {
-		return execute(new GemfireCallback<Boolean>() {
+		return execute("containsKey", -1, new GemfireCallback<Boolean>() {
 			@SuppressWarnings("unchecked")
 			public Boolean doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
 				return region.containsKey(key);
@@ -106,7 +291,7 @@ public class GemfireTemplate extends GemfireAccessor {
 	}
 
 	public boolean containsKeyOnServer(final Object key) {
-		return execute(new GemfireCallback<Boolean>() {
+		return execute("containsKeyOnServer", -1, new GemfireCallback<Boolean>() {
 			@SuppressWarnings("unchecked")
 			public Boolean doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
 				return region.containsKeyOnServer(key);
@@ -115,7 +300,7 @@ public class GemfireTemplate extends GemfireAccessor {
 	}
 
 	public boolean containsValue(final Object value) {
-		return execute(new GemfireCallback<Boolean>() {
+		return execute("containsValue", -1, new GemfireCallback<Boolean>() {
 			@SuppressWarnings("unchecked")
 			public Boolean doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
 				return region.containsValue(value);
@@ -124,7 +309,7 @@ public class GemfireTemplate extends GemfireAccessor {
 	}
 
 	public boolean containsValueForKey(final Object key) {
-		return execute(new GemfireCallback<Boolean>() {
+		return execute("containsValueForKey", -1, new GemfireCallback<Boolean>() {
 			@SuppressWarnings("unchecked")
 			public Boolean doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
 				return region.containsValueForKey(key);
@@ -133,17 +318,37 @@ public class GemfireTemplate extends GemfireAccessor {
 	}
 
 	public <K, V> void create(final K key, final V value) {
-		execute(new GemfireCallback<Object>() {
+		if (putBuffer != null) {
+			putBuffer.put(key, value);
+			invalidateNear(key);
+			return;
+		}
+		execute("create", -1, new GemfireCallback<Object>() {
 			@SuppressWarnings("unchecked")
 			public Object doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
 				region.create(key, value);
 				return null;
 			}
 		});
+		invalidateNear(key);
 	}
 
+	@SuppressWarnings("unchecked")
 	public <K, V> V get(final K key) {
-		return execute(new GemfireCallback<V>() {
+		if (useNearCache()) {
+			V value = (V) nearCache.get(key);
+			if (value == null) {
+				long sequence = nearCache.sequence(key);
+				value = this.<K, V> doGet(key);
+				nearCache.put(key, value, sequence);
+			}
+			return value;
+		}
+		return this.<K, V> doGet(key);
+	}
+
+	private <K, V> V doGet(final K key) {
+		return execute("get", -1, new GemfireCallback<V>() {
 			@SuppressWarnings("unchecked")
 			public V doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
 				return (V) region.get(key);
@@ -152,52 +357,107 @@ public class GemfireTemplate extends GemfireAccessor {
 	}
 
 	public <K, V> V put(final K key, final V value) {
-		return execute(new GemfireCallback<V>() {
+		if (putBuffer != null) {
+			putBuffer.put(key, value);
+			invalidateNear(key);
+			return null;
+		}
+		V old = execute("put", -1, new GemfireCallback<V>() {
 			@SuppressWarnings("unchecked")
 			public V doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
 				return (V) region.put(key, value);
 			}
 		});
+		invalidateNear(key);
+		return old;
 	}
 
 	public <K, V> V putIfAbsent(final K key, final V value) {
-		return execute(new GemfireCallback<V>() {
+		flush();
+		V old = execute("putIfAbsent", -1, new GemfireCallback<V>() {
 			@SuppressWarnings("unchecked")
 			public V doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
 				return (V) region.putIfAbsent(key, value);
 			}
 		});
+		invalidateNear(key);
+		return old;
 	}
 
 	public <K, V> V remove(final K key) {
-		return execute(new GemfireCallback<V>() {
+		flush();
+		V old = execute("remove", -1, new GemfireCallback<V>() {
 			@SuppressWarnings("unchecked")
 			public V doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
 				return (V) region.remove(key);
 			}
 		});
+		invalidateNear(key);
+		return old;
 	}
 
 	public <K, V> V replace(final K key, final V value) {
-		return execute(new GemfireCallback<V>() {
+		flush();
+		V old = execute("replace", -1, new GemfireCallback<V>() {
 			@SuppressWarnings("unchecked")
 			public V doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
 				return (V) region.replace(key, value);
 			}
 		});
+		invalidateNear(key);
+		return old;
 	}
 
 	public <K, V> boolean replace(final K key, final V oldValue, final V newValue) {
-		return execute(new GemfireCallback<Boolean>() {
+		flush();
+		boolean replaced = execute("replace", -1, new GemfireCallback<Boolean>() {
 			@SuppressWarnings("unchecked")
 			public Boolean doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
 				return region.replace(key, oldValue, newValue);
 			}
 		});
+		invalidateNear(key);
+		return replaced;
 	}
 
+	@SuppressWarnings("unchecked")
 	public <K, V> Map<K, V> getAll(final Collection<?> keys) {
-		return execute(new GemfireCallback<Map<K, V>>() {
+		if (!useNearCache()) {
+			return doGetAll(keys);
+		}
+
+		Map<K, V> result = new HashMap<K, V>(keys.size());
+		List<Object> missing = new ArrayList<Object>();
+		for (Object key : keys) {
+			V value = (V) nearCache.get(key);
+			if (value != null) {
+				result.put((K) key, value);
+			}
+			else {
+				missing.add(key);
+			}
+		}
+
+		if (!missing.isEmpty()) {
+			long[] sequences = new long[missing.size()];
+			for (int i = 0; i < sequences.length; i++) {
+				sequences[i] = nearCache.sequence(missing.get(i));
+			}
+			Map<K, V> fetched = doGetAll(missing);
+			for (int i = 0; i < sequences.length; i++) {
+				K key = (K) missing.get(i);
+				nearCache.put(key, fetched.get(key), sequences[i]);
+			}
+			result.putAll(fetched);
+		}
+		return result;
+	}
+
+	private <K, V> Map<K, V> doGetAll(final Collection<?> keys) {
+		if (bulkOperations != null && keys.size() > bulkOperations.getChunkSize()) {
+			return bulkOperations.getAll(keys);
+		}
+		return execute("getAll", keys.size(), new GemfireCallback<Map<K, V>>() {
 			@SuppressWarnings("unchecked")
 			public Map<K, V> doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
 				return (Map<K, V>) region.getAll(keys);
@@ -206,13 +466,96 @@ public class GemfireTemplate extends GemfireAccessor {
 	}
 
 	public <K, V> void putAll(final Map<? extends K, ? extends V> map) {
-		execute(new GemfireCallback<Object>() {
+		flush();
+		if (bulkOperations != null && map.size() > bulkOperations.getChunkSize()) {
+			bulkOperations.putAll(map);
+		}
+		else {
+			execute("putAll", map.size(), new GemfireCallback<Object>() {
+				@SuppressWarnings("unchecked")
+				public Object doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
+					region.putAll(map);
+					return null;
+				}
+			});
+		}
+		invalidateNear(map.keySet());
+	}
+
+	/**
+	 * Removes the entries for the given keys. Unlike {@link #remove(Object)}, the removed values are not returned (nor
+	 * transferred, in case of client regions); keys without an entry are ignored.
+	 * <p/>
+	 * If enabled, the entries are destroyed through the {@link RemoveAllFunction}, in one round trip per member hosting
+	 * the keys. Otherwise, as GemFire has no bulk removal, each entry is destroyed on its own; when bulk chunking is
+	 * enabled, large key sets are split into chunks that are removed concurrently.
+	 *
+	 * @param keys keys of the entries to remove
+	 * @see #setUseRemoveAllFunction(boolean)
+	 */
+	public void removeAll(final Collection<?> keys) {
+		flush();
+		// function executions within transactions are restricted to a single member
+		if (useRemoveAllFunction && !keys.isEmpty() && !TransactionSynchronizationManager.isActualTransactionActive()) {
+			execute("removeAll", keys.size(), new GemfireCallback<Object>() {
+				public Object doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
+					FunctionService.onRegion(region).withFilter(new HashSet<Object>(keys)).execute(RemoveAllFunction.ID)
+							.getResult();
+					return null;
+				}
+			}, true);
+		}
+		else if (bulkOperations != null && keys.size() > bulkOperations.getChunkSize()) {
+			bulkOperations.removeAll(keys);
+		}
+		else {
+			execute("removeAll", keys.size(), new RemoveAllCallback(keys));
+		}
+		invalidateNear(keys);
+	}
+
+	private boolean useNearCache() {
+		// transactional reads need to see the (uncommitted) transaction state
+		return nearCache != null && !TransactionSynchronizationManager.isActualTransactionActive();
+	}
+
+	// called after the write so that values fetched concurrently with it are not cached
+	private void invalidateNear(Object key) {
+		if (nearCache != null) {
+			invalidateNear(Collections.singleton(key));
+		}
+	}
+
+	/**
+	 * Removes the given keys from the near cache (if any). Within a transaction, the keys are removed again once the
+	 * transaction completes, as the writes reach the server only then (and the client receives no events for its own
+	 * writes), so values read in the meantime by other threads may be stale.
+	 */
+	void invalidateNear(Collection<?> keys) {
+		if (nearCache == null) {
+			return;
+		}
+		nearCache.invalidateAll(keys);
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
 			@SuppressWarnings("unchecked")
-			public Object doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
-				region.putAll(map);
-				return null;
+			Set<Object> txKeys = (Set<Object>) TransactionSynchronizationManager.getResource(nearCache);
+			if (txKeys == null) {
+				final Set<Object> written = new HashSet<Object>();
+				TransactionSynchronizationManager.bindResource(nearCache, written);
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+					@Override
+					public void afterCompletion(int status) {
+						if (TransactionSynchronizationManager.hasResource(nearCache)) {
+							TransactionSynchronizationManager.unbindResource(nearCache);
+						}
+						nearCache.invalidateAll(written);
+					}
+				});
+				txKeys = written;
 			}
-		});
+			txKeys.addAll(keys);
+		}
 	}
 
 	/**
@@ -227,7 +570,7 @@ public class GemfireTemplate extends GemfireAccessor {
 	 * @return A SelectResults containing the values of this Region that match the predicate. 
 	 */
 	public <E> SelectResults<E> query(final String query) {
-		return execute(new GemfireCallback<SelectResults<E>>() {
+		return execute("query", -1, new GemfireCallback<SelectResults<E>>() {
 			@SuppressWarnings("unchecked")
 			public SelectResults<E> doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
 				return region.query(query);
@@ -254,11 +597,10 @@ public class GemfireTemplate extends GemfireAccessor {
 	 */
 	public <E> SelectResults<E> find(final String query, final Object... params)
 			throws InvalidDataAccessApiUsageException {
-		return execute(new GemfireCallback<SelectResults<E>>() {
+		return execute("find", -1, new GemfireCallback<SelectResults<E>>() {
 			@SuppressWarnings("unchecked")
 			public SelectResults<E> doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
-				QueryService queryService = lookupQueryService(region);
-				Query q = queryService.newQuery(query);
+				Query q = getQuery(region, query);
 				Object result = q.execute(params);
 				if (result instanceof SelectResults) {
 					return (SelectResults<E>) result;
@@ -286,11 +628,10 @@ public class GemfireTemplate extends GemfireAccessor {
 	 * @throws InvalidDataAccessApiUsageException in case the query returns multiple objects (through {@link SelectResults}). 
 	 */
 	public <T> T findUnique(final String query, final Object... params) throws InvalidDataAccessApiUsageException {
-		return execute(new GemfireCallback<T>() {
+		return execute("findUnique", -1, new GemfireCallback<T>() {
 			@SuppressWarnings("unchecked")
 			public T doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
-				QueryService queryService = lookupQueryService(region);
-				Query q = queryService.newQuery(query);
+				Query q = getQuery(region, query);
 				Object result = q.execute(params);
 				if (result instanceof SelectResults) {
 					throw new InvalidDataAccessApiUsageException(
@@ -302,6 +643,33 @@ public class GemfireTemplate extends GemfireAccessor {
 	}
 
 
+	/**
+	 * Iterates lazily, in pages of bounded size, over the values of the template region that match the given
+	 * (optional) predicate. As oppose to {@link #find(String, Object...)}, the results are not materialized at once,
+	 * making this method suitable for (very) large result sets. Iteration can be stopped at any point.
+	 * <p/>
+	 * The predicate is evaluated against the region entries, aliased as <tt>e</tt>; the values are referred to through
+	 * <tt>e.value</tt>, for example <tt>e.value.status = $1</tt>. Note that the region keys need to be comparable, as
+	 * they are used for ordering the pages.
+	 * 
+	 * @see PagedRegionIterator
+	 * @param predicate query predicate; if <code>null</code>, all the region values are returned
+	 * @param pageSize maximum number of values fetched at once
+	 * @param params Values that are bound to parameters (such as $1) in the predicate.
+	 * @return lazy iterator over the matching values
+	 */
+	public <V> PagedRegionIterator<V> stream(String predicate, int pageSize, Object... params) {
+		return new PagedRegionIterator<V>(this, predicate, pageSize, params);
+	}
+
+	/**
+	 * Returns the compiled query for the given query string, going through the query cache (if enabled).
+	 */
+	private Query getQuery(Region<?, ?> region, String query) {
+		QueryService qs = lookupQueryService(region);
+		return (queryCache != null ? queryCache.getQuery(qs, query) : qs.newQuery(query));
+	}
+
 	/**
 	 * Returns the query service used by the template in its find methods.
 	 * 
@@ -333,6 +701,32 @@ public class GemfireTemplate extends GemfireAccessor {
 	 * @throws org.springframework.dao.DataAccessException in case of GemFire errors
 	 */
 	public <T> T execute(GemfireCallback<T> action, boolean exposeNativeRegion) throws DataAccessException {
+		return execute("execute", -1, action, exposeNativeRegion);
+	}
+
+	private <T> T execute(String operation, int payloadSize, GemfireCallback<T> action) {
+		return execute(operation, payloadSize, action, isExposeNativeRegion());
+	}
+
+	/**
+	 * Executes the given action, recording it (if metrics are configured) under the given operation name.
+	 */
+	<T> T execute(String operation, int payloadSize, GemfireCallback<T> action, boolean exposeNativeRegion) {
+		if (metrics == null) {
+			return doExecute(action, exposeNativeRegion);
+		}
+		long start = System.nanoTime();
+		try {
+			T result = doExecute(action, exposeNativeRegion);
+			metrics.recordOperation(regionPath, operation, System.nanoTime() - start, payloadSize);
+			return result;
+		} catch (RuntimeException ex) {
+			metrics.recordError(regionPath, operation, System.nanoTime() - start, ex);
+			throw ex;
+		}
+	}
+
+	private <T> T doExecute(GemfireCallback<T> action, boolean exposeNativeRegion) throws DataAccessException {
 		Assert.notNull(action, "Callback object must not be null");
 		try {
 			Region<?, ?> regionToExpose = (exposeNativeRegion ? getRegion() : regionProxy);
@@ -359,6 +753,9 @@ public class GemfireTemplate extends GemfireAccessor {
 	/**
 	 * Create a close-suppressing proxy for the given GemFire {@link Region}.
 	 * Called by the <code>execute</code> method.
+	 * <p/>
+	 * By default, a generated wrapper class that delegates through plain method calls is used; 
+	 * a JDK proxy is created only if no such class can be generated for the given region.
 	 * 
 	 * @param region the GemFire Region to create a proxy for
 	 * @return the Region proxy, implementing all interfaces
@@ -368,11 +765,49 @@ public class GemfireTemplate extends GemfireAccessor {
 	 */
 	@SuppressWarnings("unchecked")
 	protected <K, V> Region<K, V> createRegionProxy(Region<K, V> region) {
+		try {
+			return regionGenerator.createRegion(region);
+		} catch (RuntimeException ex) {
+			if (log.isDebugEnabled()) {
+				log.debug("Cannot generate close-suppressing wrapper for " + region.getClass()
+						+ "; falling back to JDK proxy", ex);
+			}
+		} catch (LinkageError err) {
+			if (log.isDebugEnabled()) {
+				log.debug("Cannot generate close-suppressing wrapper for " + region.getClass()
+						+ "; falling back to JDK proxy", err);
+			}
+		}
+
 		Class<?>[] ifcs = ClassUtils.getAllInterfacesForClass(region.getClass(), getClass().getClassLoader());
 		return (Region<K, V>) Proxy.newProxyInstance(region.getClass().getClassLoader(), ifcs,
 				new CloseSuppressingInvocationHandler(region));
 	}
 
+	/**
+	 * Destroys the entries for the given keys, ignoring the missing ones. Does not return the removed values.
+	 */
+	static class RemoveAllCallback implements GemfireCallback<Object> {
+
+		private final Collection<?> keys;
+
+		RemoveAllCallback(Collection<?> keys) {
+			this.keys = keys;
+		}
+
+		@SuppressWarnings("rawtypes")
+		public Object doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
+			for (Object key : keys) {
+				try {
+					region.destroy(key);
+				} catch (EntryNotFoundException ex) {
+					// already removed
+				}
+			}
+			return null;
+		}
+	}
+
 	//-------------------------------------------------------------------------
 	// Convenience methods for load, save, delete
 	//-------------------------------------------------------------------------
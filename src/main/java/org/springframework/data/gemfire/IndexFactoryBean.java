@@ -103,6 +103,9 @@ public class IndexFactoryBean implements InitializingBean, BeanNameAware, Factor
 			index = queryService.createIndex(indexName, type, expression, from);
 		}
 
+		// cached queries might not reflect the new index
+		CompiledQueryCache.indexesChanged();
+
 		return index;
 	}
 
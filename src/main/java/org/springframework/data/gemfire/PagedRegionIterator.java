@@ -0,0 +1,161 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.gemfire;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import com.gemstone.gemfire.cache.query.SelectResults;
+
+/**
+ * Lazy {@link Iterator} over the values of a region, fetching them in bounded pages. Each page is retrieved by
+ * selecting the next (ordered) window of matching keys - <tt>ORDER BY</tt> plus <tt>LIMIT</tt>, starting after the
+ * last key of the previous page - followed by a <tt>getAll</tt> for the values. As a result, at most one page of
+ * values is held in memory regardless of the number of matching entries.
+ * <p/>
+ * Note that the server evaluates and sorts the whole set of matching keys (those after the last key of the previous
+ * page) for every page, so iterating over <tt>n</tt> entries costs about <tt>n / pageSize</tt> such sorts; larger
+ * pages mean fewer of them, at the expense of more memory per page.
+ * <p/>
+ * The region keys need to be comparable (as they are used for ordering). Entries created or removed while iterating
+ * might or might not be returned. Iteration can be stopped at any time; {@link #close()} releases the current page.
+ * <p/>
+ * Not thread-safe. Instances are obtained through {@link GemfireTemplate#stream(String, int, Object...)}.
+ *
+ * @author Costin Leau
+ */
+public class PagedRegionIterator<V> implements Iterator<V> {
+
+	/** Alias of the region entries inside the paging queries */
+	public static final String ENTRY_ALIAS = "e";
+
+	private final GemfireTemplate template;
+	private final int pageSize;
+	private final String firstPageQuery;
+	private final String nextPageQuery;
+	private final Object[] params;
+	// the query parameters followed by the last key of the previous page
+	private final Object[] nextPageParams;
+
+	private Iterator<V> page = Collections.<V> emptyList().iterator();
+	private Object lastKey;
+	private boolean exhausted = false;
+	private int pages = 0;
+
+	PagedRegionIterator(GemfireTemplate template, String predicate, int pageSize, Object... params) {
+		Assert.notNull(template, "Template must not be null");
+		Assert.isTrue(pageSize > 0, "Page size must be positive");
+
+		this.template = template;
+		this.pageSize = pageSize;
+		// copied into an Object[] as the last key might not fit into a typed array given by the caller
+		this.params = new Object[params != null ? params.length : 0];
+		if (params != null) {
+			System.arraycopy(params, 0, this.params, 0, params.length);
+		}
+		this.nextPageParams = new Object[this.params.length + 1];
+		System.arraycopy(this.params, 0, nextPageParams, 0, this.params.length);
+
+		String select = "SELECT DISTINCT " + ENTRY_ALIAS + ".key FROM " + template.getRegion().getFullPath()
+				+ ".entrySet " + ENTRY_ALIAS;
+		String window = " ORDER BY " + ENTRY_ALIAS + ".key LIMIT " + pageSize;
+		String keyRange = ENTRY_ALIAS + ".key > $" + (this.params.length + 1);
+
+		if (StringUtils.hasText(predicate)) {
+			firstPageQuery = select + " WHERE (" + predicate + ")" + window;
+			nextPageQuery = select + " WHERE (" + predicate + ") AND " + keyRange + window;
+		}
+		else {
+			firstPageQuery = select + window;
+			nextPageQuery = select + " WHERE " + keyRange + window;
+		}
+	}
+
+	public boolean hasNext() {
+		while (!page.hasNext() && !exhausted) {
+			fetchPage();
+		}
+		return page.hasNext();
+	}
+
+	public V next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return page.next();
+	}
+
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Stops the iteration, discarding the current page.
+	 */
+	public void close() {
+		exhausted = true;
+		page = Collections.<V> emptyList().iterator();
+	}
+
+	/**
+	 * Returns the number of pages fetched so far.
+	 *
+	 * @return number of fetched pages
+	 */
+	public int getPagesFetched() {
+		return pages;
+	}
+
+	private void fetchPage() {
+		SelectResults<Object> result;
+		if (lastKey == null) {
+			result = template.find(firstPageQuery, params);
+		}
+		else {
+			nextPageParams[params.length] = lastKey;
+			result = template.find(nextPageQuery, nextPageParams);
+		}
+		pages++;
+
+		List<Object> keys = result.asList();
+		if (keys.size() < pageSize) {
+			exhausted = true;
+		}
+		if (keys.isEmpty()) {
+			return;
+		}
+		lastKey = keys.get(keys.size() - 1);
+
+		Map<Object, V> values = template.getAll(keys);
+		List<V> pageValues = new ArrayList<V>(keys.size());
+		for (Object key : keys) {
+			V value = values.get(key);
+			// skip entries removed in the meantime
+			if (value != null) {
+				pageValues.add(value);
+			}
+		}
+		page = pageValues.iterator();
+	}
+}
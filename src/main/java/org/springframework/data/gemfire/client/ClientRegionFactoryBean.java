@@ -32,6 +32,7 @@ import com.gemstone.gemfire.cache.CacheClosedException;
 import com.gemstone.gemfire.cache.CacheListener;
 import com.gemstone.gemfire.cache.DataPolicy;
 import com.gemstone.gemfire.cache.GemFireCache;
+import com.gemstone.gemfire.cache.InterestResultPolicy;
 import com.gemstone.gemfire.cache.Region;
 import com.gemstone.gemfire.cache.RegionAttributes;
 import com.gemstone.gemfire.cache.client.ClientCache;
@@ -60,6 +61,8 @@ public class ClientRegionFactoryBean<K, V> extends RegionLookupFactoryBean<K, V>
 	private BeanFactory beanFactory;
 	private ClientRegionShortcut shortcut = null;
 	private DataPolicy dataPolicy;
+	private NearCache<K, V> nearCache;
+	private boolean nearCacheInterest = false;
 
 	private RegionAttributes<K, V> attributes;
 	private Region<K, V> region;
@@ -164,6 +167,15 @@ public class ClientRegionFactoryBean<K, V> extends RegionLookupFactoryBean<K, V>
 	}
 
 	protected void postProcess(Region<K, V> region) {
+		if (nearCache != null) {
+			region.getAttributesMutator().addCacheListener(nearCache);
+			// without explicit interests, listen to invalidations for all keys
+			if (ObjectUtils.isEmpty(interests)) {
+				region.registerInterestRegex(".*", InterestResultPolicy.NONE, false, false);
+				nearCacheInterest = true;
+			}
+		}
+
 		if (!ObjectUtils.isEmpty(interests)) {
 			for (Interest<K> interest : interests) {
 				if (interest instanceof RegexInterest) {
@@ -183,6 +195,9 @@ public class ClientRegionFactoryBean<K, V> extends RegionLookupFactoryBean<K, V>
 		Region<K, V> region = getObject();
 		// unregister interests
 		try {
+			if (region != null && nearCacheInterest) {
+				region.unregisterInterestRegex(".*");
+			}
 			if (region != null && !ObjectUtils.isEmpty(interests)) {
 				for (Interest<K> interest : interests) {
 					if (interest instanceof RegexInterest) {
@@ -236,6 +251,18 @@ public class ClientRegionFactoryBean<K, V> extends RegionLookupFactoryBean<K, V>
 		return interests;
 	}
 
+	/**
+	 * Sets the near cache kept coherent with this (usually <tt>PROXY</tt>) client region. The near cache is added as a
+	 * listener to the region; if no interests are configured, an interest in all keys (without values) is registered
+	 * so that the near cache receives the server invalidations. Note the pool needs to have subscriptions enabled.
+	 * 
+	 * @see NearCache
+	 * @param nearCache the near cache to set
+	 */
+	public void setNearCache(NearCache<K, V> nearCache) {
+		this.nearCache = nearCache;
+	}
+
 	/**
 	 * Sets the pool name used by this client.
 	 * 
@@ -0,0 +1,467 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.client;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.gemfire.listener.ContinuousQueryListener;
+import org.springframework.util.Assert;
+
+import com.gemstone.gemfire.cache.EntryEvent;
+import com.gemstone.gemfire.cache.RegionEvent;
+import com.gemstone.gemfire.cache.query.CqEvent;
+import com.gemstone.gemfire.cache.util.CacheListenerAdapter;
+import com.gemstone.gemfire.cache.util.ObjectSizer;
+
+/**
+ * Bounded, in-process (L1) cache placed in front of a client <tt>PROXY</tt> region, for serving the frequently read
+ * entries without a server round-trip. Unlike a <tt>CACHING_PROXY</tt> region, the near cache bounds can be tuned
+ * per access pattern: number of entries, total (estimated) size of the values and time-to-live, with either LRU or
+ * FIFO eviction.
+ * <p/>
+ * The near cache is kept coherent by the events received from the server: it acts both as a region
+ * {@link com.gemstone.gemfire.cache.CacheListener} (receiving the events for the registered key interests, see
+ * {@link ClientRegionFactoryBean#setNearCache(NearCache)}) and as a {@link ContinuousQueryListener} (for CQ-based
+ * invalidation through a {@link org.springframework.data.gemfire.listener.ContinuousQueryListenerContainer}). Any
+ * event for a key removes it from the near cache; the next read fetches the new value from the server.
+ * <p/>
+ * Reads and writes go through {@link org.springframework.data.gemfire.GemfireTemplate#setNearCache(NearCache)}.
+ * A value fetched from the server is cached only if its key was not invalidated while it was being fetched, so a
+ * concurrent update cannot leave a stale value behind. Invalidations are tracked through per-key versions, kept in a
+ * fixed number of slots the keys are hashed to: an invalidation discards the in-flight fetches of its key (and of the
+ * few keys sharing its slot) only, rather than of all keys.
+ * <p/>
+ * Reads do not lock: the entries are kept in a concurrent map and each read only stamps the entry it returns. The
+ * eviction order is thus approximate - once a bound is exceeded, the entries with the oldest stamps (last read for
+ * {@link EvictionPolicy#LRU}, cached for {@link EvictionPolicy#FIFO}) are evicted in a batch, by a single thread at a
+ * time, until the cache is 10% below the bound.
+ *
+ * @author Costin Leau
+ */
+public class NearCache<K, V> extends CacheListenerAdapter<K, V> implements ContinuousQueryListener, InitializingBean {
+
+	/**
+	 * Order in which entries are evicted once the near cache is full.
+	 */
+	public enum EvictionPolicy {
+		/** least recently read entries first */
+		LRU,
+		/** oldest entries first */
+		FIFO
+	}
+
+	private static final int VERSION_SLOTS = 1024;
+
+	private int maxEntries = 1000;
+	private long maxSize = 0;
+	private ObjectSizer sizer = ObjectSizer.DEFAULT;
+	private long timeToLive = 0;
+	private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+
+	private ConcurrentMap<Object, CachedValue> entries;
+	private final AtomicLong size = new AtomicLong();
+	// invalidation versions, indexed by key hash
+	private final AtomicLongArray versions = new AtomicLongArray(VERSION_SLOTS);
+	// source of the entry stamps (eviction order)
+	private final AtomicLong clock = new AtomicLong();
+	private final Lock evictionLock = new ReentrantLock();
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong invalidations = new AtomicLong();
+
+	public void afterPropertiesSet() {
+		Assert.isTrue(maxEntries > 0, "Max entries must be positive");
+		Assert.isTrue(maxSize >= 0, "Max size must be positive (or 0 for no size limit)");
+		Assert.isTrue(timeToLive >= 0, "Time to live must be positive (or 0 for no expiration)");
+		Assert.notNull(evictionPolicy, "Eviction policy is required");
+		if (maxSize > 0) {
+			Assert.notNull(sizer, "Object sizer is required when a max size is set");
+		}
+
+		entries = new ConcurrentHashMap<Object, CachedValue>();
+	}
+
+	/**
+	 * Returns the value cached for the given key.
+	 *
+	 * @param key entry key
+	 * @return the cached value, or <code>null</code> if the key is not cached (or has expired)
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(Object key) {
+		CachedValue cached = entries.get(key);
+		if (cached != null) {
+			if (!cached.isExpired()) {
+				if (EvictionPolicy.LRU.equals(evictionPolicy)) {
+					cached.stamp = clock.incrementAndGet();
+				}
+				hits.incrementAndGet();
+				return (V) cached.value;
+			}
+			remove(key, cached);
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * Returns the current invalidation sequence of the given key. To be read before fetching its value from the server
+	 * and passed to {@link #put(Object, Object, long)} afterwards.
+	 *
+	 * @param key entry key
+	 * @return current invalidation sequence of the key
+	 */
+	public long sequence(Object key) {
+		return versions.get(slot(key));
+	}
+
+	/**
+	 * Caches the given value, fetched from the server, unless the key was invalidated since the given sequence was
+	 * read (in which case the value might be stale).
+	 *
+	 * @param key entry key
+	 * @param value entry value; <code>null</code> values are not cached
+	 * @param sequence invalidation sequence of the key read before fetching the value
+	 * @return whether the value was cached or not
+	 */
+	public boolean put(K key, V value, long sequence) {
+		int slot = slot(key);
+		if (value == null || sequence != versions.get(slot)) {
+			return false;
+		}
+
+		int valueSize = (maxSize > 0 ? sizer.sizeof(value) : 0);
+		// a value larger than the whole cache is never cached
+		if (maxSize > 0 && valueSize > maxSize) {
+			return false;
+		}
+
+		CachedValue cached = new CachedValue(value, valueSize, timeToLive, clock.incrementAndGet());
+		CachedValue previous = entries.put(key, cached);
+		size.addAndGet(previous == null ? valueSize : valueSize - previous.size);
+
+		// invalidated while being cached - the invalidation might have missed the new value
+		if (sequence != versions.get(slot)) {
+			remove(key, cached);
+			return false;
+		}
+
+		evict();
+		return true;
+	}
+
+	/**
+	 * Removes the given key from the near cache.
+	 *
+	 * @param key entry key
+	 */
+	public void invalidate(Object key) {
+		versions.incrementAndGet(slot(key));
+		CachedValue removed = entries.remove(key);
+		if (removed != null) {
+			size.addAndGet(-removed.size);
+			invalidations.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Removes the given keys from the near cache.
+	 *
+	 * @param keys entry keys
+	 */
+	public void invalidateAll(Collection<?> keys) {
+		for (Object key : keys) {
+			invalidate(key);
+		}
+	}
+
+	/**
+	 * Removes all the entries from the near cache.
+	 */
+	public void clear() {
+		for (int i = 0; i < VERSION_SLOTS; i++) {
+			versions.incrementAndGet(i);
+		}
+		for (Object key : entries.keySet()) {
+			CachedValue removed = entries.remove(key);
+			if (removed != null) {
+				size.addAndGet(-removed.size);
+				invalidations.incrementAndGet();
+			}
+		}
+	}
+
+	private static int slot(Object key) {
+		int hash = (key == null ? 0 : key.hashCode());
+		// spread the higher bits, as keys often differ in those only
+		hash ^= (hash >>> 20) ^ (hash >>> 12) ^ (hash >>> 7);
+		return hash & (VERSION_SLOTS - 1);
+	}
+
+	private boolean remove(Object key, CachedValue cached) {
+		if (entries.remove(key, cached)) {
+			size.addAndGet(-cached.size);
+			return true;
+		}
+		return false;
+	}
+
+	private boolean isFull(int entryCount, long valuesSize) {
+		return entryCount > maxEntries || (maxSize > 0 && valuesSize > maxSize);
+	}
+
+	private void evict() {
+		if (!isFull(entries.size(), size.get()) || !evictionLock.tryLock()) {
+			return;
+		}
+
+		try {
+			// snapshot the stamps, as reads keep changing them
+			EvictionCandidate[] candidates = new EvictionCandidate[entries.size()];
+			int count = 0;
+			for (Map.Entry<Object, CachedValue> entry : entries.entrySet()) {
+				if (count == candidates.length) {
+					break;
+				}
+				candidates[count++] = new EvictionCandidate(entry.getKey(), entry.getValue());
+			}
+			Arrays.sort(candidates, 0, count);
+
+			// evict below the bounds, so that the next puts do not sort the entries again
+			int entryTarget = maxEntries - maxEntries / 10;
+			long sizeTarget = maxSize - maxSize / 10;
+
+			for (int i = 0; i < count; i++) {
+				if (entries.size() <= entryTarget && (maxSize == 0 || size.get() <= sizeTarget)) {
+					break;
+				}
+				if (remove(candidates[i].key, candidates[i].value)) {
+					evictions.incrementAndGet();
+				}
+			}
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	//
+	// coherence (server events)
+	//
+
+	@Override
+	public void afterCreate(EntryEvent<K, V> event) {
+		invalidate(event.getKey());
+	}
+
+	@Override
+	public void afterUpdate(EntryEvent<K, V> event) {
+		invalidate(event.getKey());
+	}
+
+	@Override
+	public void afterInvalidate(EntryEvent<K, V> event) {
+		invalidate(event.getKey());
+	}
+
+	@Override
+	public void afterDestroy(EntryEvent<K, V> event) {
+		invalidate(event.getKey());
+	}
+
+	@Override
+	public void afterRegionClear(RegionEvent<K, V> event) {
+		clear();
+	}
+
+	@Override
+	public void afterRegionInvalidate(RegionEvent<K, V> event) {
+		clear();
+	}
+
+	@Override
+	public void afterRegionDestroy(RegionEvent<K, V> event) {
+		clear();
+	}
+
+	public void onEvent(CqEvent event) {
+		if (event.getBaseOperation().isClear() || event.getBaseOperation().isRegion()) {
+			clear();
+		}
+		else {
+			invalidate(event.getKey());
+		}
+	}
+
+	//
+	// statistics
+	//
+
+	/**
+	 * Returns the number of cached entries.
+	 *
+	 * @return number of cached entries
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns the estimated size of the cached values, as computed by the configured {@link ObjectSizer}. Always 0 if
+	 * no max size is set.
+	 *
+	 * @return estimated size of the cached values
+	 */
+	public long getSize() {
+		return size.get();
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * Returns the ratio of reads served by the near cache.
+	 *
+	 * @return hit ratio, between 0 and 1
+	 */
+	public double getHitRatio() {
+		long h = hits.get();
+		long total = h + misses.get();
+		return (total == 0 ? 0 : (double) h / total);
+	}
+
+	/**
+	 * Returns the number of entries removed to make room for new ones.
+	 *
+	 * @return number of evictions
+	 */
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	/**
+	 * Returns the number of cached entries removed following a write or a server event.
+	 *
+	 * @return number of invalidations
+	 */
+	public long getInvalidationCount() {
+		return invalidations.get();
+	}
+
+	//
+	// configuration
+	//
+
+	/**
+	 * Sets the maximum number of cached entries. Default is 1000.
+	 *
+	 * @param maxEntries maximum number of entries
+	 */
+	public void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Sets the maximum (estimated) size of the cached values. Default is 0 (no size limit).
+	 *
+	 * @see #setSizer(ObjectSizer)
+	 * @param maxSize maximum size, in bytes
+	 */
+	public void setMaxSize(long maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Sets the sizer estimating the size of the cached values. Default is {@link ObjectSizer#DEFAULT}.
+	 *
+	 * @param sizer object sizer
+	 */
+	public void setSizer(ObjectSizer sizer) {
+		this.sizer = sizer;
+	}
+
+	/**
+	 * Sets the time (in milliseconds) an entry is served from the near cache before being fetched again. Useful as a
+	 * safety net when events can be missed. Default is 0 (no expiration).
+	 *
+	 * @param timeToLive time to live in milliseconds
+	 */
+	public void setTimeToLive(long timeToLive) {
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * Sets the eviction policy. Default is {@link EvictionPolicy#LRU}.
+	 *
+	 * @param evictionPolicy eviction policy
+	 */
+	public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+		this.evictionPolicy = evictionPolicy;
+	}
+
+	private static class CachedValue {
+
+		final Object value;
+		final int size;
+		final long expiration;
+		// last read (LRU) or creation (FIFO) order
+		volatile long stamp;
+
+		CachedValue(Object value, int size, long timeToLive, long stamp) {
+			this.value = value;
+			this.size = size;
+			this.stamp = stamp;
+			this.expiration = (timeToLive > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeToLive) : 0);
+		}
+
+		boolean isExpired() {
+			return expiration != 0 && expiration - System.nanoTime() <= 0;
+		}
+	}
+
+	private static class EvictionCandidate implements Comparable<EvictionCandidate> {
+
+		final Object key;
+		final CachedValue value;
+		final long stamp;
+
+		EvictionCandidate(Object key, CachedValue value) {
+			this.key = key;
+			this.value = value;
+			this.stamp = value.stamp;
+		}
+
+		public int compareTo(EvictionCandidate o) {
+			return (stamp < o.stamp ? -1 : (stamp == o.stamp ? 0 : 1));
+		}
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.config;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.beans.factory.xml.AbstractSingleBeanDefinitionParser;
+import org.springframework.beans.factory.xml.ParserContext;
+import org.springframework.data.gemfire.function.FunctionRegistrationPostProcessor;
+import org.springframework.data.gemfire.function.GemfireFunctionTemplate;
+import org.springframework.util.StringUtils;
+import org.w3c.dom.Element;
+
+/**
+ * Parser for &lt;function-template&gt; definitions. Unless disabled, also registers a
+ * {@link FunctionRegistrationPostProcessor} for the function beans declared in the context.
+ * 
+ * @author Costin Leau
+ */
+class FunctionTemplateParser extends AbstractSingleBeanDefinitionParser {
+
+	static final String REGISTRATION_POST_PROCESSOR_NAME = "gemfire-function-registration-post-processor";
+
+	protected Class<?> getBeanClass(Element element) {
+		return GemfireFunctionTemplate.class;
+	}
+
+	@Override
+	protected void doParse(Element element, ParserContext parserContext, BeanDefinitionBuilder builder) {
+		super.doParse(element, builder);
+
+		ParsingUtils.setPropertyReference(element, builder, "region-ref", "region");
+		ParsingUtils.setPropertyValue(element, builder, "pool-name", "poolName");
+		ParsingUtils.setPropertyValue(element, builder, "timeout", "timeout");
+
+		String attr = element.getAttribute("cache-ref");
+		// add cache reference (fallback to default if there's no region to take it from)
+		if (StringUtils.hasText(attr)) {
+			builder.addPropertyReference("cache", attr);
+		}
+		else if (!element.hasAttribute("region-ref")) {
+			builder.addPropertyReference("cache", "gemfire-cache");
+		}
+
+		attr = element.getAttribute("register-functions");
+		if (!StringUtils.hasText(attr) || Boolean.valueOf(attr)) {
+			BeanDefinitionRegistry registry = parserContext.getRegistry();
+			if (!registry.containsBeanDefinition(REGISTRATION_POST_PROCESSOR_NAME)) {
+				RootBeanDefinition definition = new RootBeanDefinition(FunctionRegistrationPostProcessor.class);
+				definition.setSource(parserContext.extractSource(element));
+				definition.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
+				registry.registerBeanDefinition(REGISTRATION_POST_PROCESSOR_NAME, definition);
+			}
+		}
+	}
+}
@@ -42,6 +42,8 @@ class GemfireNamespaceHandler extends NamespaceHandlerSupport {
 
 		registerBeanDefinitionParser("cq-listener-container", new GemfireListenerContainerParser());
 
+		registerBeanDefinitionParser("function-template", new FunctionTemplateParser());
+
 		registerBeanDefinitionParser("repositories", new GemfireRepositoryParser());
 	}
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.function;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+
+import com.gemstone.gemfire.cache.execute.Function;
+import com.gemstone.gemfire.cache.execute.FunctionService;
+
+/**
+ * Bean post processor registering the Spring-managed GemFire {@link Function}s with the {@link FunctionService}, so
+ * they can be invoked by id. Functions are unregistered once their bean is destroyed.
+ * <p/>
+ * Registered automatically by the <tt>&lt;gfe:function-template&gt;</tt> namespace element.
+ *
+ * @author Costin Leau
+ */
+public class FunctionRegistrationPostProcessor implements DestructionAwareBeanPostProcessor {
+
+	private static final Log log = LogFactory.getLog(FunctionRegistrationPostProcessor.class);
+
+	public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+		return bean;
+	}
+
+	public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+		if (bean instanceof Function) {
+			Function function = (Function) bean;
+			Function existing = FunctionService.getFunction(function.getId());
+			if (existing != null && existing != function) {
+				log.warn("Replacing function [" + function.getId() + "] with bean '" + beanName + "'");
+			}
+			else if (log.isDebugEnabled()) {
+				log.debug("Registering function [" + function.getId() + "] (bean '" + beanName + "')");
+			}
+			FunctionService.registerFunction(function);
+		}
+		return bean;
+	}
+
+	public void postProcessBeforeDestruction(Object bean, String beanName) throws BeansException {
+		if (bean instanceof Function) {
+			Function function = (Function) bean;
+			// leave alone functions registered by other means
+			if (FunctionService.getFunction(function.getId()) == function) {
+				FunctionService.unregisterFunction(function.getId());
+			}
+		}
+	}
+}
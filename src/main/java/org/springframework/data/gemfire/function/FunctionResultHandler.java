@@ -0,0 +1,33 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.function;
+
+/**
+ * Callback interface invoked for each (partial) result sent by a GemFire function, as it arrives. Allows large
+ * result sets to be processed without accumulating them in memory.
+ *
+ * @see StreamingResultCollector
+ * @author Costin Leau
+ */
+public interface FunctionResultHandler<T> {
+
+	/**
+	 * Handles a single result sent by a function execution.
+	 *
+	 * @param result function result
+	 */
+	void handleResult(T result);
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.function;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.gemfire.GemfireCacheUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import com.gemstone.gemfire.GemFireException;
+import com.gemstone.gemfire.cache.GemFireCache;
+import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.cache.RegionService;
+import com.gemstone.gemfire.cache.client.Pool;
+import com.gemstone.gemfire.cache.client.PoolManager;
+import com.gemstone.gemfire.cache.execute.Execution;
+import com.gemstone.gemfire.cache.execute.FunctionService;
+import com.gemstone.gemfire.cache.execute.ResultCollector;
+
+/**
+ * Helper class that simplifies the execution of GemFire (registered) functions, moving the computation to the data
+ * rather than the data to the client. Supports the execution on a region (optionally restricted to a set of keys, so
+ * that only the members hosting them are involved), on all or one of the servers of a pool and on all the members of
+ * the distributed system.
+ * <p/>
+ * By default, the results sent by all members are collected in a {@link List}. For large results, use the variants
+ * taking a {@link FunctionResultHandler}, which process each result as it arrives.
+ * <p/>
+ * Exceptions raised by the executions are translated into Spring's
+ * {@link org.springframework.dao.DataAccessException} hierarchy.
+ *
+ * @see FunctionService
+ * @see FunctionRegistrationPostProcessor
+ * @author Costin Leau
+ */
+public class GemfireFunctionTemplate implements InitializingBean {
+
+	private GemFireCache cache;
+	private Region<?, ?> region;
+	private Pool pool;
+	private String poolName;
+	private long timeout = 0;
+
+	public GemfireFunctionTemplate() {
+	}
+
+	public GemfireFunctionTemplate(Region<?, ?> region) {
+		setRegion(region);
+		afterPropertiesSet();
+	}
+
+	public void afterPropertiesSet() {
+		Assert.isTrue(timeout >= 0, "Timeout must be positive (or 0 for no timeout)");
+
+		if (pool == null && StringUtils.hasText(poolName)) {
+			pool = PoolManager.find(poolName);
+			Assert.notNull(pool, "No pool named [" + poolName + "] found");
+		}
+
+		if (cache == null && region != null) {
+			RegionService regionService = region.getRegionService();
+			if (regionService instanceof GemFireCache) {
+				cache = (GemFireCache) regionService;
+			}
+		}
+
+		Assert.isTrue(cache != null || region != null || pool != null,
+				"One of 'cache', 'region' or 'pool' is required");
+	}
+
+	/**
+	 * Executes the given function on the configured region.
+	 *
+	 * @see #executeOnRegion(Region, String, Set, Serializable)
+	 */
+	public <T> List<T> executeOnRegion(String functionId, Serializable args) {
+		return executeOnRegion(functionId, null, args);
+	}
+
+	/**
+	 * Executes the given function on the configured region, on the members hosting the given keys.
+	 *
+	 * @see #executeOnRegion(Region, String, Set, Serializable)
+	 */
+	public <T> List<T> executeOnRegion(String functionId, Set<?> filter, Serializable args) {
+		Assert.notNull(region, "No region configured");
+		return executeOnRegion(region, functionId, filter, args);
+	}
+
+	/**
+	 * Executes the given function on the given region. If keys are specified, the execution is routed only to the
+	 * members hosting them (for partitioned regions), which can restrict the processing to the filtered entries.
+	 *
+	 * @param region region the function is executed on
+	 * @param functionId id of the (registered) function
+	 * @param filter keys the execution is restricted to; can be <code>null</code>
+	 * @param args function arguments; can be <code>null</code>
+	 * @return the results sent by the function
+	 */
+	public <T> List<T> executeOnRegion(Region<?, ?> region, String functionId, Set<?> filter, Serializable args) {
+		return execute(onRegion(region, filter), functionId, args);
+	}
+
+	/**
+	 * Streaming variant of {@link #executeOnRegion(Region, String, Set, Serializable)}.
+	 *
+	 * @param handler handler invoked for each result
+	 * @return the number of results received
+	 */
+	public <T> int executeOnRegion(Region<?, ?> region, String functionId, Set<?> filter, Serializable args,
+			FunctionResultHandler<T> handler) {
+		return execute(onRegion(region, filter), functionId, args, handler);
+	}
+
+	/**
+	 * Executes the given function on all the servers of the configured pool (or of the client cache default pool).
+	 *
+	 * @param functionId id of the (registered) function
+	 * @param args function arguments; can be <code>null</code>
+	 * @return the results sent by the function
+	 */
+	public <T> List<T> executeOnServers(String functionId, Serializable args) {
+		return execute(onServers(), functionId, args);
+	}
+
+	/**
+	 * Streaming variant of {@link #executeOnServers(String, Serializable)}.
+	 *
+	 * @param handler handler invoked for each result
+	 * @return the number of results received
+	 */
+	public <T> int executeOnServers(String functionId, Serializable args, FunctionResultHandler<T> handler) {
+		return execute(onServers(), functionId, args, handler);
+	}
+
+	/**
+	 * Executes the given function on one of the servers of the configured pool (or of the client cache default pool).
+	 *
+	 * @param functionId id of the (registered) function
+	 * @param args function arguments; can be <code>null</code>
+	 * @return the results sent by the function
+	 */
+	public <T> List<T> executeOnServer(String functionId, Serializable args) {
+		return execute(onServer(), functionId, args);
+	}
+
+	/**
+	 * Streaming variant of {@link #executeOnServer(String, Serializable)}.
+	 *
+	 * @param handler handler invoked for each result
+	 * @return the number of results received
+	 */
+	public <T> int executeOnServer(String functionId, Serializable args, FunctionResultHandler<T> handler) {
+		return execute(onServer(), functionId, args, handler);
+	}
+
+	/**
+	 * Executes the given function on all the members of the distributed system (peer caches only).
+	 *
+	 * @param functionId id of the (registered) function
+	 * @param args function arguments; can be <code>null</code>
+	 * @return the results sent by the function
+	 */
+	public <T> List<T> executeOnMembers(String functionId, Serializable args) {
+		return execute(onMembers(), functionId, args);
+	}
+
+	/**
+	 * Streaming variant of {@link #executeOnMembers(String, Serializable)}.
+	 *
+	 * @param handler handler invoked for each result
+	 * @return the number of results received
+	 */
+	public <T> int executeOnMembers(String functionId, Serializable args, FunctionResultHandler<T> handler) {
+		return execute(onMembers(), functionId, args, handler);
+	}
+
+	/**
+	 * Executes the given function through the given {@link Execution}, collecting the results with the given
+	 * collector (if any). Allows custom executions and collectors to benefit from the template exception
+	 * translation and timeout.
+	 *
+	 * @param execution function execution
+	 * @param functionId id of the (registered) function
+	 * @param args function arguments; can be <code>null</code>
+	 * @param collector result collector; if <code>null</code>, the GemFire default one (returning a list) is used
+	 * @return the result of the collector
+	 */
+	@SuppressWarnings("unchecked")
+	public <R> R execute(Execution execution, String functionId, Serializable args, ResultCollector<?, R> collector) {
+		Assert.notNull(execution, "Execution is required");
+		Assert.hasText(functionId, "Function id is required");
+
+		try {
+			if (args != null) {
+				execution = execution.withArgs(args);
+			}
+			if (collector != null) {
+				execution = execution.withCollector(collector);
+			}
+
+			ResultCollector<?, R> result = (ResultCollector<?, R>) execution.execute(functionId);
+			if (timeout > 0) {
+				return result.getResult(timeout, TimeUnit.MILLISECONDS);
+			}
+			return result.getResult();
+		} catch (GemFireException ex) {
+			throw GemfireCacheUtils.convertGemfireAccessException(ex);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new DataAccessResourceFailureException("Interrupted while waiting for function [" + functionId
+					+ "]", ex);
+		}
+	}
+
+	private <T> List<T> execute(Execution execution, String functionId, Serializable args) {
+		return this.<List<T>> execute(execution, functionId, args, null);
+	}
+
+	private <T> int execute(Execution execution, String functionId, Serializable args,
+			FunctionResultHandler<T> handler) {
+		return execute(execution, functionId, args, new StreamingResultCollector<T>(handler)).intValue();
+	}
+
+	private Execution onRegion(Region<?, ?> region, Set<?> filter) {
+		Assert.notNull(region, "Region is required");
+		Execution execution = FunctionService.onRegion(region);
+		return (CollectionUtils.isEmpty(filter) ? execution : execution.withFilter(filter));
+	}
+
+	private Execution onServers() {
+		if (pool != null) {
+			return FunctionService.onServers(pool);
+		}
+		Assert.notNull(cache, "Neither a pool nor a cache is configured");
+		return FunctionService.onServers(cache);
+	}
+
+	private Execution onServer() {
+		if (pool != null) {
+			return FunctionService.onServer(pool);
+		}
+		Assert.notNull(cache, "Neither a pool nor a cache is configured");
+		return FunctionService.onServer(cache);
+	}
+
+	private Execution onMembers() {
+		Assert.notNull(cache, "No cache configured");
+		return FunctionService.onMembers(cache.getDistributedSystem());
+	}
+
+	/**
+	 * Sets the cache used for server and member executions. Optional if a region is configured.
+	 *
+	 * @param cache GemFire cache
+	 */
+	public void setCache(GemFireCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Returns the region used by default for region executions.
+	 *
+	 * @return the default region
+	 */
+	public Region<?, ?> getRegion() {
+		return region;
+	}
+
+	/**
+	 * Sets the region used by default for region executions.
+	 *
+	 * @param region the default region
+	 */
+	public void setRegion(Region<?, ?> region) {
+		this.region = region;
+	}
+
+	/**
+	 * Sets the pool used for server executions. If not set, the client cache default pool is used.
+	 *
+	 * @param pool client pool
+	 */
+	public void setPool(Pool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Sets the name of the pool used for server executions. Alternative to {@link #setPool(Pool)}.
+	 *
+	 * @param poolName client pool name
+	 */
+	public void setPoolName(String poolName) {
+		this.poolName = poolName;
+	}
+
+	/**
+	 * Sets the time (in milliseconds) to wait for the function results. Default is 0 (wait indefinitely).
+	 *
+	 * @param timeout timeout in milliseconds
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.function;
+
+import java.util.Set;
+
+import com.gemstone.gemfire.cache.EntryNotFoundException;
+import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.cache.execute.FunctionAdapter;
+import com.gemstone.gemfire.cache.execute.FunctionContext;
+import com.gemstone.gemfire.cache.execute.FunctionException;
+import com.gemstone.gemfire.cache.execute.RegionFunctionContext;
+
+/**
+ * GemFire function destroying the entries of the keys it is filtered on, used by
+ * {@link org.springframework.data.gemfire.GemfireTemplate#removeAll(java.util.Collection)} to remove many entries in
+ * one round trip per member (or server) rather than one per key. For partitioned regions, the execution is routed to
+ * the primary members hosting the keys, each destroying its own entries; keys without an entry are ignored. The
+ * function returns the number of destroyed entries.
+ * <p/>
+ * The function needs to be registered on the members hosting the data, for example by declaring it as a bean next to
+ * a {@link FunctionRegistrationPostProcessor}.
+ *
+ * @author Costin Leau
+ */
+public class RemoveAllFunction extends FunctionAdapter {
+
+	public static final String ID = RemoveAllFunction.class.getName();
+
+	private static final long serialVersionUID = -7446458932390428543L;
+
+	@Override
+	@SuppressWarnings("rawtypes")
+	public void execute(FunctionContext context) {
+		if (!(context instanceof RegionFunctionContext)) {
+			throw new FunctionException("Function [" + ID + "] needs to be executed on a region");
+		}
+
+		RegionFunctionContext regionContext = (RegionFunctionContext) context;
+		Region region = regionContext.getDataSet();
+		Set<?> keys = regionContext.getFilter();
+
+		int removed = 0;
+		if (keys != null) {
+			for (Object key : keys) {
+				try {
+					region.destroy(key);
+					removed++;
+				} catch (EntryNotFoundException ex) {
+					// already removed
+				}
+			}
+		}
+
+		context.getResultSender().lastResult(Integer.valueOf(removed));
+	}
+
+	@Override
+	public String getId() {
+		return ID;
+	}
+
+	@Override
+	public boolean optimizeForWrite() {
+		return true;
+	}
+
+	@Override
+	public boolean isHA() {
+		// destroying the remaining keys again is harmless
+		return true;
+	}
+}
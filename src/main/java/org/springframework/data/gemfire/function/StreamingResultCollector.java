@@ -0,0 +1,102 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.function;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.util.Assert;
+
+import com.gemstone.gemfire.cache.execute.FunctionException;
+import com.gemstone.gemfire.cache.execute.ResultCollector;
+import com.gemstone.gemfire.distributed.DistributedMember;
+
+/**
+ * {@link ResultCollector} passing each result to a {@link FunctionResultHandler} as soon as it arrives, instead of
+ * accumulating all of them. {@link #getResult()} waits for the execution to end and returns the number of handled
+ * results.
+ * <p/>
+ * Results sent by different members are handed to the handler one at a time. Exceptions sent as results (by failed
+ * executions) are not passed to the handler; the first one is rethrown by {@link #getResult()}.
+ *
+ * @author Costin Leau
+ */
+public class StreamingResultCollector<T> implements ResultCollector<Object, Integer> {
+
+	private final FunctionResultHandler<T> handler;
+
+	private final CountDownLatch done = new CountDownLatch(1);
+	private int count = 0;
+	private Throwable failure;
+
+	/**
+	 * Creates a new {@link StreamingResultCollector} instance.
+	 *
+	 * @param handler handler invoked for each result
+	 */
+	public StreamingResultCollector(FunctionResultHandler<T> handler) {
+		Assert.notNull(handler, "Result handler is required");
+		this.handler = handler;
+	}
+
+	@SuppressWarnings("unchecked")
+	public synchronized void addResult(DistributedMember memberID, Object resultOfSingleExecution) {
+		if (resultOfSingleExecution instanceof Throwable) {
+			if (failure == null) {
+				failure = (Throwable) resultOfSingleExecution;
+			}
+			return;
+		}
+		count++;
+		handler.handleResult((T) resultOfSingleExecution);
+	}
+
+	public void endResults() {
+		done.countDown();
+	}
+
+	public Integer getResult() throws FunctionException {
+		try {
+			done.await();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new FunctionException("Interrupted while waiting for the function results", ex);
+		}
+		return result();
+	}
+
+	public Integer getResult(long timeout, TimeUnit unit) throws FunctionException, InterruptedException {
+		if (!done.await(timeout, unit)) {
+			throw new FunctionException("Function results not received within " + timeout + " " + unit);
+		}
+		return result();
+	}
+
+	public synchronized void clearResults() {
+		count = 0;
+		failure = null;
+	}
+
+	private synchronized Integer result() {
+		if (failure != null) {
+			if (failure instanceof FunctionException) {
+				throw (FunctionException) failure;
+			}
+			throw new FunctionException(failure);
+		}
+		return Integer.valueOf(count);
+	}
+}
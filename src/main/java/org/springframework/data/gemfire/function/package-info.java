@@ -0,0 +1,5 @@
+/**
+ * Support package for GemFire function execution (data-local computation).
+ */
+package org.springframework.data.gemfire.function;
+
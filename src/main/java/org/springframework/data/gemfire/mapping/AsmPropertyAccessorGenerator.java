@@ -0,0 +1,460 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.mapping;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.util.ClassUtils;
+
+import com.gemstone.gemfire.pdx.PdxReader;
+import com.gemstone.gemfire.pdx.PdxWriter;
+
+/**
+ * ASM based generator of {@link EntityPropertyAccessor}s. The generated classes read and write the persistent
+ * properties of an entity through direct field access or getter/setter invocations, selected by a
+ * <code>switch</code> on the property index, so that no reflection nor any per-instance wrapper is involved.
+ * <p/>
+ * As the generated classes live in their own class loader, only public members of public entities can be accessed
+ * that way; the remaining properties fall back to the (reflective) {@link EntityPropertyAccessor} implementation.
+ * <p/>
+ * Relies on the ASM 2.x package repacked by Spring framework, similar to
+ * {@link org.springframework.data.gemfire.serialization.AsmInstantiatorGenerator}.
+ * 
+ * @author Costin Leau
+ */
+class AsmPropertyAccessorGenerator implements Opcodes {
+
+	private static final String PKG = "org/springframework/data/gemfire/mapping/";
+	private static final String CLASS_LABEL = "PropertyAccessor$Synthetic";
+	private static final String ACCESSOR_NAME = Type.getInternalName(EntityPropertyAccessor.class);
+
+	private static final String INIT = "<init>";
+	private static final String INIT_DESC = Type.getMethodDescriptor(Type.VOID_TYPE, new Type[] { Type
+			.getType(List.class) });
+	private static final String GET_PROPERTY = "getProperty";
+	private static final String GET_PROPERTY_DESC = Type.getMethodDescriptor(Type.getType(Object.class), new Type[] {
+			Type.getType(Object.class), Type.INT_TYPE });
+	private static final String SET_PROPERTY = "setProperty";
+	private static final String SET_PROPERTY_DESC = Type.getMethodDescriptor(Type.VOID_TYPE, new Type[] {
+			Type.getType(Object.class), Type.INT_TYPE, Type.getType(Object.class) });
+	private static final String PDX_WRITER_NAME = Type.getInternalName(PdxWriter.class);
+	private static final String WRITE_PROPERTY = "writeProperty";
+	private static final String WRITE_PROPERTY_DESC = Type.getMethodDescriptor(Type.VOID_TYPE, new Type[] {
+			Type.getType(Object.class), Type.INT_TYPE, Type.getType(PdxWriter.class), Type.getType(String.class) });
+	private static final String PDX_READER_NAME = Type.getInternalName(PdxReader.class);
+	private static final String READ_PROPERTY = "readProperty";
+	private static final String READ_PROPERTY_DESC = Type.getMethodDescriptor(Type.VOID_TYPE, new Type[] {
+			Type.getType(Object.class), Type.INT_TYPE, Type.getType(PdxReader.class), Type.getType(String.class) });
+
+	// generated class counter
+	private static final AtomicLong counter = new AtomicLong(1);
+
+	// entity type -> accessor cache
+	private final ConcurrentMap<Class<?>, EntityPropertyAccessor> cache = new ConcurrentHashMap<Class<?>, EntityPropertyAccessor>();
+
+	private static final class BytecodeClassLoader extends ClassLoader {
+
+		public BytecodeClassLoader(ClassLoader loader) {
+			super(loader);
+		}
+
+		public Class<?> loadClass(String name, byte[] bytecode) {
+			return defineClass(name, bytecode, 0, bytecode.length);
+		}
+	}
+
+	/**
+	 * Returns the {@link EntityPropertyAccessor} for the given entity, generating it on first access. The accessor
+	 * handles the properties in the order of {@link GemfirePersistentEntity#doWithProperties(PropertyHandler)}.
+	 * 
+	 * @param entity persistent entity
+	 * @return the property accessor
+	 */
+	public EntityPropertyAccessor getPropertyAccessor(GemfirePersistentEntity<?> entity) {
+		EntityPropertyAccessor accessor = cache.get(entity.getType());
+		if (accessor == null) {
+			synchronized (cache) {
+				accessor = cache.get(entity.getType());
+				if (accessor == null) {
+					accessor = createPropertyAccessor(entity);
+					cache.putIfAbsent(entity.getType(), accessor);
+				}
+			}
+		}
+		return accessor;
+	}
+
+	private EntityPropertyAccessor createPropertyAccessor(GemfirePersistentEntity<?> entity) {
+		final List<GemfirePersistentProperty> properties = new ArrayList<GemfirePersistentProperty>();
+
+		entity.doWithProperties(new PropertyHandler<GemfirePersistentProperty>() {
+			public void doWithPersistentProperty(GemfirePersistentProperty persistentProperty) {
+				properties.add(persistentProperty);
+			}
+		});
+
+		Class<?> accessorClass = createAccessorClass(entity.getType(), properties);
+		Constructor<?> ctor = ClassUtils.getConstructorIfAvailable(accessorClass, List.class);
+		return (EntityPropertyAccessor) BeanUtils.instantiateClass(ctor, properties);
+	}
+
+	Class<?> createAccessorClass(Class<?> type, List<GemfirePersistentProperty> properties) {
+		String classInternalName = PKG + type.getSimpleName() + CLASS_LABEL + counter.getAndIncrement();
+		byte[] bytecode = generateClassBytecode(classInternalName, type, properties);
+
+		final ClassLoader parent = type.getClassLoader();
+		BytecodeClassLoader loader = AccessController.doPrivileged(new PrivilegedAction<BytecodeClassLoader>() {
+			public BytecodeClassLoader run() {
+				return new BytecodeClassLoader(parent != null ? parent : ClassUtils.getDefaultClassLoader());
+			}
+		});
+		// translate internal name to binary form
+		return loader.loadClass(classInternalName.replace('/', '.'), bytecode);
+	}
+
+	/**
+	 * Generates the accessor class for the given entity type and properties.
+	 * 
+	 * The generated class has the following definition:
+	 * 
+	 * <pre>
+	 * public class &lt;<i>T</i>>PropertyAccessor$Synthetic<i>Counter</i> extends EntityPropertyAccessor {
+	 * 
+	 *  public &lt;<i>T</i>>PropertyAccessor$Synthetic<i>Counter</i>(List properties) {
+	 *     super(properties);
+	 *  }
+	 * 
+	 *  public Object getProperty(Object bean, int index) {
+	 *     switch (index) {
+	 *        case <i>0</i>: return ((<i>T</i>) bean).<i>getName()</i>;
+	 *        ...
+	 *        default: return super.getProperty(bean, index);
+	 *     }
+	 *  }
+	 * 
+	 *  public void setProperty(Object bean, int index, Object value) {
+	 *     switch (index) {
+	 *        case <i>0</i>: ((<i>T</i>) bean).<i>setName</i>((<i>String</i>) value); return;
+	 *        ...
+	 *        default: super.setProperty(bean, index, value);
+	 *     }
+	 *  }
+	 * 
+	 *  public void writeProperty(Object bean, int index, PdxWriter writer, String name) {
+	 *     switch (index) {
+	 *        case <i>0</i>: writer.<i>writeString</i>(name, ((<i>T</i>) bean).<i>getName()</i>); return;
+	 *        ...
+	 *        default: super.writeProperty(bean, index, writer, name);
+	 *     }
+	 *  }
+	 * 
+	 *  public void readProperty(Object bean, int index, PdxReader reader, String name) {
+	 *     switch (index) {
+	 *        case <i>0</i>: ((<i>T</i>) bean).<i>setName</i>(reader.<i>readString</i>(name)); return;
+	 *        ...
+	 *        default: super.readProperty(bean, index, reader, name);
+	 *     }
+	 *  }
+	 * }
+	 * </pre>
+	 * 
+	 * Primitive values are boxed and unboxed as needed by the generic methods; the PDX ones use the typed
+	 * {@link PdxWriter}/{@link PdxReader} methods of the {@link PdxFieldType} of each property instead.
+	 * 
+	 * @param className
+	 * @param type
+	 * @param properties
+	 * @return
+	 */
+	byte[] generateClassBytecode(String className, Class<?> type, List<GemfirePersistentProperty> properties) {
+		ClassWriter cw = new ClassWriter(true);
+
+		cw.visit(V1_5, ACC_PUBLIC + ACC_SUPER, className, null, ACCESSOR_NAME, null);
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, INIT, INIT_DESC, null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitMethodInsn(INVOKESPECIAL, ACCESSOR_NAME, INIT, INIT_DESC);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		String typeName = Type.getInternalName(type);
+
+		// members accessed directly, null for the properties left to the fallback
+		int size = properties.size();
+		Method[] getters = new Method[size], setters = new Method[size];
+		Field[] readFields = new Field[size], writeFields = new Field[size];
+
+		if (isPublic(type)) {
+			for (int i = 0; i < size; i++) {
+				GemfirePersistentProperty property = properties.get(i);
+				getters[i] = getReadMethod(property);
+				readFields[i] = getters[i] == null ? getField(property, false) : null;
+				setters[i] = getWriteMethod(property);
+				writeFields[i] = setters[i] == null ? getField(property, true) : null;
+			}
+		}
+
+		// getter
+		mv = cw.visitMethod(ACC_PUBLIC, GET_PROPERTY, GET_PROPERTY_DESC, null, null);
+		mv.visitCode();
+
+		Label fallback = new Label();
+		Label[] labels = switchOnIndex(mv, getters, readFields, null, fallback);
+
+		for (int i = 0; i < size; i++) {
+			if (labels[i] != fallback) {
+				mv.visitLabel(labels[i]);
+				box(mv, loadProperty(mv, typeName, getters[i], readFields[i]));
+				mv.visitInsn(ARETURN);
+			}
+		}
+
+		mv.visitLabel(fallback);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitVarInsn(ILOAD, 2);
+		mv.visitMethodInsn(INVOKESPECIAL, ACCESSOR_NAME, GET_PROPERTY, GET_PROPERTY_DESC);
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		// setter
+		mv = cw.visitMethod(ACC_PUBLIC, SET_PROPERTY, SET_PROPERTY_DESC, null, null);
+		mv.visitCode();
+
+		fallback = new Label();
+		labels = switchOnIndex(mv, setters, writeFields, null, fallback);
+
+		for (int i = 0; i < size; i++) {
+			if (labels[i] != fallback) {
+				mv.visitLabel(labels[i]);
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitTypeInsn(CHECKCAST, typeName);
+				mv.visitVarInsn(ALOAD, 3);
+				unbox(mv, properties.get(i).getType());
+				storeProperty(mv, typeName, setters[i], writeFields[i]);
+				mv.visitInsn(RETURN);
+			}
+		}
+
+		mv.visitLabel(fallback);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitVarInsn(ILOAD, 2);
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitMethodInsn(INVOKESPECIAL, ACCESSOR_NAME, SET_PROPERTY, SET_PROPERTY_DESC);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		// PDX writer
+		mv = cw.visitMethod(ACC_PUBLIC, WRITE_PROPERTY, WRITE_PROPERTY_DESC, null, null);
+		mv.visitCode();
+
+		fallback = new Label();
+		labels = switchOnIndex(mv, getters, readFields, null, fallback);
+
+		for (int i = 0; i < size; i++) {
+			if (labels[i] != fallback) {
+				Method writeMethod = properties.get(i).getPdxFieldType().getWriteMethod();
+
+				mv.visitLabel(labels[i]);
+				mv.visitVarInsn(ALOAD, 3);
+				mv.visitVarInsn(ALOAD, 4);
+				loadProperty(mv, typeName, getters[i], readFields[i]);
+				mv.visitMethodInsn(INVOKEINTERFACE, PDX_WRITER_NAME, writeMethod.getName(), Type
+						.getMethodDescriptor(writeMethod));
+				// ignore the (fluent) writer result, if any
+				if (!void.class.equals(writeMethod.getReturnType())) {
+					mv.visitInsn(POP);
+				}
+				mv.visitInsn(RETURN);
+			}
+		}
+
+		mv.visitLabel(fallback);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitVarInsn(ILOAD, 2);
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitVarInsn(ALOAD, 4);
+		mv.visitMethodInsn(INVOKESPECIAL, ACCESSOR_NAME, WRITE_PROPERTY, WRITE_PROPERTY_DESC);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		// PDX reader, for the typed fields only (objects being read as they come)
+		mv = cw.visitMethod(ACC_PUBLIC, READ_PROPERTY, READ_PROPERTY_DESC, null, null);
+		mv.visitCode();
+
+		fallback = new Label();
+		labels = switchOnIndex(mv, setters, writeFields, properties, fallback);
+
+		for (int i = 0; i < size; i++) {
+			if (labels[i] != fallback) {
+				Method readMethod = properties.get(i).getPdxFieldType().getReadMethod();
+
+				mv.visitLabel(labels[i]);
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitTypeInsn(CHECKCAST, typeName);
+				mv.visitVarInsn(ALOAD, 3);
+				mv.visitVarInsn(ALOAD, 4);
+				mv.visitMethodInsn(INVOKEINTERFACE, PDX_READER_NAME, readMethod.getName(), Type
+						.getMethodDescriptor(readMethod));
+				storeProperty(mv, typeName, setters[i], writeFields[i]);
+				mv.visitInsn(RETURN);
+			}
+		}
+
+		mv.visitLabel(fallback);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitVarInsn(ILOAD, 2);
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitVarInsn(ALOAD, 4);
+		mv.visitMethodInsn(INVOKESPECIAL, ACCESSOR_NAME, READ_PROPERTY, READ_PROPERTY_DESC);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		// end class generation
+		cw.visitEnd();
+
+		return cw.toByteArray();
+	}
+
+	/**
+	 * Pushes the value of the given property of the bean (first argument) on the stack.
+	 * 
+	 * @return the type of the value
+	 */
+	private static Class<?> loadProperty(MethodVisitor mv, String typeName, Method getter, Field field) {
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitTypeInsn(CHECKCAST, typeName);
+
+		if (getter != null) {
+			mv.visitMethodInsn(INVOKEVIRTUAL, typeName, getter.getName(), Type.getMethodDescriptor(getter));
+			return getter.getReturnType();
+		}
+
+		mv.visitFieldInsn(GETFIELD, typeName, field.getName(), Type.getDescriptor(field.getType()));
+		return field.getType();
+	}
+
+	/**
+	 * Stores the value on top of the stack into the given property of the bean below it.
+	 */
+	private static void storeProperty(MethodVisitor mv, String typeName, Method setter, Field field) {
+		if (setter != null) {
+			mv.visitMethodInsn(INVOKEVIRTUAL, typeName, setter.getName(), Type.getMethodDescriptor(setter));
+		}
+		else {
+			mv.visitFieldInsn(PUTFIELD, typeName, field.getName(), Type.getDescriptor(field.getType()));
+		}
+	}
+
+	/**
+	 * Emits the switch on the property index (second argument). The properties without direct access - or, if
+	 * properties are given, without a typed PDX encoding - go to the fallback.
+	 */
+	private static Label[] switchOnIndex(MethodVisitor mv, Method[] methods, Field[] fields,
+			List<GemfirePersistentProperty> typed, Label fallback) {
+		Label[] labels = new Label[methods.length];
+		for (int i = 0; i < labels.length; i++) {
+			boolean direct = methods[i] != null || fields[i] != null;
+			if (typed != null) {
+				direct &= typed.get(i).getPdxFieldType() != PdxFieldType.OBJECT;
+			}
+			labels[i] = (direct ? new Label() : fallback);
+		}
+
+		if (labels.length > 0) {
+			mv.visitVarInsn(ILOAD, 2);
+			mv.visitTableSwitchInsn(0, labels.length - 1, fallback, labels);
+		}
+		return labels;
+	}
+
+	private static Method getReadMethod(GemfirePersistentProperty property) {
+		Method method = property.getPropertyDescriptor() != null ? property.getPropertyDescriptor().getReadMethod()
+				: null;
+		return method != null && isPublic(method.getDeclaringClass()) && Modifier.isPublic(method.getModifiers())
+				&& method.getReturnType().equals(property.getType()) ? method : null;
+	}
+
+	private static Method getWriteMethod(GemfirePersistentProperty property) {
+		Method method = property.getPropertyDescriptor() != null ? property.getPropertyDescriptor().getWriteMethod()
+				: null;
+		return method != null && isPublic(method.getDeclaringClass()) && Modifier.isPublic(method.getModifiers())
+				&& method.getParameterTypes()[0].equals(property.getType()) ? method : null;
+	}
+
+	private static Field getField(GemfirePersistentProperty property, boolean write) {
+		Field field = property.getField();
+		int modifiers = field.getModifiers();
+		return isPublic(field.getDeclaringClass()) && Modifier.isPublic(modifiers)
+				&& !(write && Modifier.isFinal(modifiers)) ? field : null;
+	}
+
+	private static boolean isPublic(Class<?> type) {
+		for (Class<?> current = type; current != null; current = current.getEnclosingClass()) {
+			if (!Modifier.isPublic(current.getModifiers())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void box(MethodVisitor mv, Class<?> type) {
+		if (type.isPrimitive()) {
+			Type wrapper = Type.getType(ClassUtils.resolvePrimitiveIfNecessary(type));
+			mv.visitMethodInsn(INVOKESTATIC, wrapper.getInternalName(), "valueOf", Type.getMethodDescriptor(wrapper,
+					new Type[] { Type.getType(type) }));
+		}
+	}
+
+	private static void unbox(MethodVisitor mv, Class<?> type) {
+		if (type.isPrimitive()) {
+			Type wrapper = Type.getType(ClassUtils.resolvePrimitiveIfNecessary(type));
+			mv.visitTypeInsn(CHECKCAST, wrapper.getInternalName());
+			mv.visitMethodInsn(INVOKEVIRTUAL, wrapper.getInternalName(), type.getName() + "Value", Type
+					.getMethodDescriptor(Type.getType(type), new Type[] {}));
+		}
+		else if (!Object.class.equals(type)) {
+			mv.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+		}
+	}
+}
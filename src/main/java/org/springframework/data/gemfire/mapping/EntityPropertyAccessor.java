@@ -0,0 +1,120 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.mapping;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+import com.gemstone.gemfire.pdx.PdxReader;
+import com.gemstone.gemfire.pdx.PdxWriter;
+
+/**
+ * Reads and writes the persistent properties of the instances of an entity, addressing them by their position.
+ * Subclasses generated by {@link AsmPropertyAccessorGenerator} access the properties through plain field or
+ * getter/setter instructions; the properties that cannot be accessed that way (such as private fields without public
+ * accessor methods) are handled by this class, through reflection.
+ * 
+ * @author Costin Leau
+ */
+public abstract class EntityPropertyAccessor {
+
+	private final List<GemfirePersistentProperty> properties;
+	private final Field[] fields;
+	private final PdxFieldType[] fieldTypes;
+
+	/**
+	 * Creates a new {@link EntityPropertyAccessor} for the given properties.
+	 * 
+	 * @param properties the persistent properties, in accessor order; must not be {@literal null}.
+	 */
+	protected EntityPropertyAccessor(List<GemfirePersistentProperty> properties) {
+
+		Assert.notNull(properties);
+
+		this.properties = Collections.unmodifiableList(new ArrayList<GemfirePersistentProperty>(properties));
+		this.fields = new Field[properties.size()];
+		this.fieldTypes = new PdxFieldType[properties.size()];
+
+		for (int i = 0; i < fields.length; i++) {
+			fields[i] = properties.get(i).getField();
+			fieldTypes[i] = properties.get(i).getPdxFieldType();
+			ReflectionUtils.makeAccessible(fields[i]);
+		}
+	}
+
+	/**
+	 * Returns the persistent properties handled by this accessor. The position of a property in the list is the index
+	 * it is accessed through.
+	 * 
+	 * @return the persistent properties
+	 */
+	public List<GemfirePersistentProperty> getProperties() {
+		return properties;
+	}
+
+	/**
+	 * Returns the value of the property at the given index.
+	 * 
+	 * @param bean entity instance
+	 * @param index property index
+	 * @return the property value (primitives being boxed)
+	 */
+	public Object getProperty(Object bean, int index) {
+		return ReflectionUtils.getField(fields[index], bean);
+	}
+
+	/**
+	 * Sets the value of the property at the given index.
+	 * 
+	 * @param bean entity instance
+	 * @param index property index
+	 * @param value property value, of the property type (or its wrapper, for primitives)
+	 */
+	public void setProperty(Object bean, int index, Object value) {
+		ReflectionUtils.setField(fields[index], bean, value);
+	}
+
+	/**
+	 * Writes the property at the given index as a PDX field, using the encoding of its
+	 * {@link GemfirePersistentProperty#getPdxFieldType() type}.
+	 * 
+	 * @param bean entity instance
+	 * @param index property index
+	 * @param writer PDX writer
+	 * @param name field name
+	 */
+	public void writeProperty(Object bean, int index, PdxWriter writer, String name) {
+		fieldTypes[index].write(writer, name, getProperty(bean, index));
+	}
+
+	/**
+	 * Reads the property at the given index from a PDX field, using the encoding of its
+	 * {@link GemfirePersistentProperty#getPdxFieldType() type}.
+	 * 
+	 * @param bean entity instance
+	 * @param index property index
+	 * @param reader PDX reader
+	 * @param name field name
+	 */
+	public void readProperty(Object bean, int index, PdxReader reader, String name) {
+		setProperty(bean, index, fieldTypes[index].read(reader, name));
+	}
+}
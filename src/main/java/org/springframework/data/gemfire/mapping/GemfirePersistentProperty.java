@@ -23,6 +23,7 @@ import org.springframework.data.mapping.PersistentEntity;
 import org.springframework.data.mapping.PersistentProperty;
 import org.springframework.data.mapping.model.AnnotationBasedPersistentProperty;
 import org.springframework.data.mapping.model.SimpleTypeHolder;
+import org.springframework.util.StringUtils;
 
 /**
  * {@link PersistentProperty} implementation to for Gemfire related metadata.
@@ -31,6 +32,12 @@ import org.springframework.data.mapping.model.SimpleTypeHolder;
  */
 public class GemfirePersistentProperty extends AnnotationBasedPersistentProperty<GemfirePersistentProperty> {
 
+	private final PdxFieldType pdxFieldType;
+	private final String pdxFieldName;
+	private final int pdxFieldOrder;
+	private final boolean pdxIdentity;
+	private final boolean pdxIgnored;
+
 	/**
 	 * @param field
 	 * @param propertyDescriptor
@@ -40,6 +47,63 @@ public class GemfirePersistentProperty extends AnnotationBasedPersistentProperty
 	public GemfirePersistentProperty(Field field, PropertyDescriptor propertyDescriptor,
 			PersistentEntity<?, GemfirePersistentProperty> owner, SimpleTypeHolder simpleTypeHolder) {
 		super(field, propertyDescriptor, owner, simpleTypeHolder);
+		this.pdxFieldType = PdxFieldType.forType(getType());
+
+		PdxField pdxField = field.getAnnotation(PdxField.class);
+
+		this.pdxFieldName = pdxField != null && StringUtils.hasText(pdxField.value()) ? pdxField.value() : getName();
+		this.pdxFieldOrder = pdxField != null ? pdxField.order() : Integer.MAX_VALUE;
+		this.pdxIdentity = isIdProperty() || (pdxField != null && pdxField.identity());
+		this.pdxIgnored = pdxField != null && pdxField.ignore();
+	}
+
+	/**
+	 * Returns the name of the PDX field holding the property.
+	 * 
+	 * @return the PDX field name
+	 * @see PdxField#value()
+	 */
+	public String getPdxFieldName() {
+		return pdxFieldName;
+	}
+
+	/**
+	 * Returns the position of the PDX field holding the property.
+	 * 
+	 * @return the PDX field position, {@link Integer#MAX_VALUE} if not specified
+	 * @see PdxField#order()
+	 */
+	public int getPdxFieldOrder() {
+		return pdxFieldOrder;
+	}
+
+	/**
+	 * Returns whether the PDX field holding the property is an identity field.
+	 * 
+	 * @return whether the property is the id or is marked as identity field
+	 * @see PdxField#identity()
+	 */
+	public boolean isPdxIdentity() {
+		return pdxIdentity;
+	}
+
+	/**
+	 * Returns whether the property is left out of the PDX serialized form.
+	 * 
+	 * @return whether the property is not serialized
+	 * @see PdxField#ignore()
+	 */
+	public boolean isPdxIgnored() {
+		return pdxIgnored;
+	}
+
+	/**
+	 * Returns the PDX encoding of the property, resolved from its type.
+	 * 
+	 * @return the PDX field type
+	 */
+	PdxFieldType getPdxFieldType() {
+		return pdxFieldType;
 	}
 
 	/* (non-Javadoc)
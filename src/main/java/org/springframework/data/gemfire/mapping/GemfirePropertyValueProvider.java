@@ -46,6 +46,7 @@ class GemfirePropertyValueProvider implements PropertyValueProvider<GemfirePersi
 	@Override
 	@SuppressWarnings("unchecked")
 	public <T> T getPropertyValue(GemfirePersistentProperty property) {
-		return (T) reader.readObject(property.getName());
+		// fields can be written with any encoding, see MappingPdxSerializer#setTypedFields(boolean)
+		return (T) reader.readField(property.getPdxFieldName());
 	}
 }
\ No newline at end of file
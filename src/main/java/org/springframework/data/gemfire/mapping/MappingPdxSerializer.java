@@ -16,6 +16,8 @@
 package org.springframework.data.gemfire.mapping;
 
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.beans.BeansException;
 import org.springframework.context.ApplicationContext;
@@ -23,15 +25,12 @@ import org.springframework.context.ApplicationContextAware;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.data.convert.EntityInstantiator;
 import org.springframework.data.convert.EntityInstantiators;
-import org.springframework.data.mapping.PersistentEntity;
-import org.springframework.data.mapping.PropertyHandler;
-import org.springframework.data.mapping.model.BeanWrapper;
-import org.springframework.data.mapping.model.DefaultSpELExpressionEvaluator;
 import org.springframework.data.mapping.model.MappingException;
-import org.springframework.data.mapping.model.PersistentEntityParameterValueProvider;
 import org.springframework.data.mapping.model.SpELContext;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 
+import com.gemstone.gemfire.pdx.PdxFieldTypeMismatchException;
 import com.gemstone.gemfire.pdx.PdxReader;
 import com.gemstone.gemfire.pdx.PdxSerializer;
 import com.gemstone.gemfire.pdx.PdxWriter;
@@ -46,8 +45,12 @@ public class MappingPdxSerializer implements PdxSerializer, ApplicationContextAw
 	private final GemfireMappingContext mappingContext;
 	private final ConversionService conversionService;
 
+	private final AsmPropertyAccessorGenerator accessors = new AsmPropertyAccessorGenerator();
+	private final ConcurrentMap<Class<?>, PdxSerializationPlan> plans = new ConcurrentHashMap<Class<?>, PdxSerializationPlan>();
+
 	private EntityInstantiators instantiators;
 	private SpELContext context;
+	private boolean typedFields = false;
 
 	/**
 	 * Creates a new {@link MappingPdxSerializer} using the given {@link GemfireMappingContext} and
@@ -75,6 +78,20 @@ public class MappingPdxSerializer implements PdxSerializer, ApplicationContextAw
 	public void setGemfireInstantiators(Map<Class<?>, EntityInstantiator> gemfireInstantiators) {
 		Assert.notNull(gemfireInstantiators);
 		this.instantiators = new EntityInstantiators(gemfireInstantiators);
+		// plans refer to the previous instantiators
+		plans.clear();
+	}
+
+	/**
+	 * Configures whether primitives, {@link String}s, {@link java.util.Date}s and their arrays are written through the
+	 * typed {@link PdxWriter} methods (such as <code>writeInt</code> or <code>writeString</code>) rather than as
+	 * objects. The typed encodings are more compact and avoid boxing, but change the PDX type of the entities; fields
+	 * previously written as objects are still read (and converted) as such. Default is {@literal false}.
+	 * 
+	 * @param typedFields whether to use the typed PDX encodings
+	 */
+	public void setTypedFields(boolean typedFields) {
+		this.typedFields = typedFields;
 	}
 
 	/* 
@@ -90,67 +107,92 @@ public class MappingPdxSerializer implements PdxSerializer, ApplicationContextAw
 	 * (non-Javadoc)
 	 * @see com.gemstone.gemfire.pdx.PdxSerializer#fromData(java.lang.Class, com.gemstone.gemfire.pdx.PdxReader)
 	 */
-	public Object fromData(Class<?> type, final PdxReader reader) {
+	public Object fromData(Class<?> type, PdxReader reader) {
 
-		final GemfirePersistentEntity<?> entity = mappingContext.getPersistentEntity(type);
-		EntityInstantiator instantiator = instantiators.getInstantiatorFor(entity);
-		GemfirePropertyValueProvider propertyValueProvider = new GemfirePropertyValueProvider(reader);
+		PdxSerializationPlan plan = getPlan(type);
+		EntityPropertyAccessor accessor = plan.getAccessor();
 
-		PersistentEntityParameterValueProvider<GemfirePersistentProperty> provider = new PersistentEntityParameterValueProvider<GemfirePersistentProperty>(
-				entity, propertyValueProvider, null);
-		provider.setSpELEvaluator(new DefaultSpELExpressionEvaluator(reader, context));
+		Object instance = plan.instantiate(reader, context);
 
-		Object instance = instantiator.createInstance(entity, provider);
+		for (int i = 0; i < plan.size(); i++) {
 
-		final BeanWrapper<PersistentEntity<Object, ?>, Object> wrapper = BeanWrapper.create(instance, conversionService);
+			if (plan.isConstructorArgument(i)) {
+				continue;
+			}
 
-		entity.doWithProperties(new PropertyHandler<GemfirePersistentProperty>() {
-			public void doWithPersistentProperty(GemfirePersistentProperty persistentProperty) {
+			GemfirePersistentProperty persistentProperty = plan.getProperty(i);
 
-				if (entity.isConstructorArgument(persistentProperty)) {
-					return;
+			try {
+				if (typedFields && persistentProperty.getPdxFieldType() != PdxFieldType.OBJECT) {
+					try {
+						accessor.readProperty(instance, plan.getIndex(i), reader, plan.getFieldName(i));
+						continue;
+					} catch (PdxFieldTypeMismatchException ex) {
+						// written with a different encoding (such as by an older version), read it as it comes
+					}
 				}
 
-				Object value = reader.readField(persistentProperty.getName());
-
-				try {
-					wrapper.setProperty(persistentProperty, value);
-				} catch (Exception e) {
-					throw new MappingException("Could not read value " + value.toString(), e);
-				}
+				Object value = reader.readField(plan.getFieldName(i));
+				accessor.setProperty(instance, plan.getIndex(i), value == null ? null : convertIfNecessary(value,
+						persistentProperty.getType()));
+			} catch (Exception e) {
+				throw new MappingException("Could not read value for property " + persistentProperty.toString(), e);
 			}
-		});
+		}
 
-		return wrapper.getBean();
+		return instance;
 	}
 
 	/*
 	 * (non-Javadoc)
 	 * @see com.gemstone.gemfire.pdx.PdxSerializer#toData(java.lang.Object, com.gemstone.gemfire.pdx.PdxWriter)
 	 */
-	public boolean toData(Object value, final PdxWriter writer) {
-
-		GemfirePersistentEntity<?> entity = mappingContext.getPersistentEntity(value.getClass());
-		final BeanWrapper<PersistentEntity<Object, ?>, Object> wrapper = BeanWrapper.create(value, conversionService);
+	public boolean toData(Object value, PdxWriter writer) {
 
-		entity.doWithProperties(new PropertyHandler<GemfirePersistentProperty>() {
-			public void doWithPersistentProperty(GemfirePersistentProperty persistentProperty) {
+		PdxSerializationPlan plan = getPlan(value.getClass());
+		EntityPropertyAccessor accessor = plan.getAccessor();
 
-				try {
-					Object value = wrapper.getProperty(persistentProperty);
-					writer.writeObject(persistentProperty.getName(), value);
-				} catch (Exception e) {
-					throw new MappingException("Could not write value for property " + persistentProperty.toString(), e);
+		for (int i = 0; i < plan.size(); i++) {
+			try {
+				if (typedFields) {
+					accessor.writeProperty(value, plan.getIndex(i), writer, plan.getFieldName(i));
+				}
+				else {
+					writer.writeObject(plan.getFieldName(i), accessor.getProperty(value, plan.getIndex(i)));
 				}
+			} catch (Exception e) {
+				throw new MappingException("Could not write value for property " + plan.getProperty(i).toString(), e);
 			}
-		});
-
-		GemfirePersistentProperty idProperty = entity.getIdProperty();
+		}
 
-		if (idProperty != null) {
-			writer.markIdentityField(idProperty.getName());
+		for (String identityField : plan.getIdentityFields()) {
+			writer.markIdentityField(identityField);
 		}
 
 		return true;
 	}
+
+	/**
+	 * Returns the {@link PdxSerializationPlan} of the given type, computing it on first access.
+	 * 
+	 * @param type entity type
+	 * @return the serialization plan
+	 */
+	PdxSerializationPlan getPlan(Class<?> type) {
+		PdxSerializationPlan plan = plans.get(type);
+		if (plan == null) {
+			GemfirePersistentEntity<?> entity = mappingContext.getPersistentEntity(type);
+			PdxSerializationPlan newPlan = new PdxSerializationPlan(entity, instantiators.getInstantiatorFor(entity),
+					accessors.getPropertyAccessor(entity));
+			plan = plans.putIfAbsent(type, newPlan);
+			if (plan == null) {
+				plan = newPlan;
+			}
+		}
+		return plan;
+	}
+
+	private Object convertIfNecessary(Object value, Class<?> type) {
+		return ClassUtils.isAssignableValue(type, value) ? value : conversionService.convert(value, type);
+	}
 }
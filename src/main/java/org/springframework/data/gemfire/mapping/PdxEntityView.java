@@ -0,0 +1,111 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.mapping;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+
+import org.springframework.core.convert.ConversionService;
+import org.springframework.util.ClassUtils;
+
+import com.gemstone.gemfire.pdx.PdxInstance;
+
+/**
+ * Base class of the (generated) views created by {@link PdxEntityViewFactory}: a view exposes the properties of an
+ * entity kept in its serialized, {@link PdxInstance} form, decoding each field only once it is first accessed.
+ * <p/>
+ * Views are not thread-safe; concurrent first accesses to the same field might decode it more than once.
+ * 
+ * @author Costin Leau
+ */
+public abstract class PdxEntityView {
+
+	private static final Object UNREAD = new Object();
+
+	private final PdxInstance instance;
+	private final String[] fieldNames;
+	private final Class<?>[] types;
+	private final ConversionService conversionService;
+	private final Object[] values;
+
+	/**
+	 * Creates a new {@link PdxEntityView}. The given arrays are shared by all the views of the same type and must not be
+	 * modified.
+	 * 
+	 * @param instance the viewed instance
+	 * @param fieldNames the PDX field names, by accessor index
+	 * @param types the accessor types, by accessor index
+	 * @param conversionService converts field values not matching the accessor type
+	 */
+	protected PdxEntityView(PdxInstance instance, String[] fieldNames, Class<?>[] types,
+			ConversionService conversionService) {
+		this.instance = instance;
+		this.fieldNames = fieldNames;
+		this.types = types;
+		this.conversionService = conversionService;
+		this.values = new Object[fieldNames.length];
+		Arrays.fill(values, UNREAD);
+	}
+
+	/**
+	 * Returns the {@link PdxInstance} backing this view.
+	 * 
+	 * @return the viewed instance
+	 */
+	public PdxInstance getPdxInstance() {
+		return instance;
+	}
+
+	/**
+	 * Returns the viewed entity, fully deserialized.
+	 * 
+	 * @return the entity
+	 */
+	public Object getEntity() {
+		return instance.getObject();
+	}
+
+	/**
+	 * Returns the value of the field at the given index, decoding it on first access.
+	 * 
+	 * @param index accessor index
+	 * @return the field value, converted to the accessor type
+	 */
+	protected final Object getValue(int index) {
+		Object value = values[index];
+		if (value == UNREAD) {
+			value = decode(instance.getField(fieldNames[index]), types[index]);
+			values[index] = value;
+		}
+		return value;
+	}
+
+	private Object decode(Object value, Class<?> type) {
+		if (value instanceof PdxInstance && !PdxInstance.class.equals(type)) {
+			value = ((PdxInstance) value).getObject();
+		}
+		if (value == null) {
+			// default value of the primitive
+			return (type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null);
+		}
+		return (ClassUtils.isAssignableValue(type, value) ? value : conversionService.convert(value, type));
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getInterfaces()[0].getSimpleName() + " view of " + instance;
+	}
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.mapping;
+
+import java.beans.Introspector;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import com.gemstone.gemfire.pdx.PdxInstance;
+
+/**
+ * Creates lightweight, read-only views over {@link PdxInstance}s, as returned by GemFire when reading PDX serialized
+ * values with <code>pdxReadSerialized</code> enabled (see
+ * {@link org.springframework.data.gemfire.CacheFactoryBean#setPdxReadSerialized(Boolean)}). A view is an interface
+ * declaring getters for (some of) the persistent properties of the entity; unlike the full deserialization of the
+ * entity, a view decodes each field only when its getter is first called - which pays off for consumers (such as
+ * queries or cache listeners) touching only a few fields of large entities.
+ * 
+ * <pre>
+ * public interface QuoteView {
+ *   String getSymbol();
+ *   double getPrice();
+ * }
+ * 
+ * QuoteView quote = factory.createView(pdxInstance, QuoteView.class);
+ * </pre>
+ * 
+ * The view implementations are generated (through ASM) once per view and entity type, with a getter per accessed
+ * property. Views also extend {@link PdxEntityView}, giving access to the underlying {@link PdxInstance} and to the
+ * fully deserialized entity.
+ * 
+ * @author Costin Leau
+ */
+public class PdxEntityViewFactory implements Opcodes {
+
+	private static final String PKG = "org/springframework/data/gemfire/mapping/";
+	private static final String CLASS_LABEL = "PdxView$Synthetic";
+	private static final String VIEW_NAME = Type.getInternalName(PdxEntityView.class);
+
+	private static final Class<?>[] INIT_TYPES = new Class<?>[] { PdxInstance.class, String[].class, Class[].class,
+			ConversionService.class };
+	private static final String INIT = "<init>";
+	private static final String INIT_DESC = Type.getMethodDescriptor(Type.VOID_TYPE, new Type[] {
+			Type.getType(PdxInstance.class), Type.getType(String[].class), Type.getType(Class[].class),
+			Type.getType(ConversionService.class) });
+	private static final String GET_VALUE = "getValue";
+	private static final String GET_VALUE_DESC = Type.getMethodDescriptor(Type.getType(Object.class),
+			new Type[] { Type.INT_TYPE });
+
+	// generated class counter
+	private static final AtomicLong counter = new AtomicLong(1);
+
+	private final GemfireMappingContext mappingContext;
+	private final ConversionService conversionService;
+
+	// entity class name + view type -> view metadata cache
+	private final ConcurrentMap<String, ViewType> cache = new ConcurrentHashMap<String, ViewType>();
+
+	private static final class BytecodeClassLoader extends ClassLoader {
+
+		public BytecodeClassLoader(ClassLoader loader) {
+			super(loader);
+		}
+
+		public Class<?> loadClass(String name, byte[] bytecode) {
+			return defineClass(name, bytecode, 0, bytecode.length);
+		}
+	}
+
+	/**
+	 * Creates a new {@link PdxEntityViewFactory}.
+	 * 
+	 * @param mappingContext must not be {@literal null}.
+	 * @param conversionService converts the field values not matching the getter types; must not be {@literal null}.
+	 */
+	public PdxEntityViewFactory(GemfireMappingContext mappingContext, ConversionService conversionService) {
+
+		Assert.notNull(mappingContext);
+		Assert.notNull(conversionService);
+
+		this.mappingContext = mappingContext;
+		this.conversionService = conversionService;
+	}
+
+	/**
+	 * Returns a view of the given value. {@link PdxInstance}s are wrapped into a lazily decoding view, values already
+	 * implementing the view type are returned as they are.
+	 * 
+	 * @param value the value to view, typically a {@link PdxInstance}
+	 * @param viewType the view interface; must not be {@literal null}.
+	 * @return the view, {@literal null} if the value is {@literal null}
+	 * @throws IllegalArgumentException if the view declares methods other than getters for persistent properties of
+	 * the entity
+	 */
+	public <V> V createView(Object value, Class<V> viewType) {
+
+		Assert.notNull(viewType);
+
+		if (value == null || viewType.isInstance(value)) {
+			return viewType.cast(value);
+		}
+
+		Assert.isInstanceOf(PdxInstance.class, value, "Cannot create " + viewType.getName() + " view;");
+
+		PdxInstance instance = (PdxInstance) value;
+		ViewType type = getViewType(instance.getClassName(), viewType);
+
+		return viewType.cast(BeanUtils.instantiateClass(type.constructor, instance, type.fieldNames, type.types,
+				conversionService));
+	}
+
+	/**
+	 * Returns views of the given values, such as query results.
+	 * 
+	 * @param values must not be {@literal null}.
+	 * @param viewType the view interface; must not be {@literal null}.
+	 * @return the views, in iteration order
+	 * @see #createView(Object, Class)
+	 */
+	public <V> List<V> createViews(Collection<?> values, Class<V> viewType) {
+
+		Assert.notNull(values);
+
+		List<V> result = new ArrayList<V>(values.size());
+		for (Object value : values) {
+			result.add(createView(value, viewType));
+		}
+		return result;
+	}
+
+	private ViewType getViewType(String className, Class<?> viewType) {
+		String key = className + "#" + viewType.getName();
+		ViewType type = cache.get(key);
+		if (type == null) {
+			synchronized (cache) {
+				type = cache.get(key);
+				if (type == null) {
+					type = createViewType(ClassUtils.resolveClassName(className, viewType.getClassLoader()), viewType);
+					cache.putIfAbsent(key, type);
+				}
+			}
+		}
+		return type;
+	}
+
+	private ViewType createViewType(Class<?> entityType, Class<?> viewType) {
+		Assert.isTrue(viewType.isInterface(), "View type " + viewType.getName() + " is not an interface");
+
+		GemfirePersistentEntity<?> entity = mappingContext.getPersistentEntity(entityType);
+		List<Method> getters = new ArrayList<Method>();
+		List<String> fieldNames = new ArrayList<String>();
+
+		for (Method method : viewType.getMethods()) {
+			// implemented by PdxEntityView already
+			if (ReflectionUtils.findMethod(PdxEntityView.class, method.getName(), method.getParameterTypes()) != null) {
+				continue;
+			}
+
+			String propertyName = getPropertyName(method);
+			GemfirePersistentProperty property = propertyName != null ? entity.getPersistentProperty(propertyName) : null;
+
+			Assert.isTrue(property != null && !property.isPdxIgnored(), "Method " + method
+					+ " is not a getter for a serialized property of " + entityType.getName());
+
+			getters.add(method);
+			fieldNames.add(property.getPdxFieldName());
+		}
+
+		Class<?>[] types = new Class<?>[getters.size()];
+		for (int i = 0; i < types.length; i++) {
+			types[i] = getters.get(i).getReturnType();
+		}
+
+		Class<?> viewClass = createViewClass(viewType, getters);
+		return new ViewType(ClassUtils.getConstructorIfAvailable(viewClass, INIT_TYPES), fieldNames
+				.toArray(new String[fieldNames.size()]), types);
+	}
+
+	private static String getPropertyName(Method method) {
+		if (method.getParameterTypes().length > 0) {
+			return null;
+		}
+
+		String name = method.getName();
+		Class<?> type = method.getReturnType();
+
+		if (name.startsWith("get") && name.length() > 3 && !void.class.equals(type)) {
+			return Introspector.decapitalize(name.substring(3));
+		}
+		if (name.startsWith("is") && name.length() > 2 && (boolean.class.equals(type) || Boolean.class.equals(type))) {
+			return Introspector.decapitalize(name.substring(2));
+		}
+		return null;
+	}
+
+	Class<?> createViewClass(Class<?> viewType, List<Method> getters) {
+		String classInternalName = PKG + viewType.getSimpleName() + CLASS_LABEL + counter.getAndIncrement();
+		byte[] bytecode = generateClassBytecode(classInternalName, viewType, getters);
+
+		final ClassLoader parent = viewType.getClassLoader();
+		BytecodeClassLoader loader = AccessController.doPrivileged(new PrivilegedAction<BytecodeClassLoader>() {
+			public BytecodeClassLoader run() {
+				return new BytecodeClassLoader(parent != null ? parent : ClassUtils.getDefaultClassLoader());
+			}
+		});
+		// translate internal name to binary form
+		return loader.loadClass(classInternalName.replace('/', '.'), bytecode);
+	}
+
+	/**
+	 * Generates the view class for the given view interface and getters.
+	 * 
+	 * The generated class has the following definition:
+	 * 
+	 * <pre>
+	 * public class &lt;<i>V</i>>PdxView$Synthetic<i>Counter</i> extends PdxEntityView implements <i>V</i> {
+	 * 
+	 *  public &lt;<i>V</i>>PdxView$Synthetic<i>Counter</i>(PdxInstance instance, String[] fieldNames, Class[] types,
+	 *        ConversionService conversionService) {
+	 *     super(instance, fieldNames, types, conversionService);
+	 *  }
+	 * 
+	 *  public <i>R</i> <i>getName</i>() {
+	 *     return (<i>R</i>) getValue(<i>index</i>);
+	 *  }
+	 * }
+	 * </pre>
+	 * 
+	 * Primitive values are unboxed as needed.
+	 * 
+	 * @param className
+	 * @param viewType
+	 * @param getters
+	 * @return
+	 */
+	byte[] generateClassBytecode(String className, Class<?> viewType, List<Method> getters) {
+		ClassWriter cw = new ClassWriter(true);
+
+		cw.visit(V1_5, ACC_PUBLIC + ACC_SUPER, className, null, VIEW_NAME, new String[] { Type
+				.getInternalName(viewType) });
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, INIT, INIT_DESC, null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitVarInsn(ALOAD, 4);
+		mv.visitMethodInsn(INVOKESPECIAL, VIEW_NAME, INIT, INIT_DESC);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		for (int i = 0; i < getters.size(); i++) {
+			Method getter = getters.get(i);
+			Class<?> returnType = getter.getReturnType();
+
+			mv = cw.visitMethod(ACC_PUBLIC, getter.getName(), Type.getMethodDescriptor(getter), null, null);
+			mv.visitCode();
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitLdcInsn(Integer.valueOf(i));
+			mv.visitMethodInsn(INVOKEVIRTUAL, className, GET_VALUE, GET_VALUE_DESC);
+
+			if (returnType.isPrimitive()) {
+				Type wrapper = Type.getType(ClassUtils.resolvePrimitiveIfNecessary(returnType));
+				mv.visitTypeInsn(CHECKCAST, wrapper.getInternalName());
+				mv.visitMethodInsn(INVOKEVIRTUAL, wrapper.getInternalName(), returnType.getName() + "Value", Type
+						.getMethodDescriptor(Type.getType(returnType), new Type[] {}));
+			}
+			else if (!Object.class.equals(returnType)) {
+				mv.visitTypeInsn(CHECKCAST, Type.getInternalName(returnType));
+			}
+
+			mv.visitInsn(Type.getType(returnType).getOpcode(IRETURN));
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		// end class generation
+		cw.visitEnd();
+
+		return cw.toByteArray();
+	}
+
+	private static class ViewType {
+
+		private final Constructor<?> constructor;
+		private final String[] fieldNames;
+		private final Class<?>[] types;
+
+		ViewType(Constructor<?> constructor, String[] fieldNames, Class<?>[] types) {
+			this.constructor = constructor;
+			this.fieldNames = fieldNames;
+			this.types = types;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.mapping;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation customizing how a persistent property is written as a PDX field by {@link MappingPdxSerializer}.
+ * 
+ * <pre>
+ * public class Quote {
+ * 
+ *   &#064;Id &#064;PdxField(value = "s", order = 0) String symbol;
+ *   &#064;PdxField(value = "x", order = 1, identity = true) String exchange;
+ *   &#064;PdxField(value = "p", order = 2) double price;
+ *   &#064;PdxField(ignore = true) String description;
+ * }
+ * </pre>
+ * 
+ * @author Costin Leau
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+@Documented
+public @interface PdxField {
+
+	/**
+	 * The name of the PDX field, typically shorter than the property name to reduce the size of the PDX type
+	 * metadata. Defaults to the property name.
+	 * 
+	 * @return the PDX field name
+	 */
+	String value() default "";
+
+	/**
+	 * Whether the field is part of the PDX identity, used by <code>PdxInstance</code> <code>equals</code> and
+	 * <code>hashCode</code>, in addition to the {@link org.springframework.data.annotation.Id} property.
+	 * 
+	 * @return whether the field is an identity field
+	 */
+	boolean identity() default false;
+
+	/**
+	 * The position of the field in the PDX type. Fields are written in ascending order, the ones without an explicit
+	 * order last, in declaration order. Freezing the order keeps the PDX type stable across class changes.
+	 * 
+	 * @return the field position
+	 */
+	int order() default Integer.MAX_VALUE;
+
+	/**
+	 * Whether the property is left out of the PDX serialized form. Ignored properties are not written, and keep their
+	 * default value when read.
+	 * 
+	 * @return whether the property is not serialized
+	 */
+	boolean ignore() default false;
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.mapping;
+
+import java.lang.reflect.Method;
+import java.util.Date;
+
+import org.springframework.util.ReflectionUtils;
+
+import com.gemstone.gemfire.pdx.PdxReader;
+import com.gemstone.gemfire.pdx.PdxWriter;
+
+/**
+ * PDX encodings of the persistent properties. With typed fields enabled (see
+ * {@link MappingPdxSerializer#setTypedFields(boolean)}), primitives, {@link String}s, {@link Date}s and their arrays
+ * are written through the dedicated {@link PdxWriter} methods (using the compact, typed PDX representation),
+ * everything else as a serialized object.
+ * <p/>
+ * Note that {@link Date} subclasses (such as {@link java.sql.Timestamp}) and primitive wrappers (which can be
+ * {@literal null}) are written as objects.
+ * 
+ * @author Costin Leau
+ */
+enum PdxFieldType {
+
+	BOOLEAN(boolean.class, "Boolean"), //
+	CHAR(char.class, "Char"), //
+	BYTE(byte.class, "Byte"), //
+	SHORT(short.class, "Short"), //
+	INT(int.class, "Int"), //
+	LONG(long.class, "Long"), //
+	FLOAT(float.class, "Float"), //
+	DOUBLE(double.class, "Double"), //
+	STRING(String.class, "String"), //
+	DATE(Date.class, "Date"), //
+	BOOLEAN_ARRAY(boolean[].class, "BooleanArray"), //
+	CHAR_ARRAY(char[].class, "CharArray"), //
+	BYTE_ARRAY(byte[].class, "ByteArray"), //
+	SHORT_ARRAY(short[].class, "ShortArray"), //
+	INT_ARRAY(int[].class, "IntArray"), //
+	LONG_ARRAY(long[].class, "LongArray"), //
+	FLOAT_ARRAY(float[].class, "FloatArray"), //
+	DOUBLE_ARRAY(double[].class, "DoubleArray"), //
+	STRING_ARRAY(String[].class, "StringArray"), //
+	ARRAY_OF_BYTE_ARRAYS(byte[][].class, "ArrayOfByteArrays"), //
+	OBJECT(Object.class, "Object");
+
+	private final Class<?> type;
+	private final Method writeMethod;
+	private final Method readMethod;
+
+	private PdxFieldType(Class<?> type, String suffix) {
+		this.type = type;
+		this.writeMethod = ReflectionUtils.findMethod(PdxWriter.class, "write" + suffix, new Class<?>[] { String.class,
+				type });
+		this.readMethod = ReflectionUtils.findMethod(PdxReader.class, "read" + suffix, new Class<?>[] { String.class });
+	}
+
+	/**
+	 * Returns the encoding of the properties of the given type.
+	 * 
+	 * @param type property type
+	 * @return the matching field type, {@link #OBJECT} if there is no dedicated one
+	 */
+	public static PdxFieldType forType(Class<?> type) {
+		for (PdxFieldType fieldType : values()) {
+			if (fieldType.type.equals(type)) {
+				return fieldType;
+			}
+		}
+		return OBJECT;
+	}
+
+	/**
+	 * Returns the Java type written and read through this encoding.
+	 * 
+	 * @return the Java type
+	 */
+	public Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the {@link PdxWriter} method writing fields of this type.
+	 * 
+	 * @return the write method
+	 */
+	public Method getWriteMethod() {
+		return writeMethod;
+	}
+
+	/**
+	 * Returns the {@link PdxReader} method reading fields of this type.
+	 * 
+	 * @return the read method
+	 */
+	public Method getReadMethod() {
+		return readMethod;
+	}
+
+	/**
+	 * Writes the given (boxed, for primitives) value.
+	 * 
+	 * @param writer PDX writer
+	 * @param name field name
+	 * @param value field value
+	 */
+	public void write(PdxWriter writer, String name, Object value) {
+		switch (this) {
+		case BOOLEAN:
+			writer.writeBoolean(name, (Boolean) value);
+			break;
+		case CHAR:
+			writer.writeChar(name, (Character) value);
+			break;
+		case BYTE:
+			writer.writeByte(name, (Byte) value);
+			break;
+		case SHORT:
+			writer.writeShort(name, (Short) value);
+			break;
+		case INT:
+			writer.writeInt(name, (Integer) value);
+			break;
+		case LONG:
+			writer.writeLong(name, (Long) value);
+			break;
+		case FLOAT:
+			writer.writeFloat(name, (Float) value);
+			break;
+		case DOUBLE:
+			writer.writeDouble(name, (Double) value);
+			break;
+		case STRING:
+			writer.writeString(name, (String) value);
+			break;
+		case DATE:
+			writer.writeDate(name, (Date) value);
+			break;
+		case BOOLEAN_ARRAY:
+			writer.writeBooleanArray(name, (boolean[]) value);
+			break;
+		case CHAR_ARRAY:
+			writer.writeCharArray(name, (char[]) value);
+			break;
+		case BYTE_ARRAY:
+			writer.writeByteArray(name, (byte[]) value);
+			break;
+		case SHORT_ARRAY:
+			writer.writeShortArray(name, (short[]) value);
+			break;
+		case INT_ARRAY:
+			writer.writeIntArray(name, (int[]) value);
+			break;
+		case LONG_ARRAY:
+			writer.writeLongArray(name, (long[]) value);
+			break;
+		case FLOAT_ARRAY:
+			writer.writeFloatArray(name, (float[]) value);
+			break;
+		case DOUBLE_ARRAY:
+			writer.writeDoubleArray(name, (double[]) value);
+			break;
+		case STRING_ARRAY:
+			writer.writeStringArray(name, (String[]) value);
+			break;
+		case ARRAY_OF_BYTE_ARRAYS:
+			writer.writeArrayOfByteArrays(name, (byte[][]) value);
+			break;
+		default:
+			writer.writeObject(name, value);
+		}
+	}
+
+	/**
+	 * Reads the value of the given field.
+	 * 
+	 * @param reader PDX reader
+	 * @param name field name
+	 * @return the field value (boxed, for primitives)
+	 */
+	public Object read(PdxReader reader, String name) {
+		switch (this) {
+		case BOOLEAN:
+			return reader.readBoolean(name);
+		case CHAR:
+			return reader.readChar(name);
+		case BYTE:
+			return reader.readByte(name);
+		case SHORT:
+			return reader.readShort(name);
+		case INT:
+			return reader.readInt(name);
+		case LONG:
+			return reader.readLong(name);
+		case FLOAT:
+			return reader.readFloat(name);
+		case DOUBLE:
+			return reader.readDouble(name);
+		case STRING:
+			return reader.readString(name);
+		case DATE:
+			return reader.readDate(name);
+		case BOOLEAN_ARRAY:
+			return reader.readBooleanArray(name);
+		case CHAR_ARRAY:
+			return reader.readCharArray(name);
+		case BYTE_ARRAY:
+			return reader.readByteArray(name);
+		case SHORT_ARRAY:
+			return reader.readShortArray(name);
+		case INT_ARRAY:
+			return reader.readIntArray(name);
+		case LONG_ARRAY:
+			return reader.readLongArray(name);
+		case FLOAT_ARRAY:
+			return reader.readFloatArray(name);
+		case DOUBLE_ARRAY:
+			return reader.readDoubleArray(name);
+		case STRING_ARRAY:
+			return reader.readStringArray(name);
+		case ARRAY_OF_BYTE_ARRAYS:
+			return reader.readArrayOfByteArrays(name);
+		default:
+			return reader.readObject(name);
+		}
+	}
+}
@@ -54,7 +54,7 @@ enum PdxReaderPropertyAccessor implements PropertyAccessor {
 	 */
 	@Override
 	public TypedValue read(EvaluationContext context, Object target, String name) {
-		Object object = ((PdxReader) target).readObject(name);
+		Object object = ((PdxReader) target).readField(name);
 		return object == null ? TypedValue.NULL : new TypedValue(object);
 	}
 
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.mapping;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.data.convert.EntityInstantiator;
+import org.springframework.data.mapping.PreferredConstructor;
+import org.springframework.data.mapping.PreferredConstructor.Parameter;
+import org.springframework.data.mapping.model.DefaultSpELExpressionEvaluator;
+import org.springframework.data.mapping.model.ParameterValueProvider;
+import org.springframework.data.mapping.model.PersistentEntityParameterValueProvider;
+import org.springframework.data.mapping.model.SpELContext;
+import org.springframework.util.Assert;
+
+import com.gemstone.gemfire.pdx.PdxReader;
+
+/**
+ * Immutable description of how the instances of an entity are written to and read from PDX, computed once per type
+ * by {@link MappingPdxSerializer}: the serialized properties (in field order, see {@link PdxField}) along with their
+ * accessor and field names, the ones passed to the persistence constructor, the identity fields and the
+ * {@link EntityInstantiator}.
+ * 
+ * @author Costin Leau
+ */
+class PdxSerializationPlan {
+
+	// used for entities without constructor arguments, which never ask for a value
+	private static final ParameterValueProvider<GemfirePersistentProperty> NO_PARAMETERS = new ParameterValueProvider<GemfirePersistentProperty>() {
+		public <T> T getParameterValue(Parameter<T, GemfirePersistentProperty> parameter) {
+			throw new IllegalStateException("No constructor parameters expected, got " + parameter);
+		}
+	};
+
+	private final GemfirePersistentEntity<?> entity;
+	private final EntityInstantiator instantiator;
+	private final EntityPropertyAccessor accessor;
+	private final int[] indexes;
+	private final String[] fieldNames;
+	private final boolean[] constructorArguments;
+	private final String[] identityFields;
+	private final boolean constructorParameters;
+	private final boolean spelParameters;
+
+	/**
+	 * Creates a new {@link PdxSerializationPlan}.
+	 * 
+	 * @param entity must not be {@literal null}.
+	 * @param instantiator must not be {@literal null}.
+	 * @param accessor the accessor of the entity properties; must not be {@literal null}.
+	 */
+	public PdxSerializationPlan(GemfirePersistentEntity<?> entity, EntityInstantiator instantiator,
+			EntityPropertyAccessor accessor) {
+
+		Assert.notNull(entity);
+		Assert.notNull(instantiator);
+		Assert.notNull(accessor);
+
+		this.entity = entity;
+		this.instantiator = instantiator;
+		this.accessor = accessor;
+
+		// serialized properties, by field order (stable, so unordered ones keep their declaration order)
+		final List<GemfirePersistentProperty> properties = accessor.getProperties();
+		List<Integer> serialized = new ArrayList<Integer>();
+
+		for (int i = 0; i < properties.size(); i++) {
+			if (!properties.get(i).isPdxIgnored()) {
+				serialized.add(i);
+			}
+		}
+
+		Collections.sort(serialized, new Comparator<Integer>() {
+			public int compare(Integer o1, Integer o2) {
+				int order1 = properties.get(o1).getPdxFieldOrder();
+				int order2 = properties.get(o2).getPdxFieldOrder();
+				return order1 < order2 ? -1 : (order1 == order2 ? 0 : 1);
+			}
+		});
+
+		this.indexes = new int[serialized.size()];
+		this.fieldNames = new String[serialized.size()];
+		this.constructorArguments = new boolean[serialized.size()];
+		List<String> identity = new ArrayList<String>();
+
+		for (int i = 0; i < indexes.length; i++) {
+			GemfirePersistentProperty property = properties.get(serialized.get(i));
+			indexes[i] = serialized.get(i);
+			fieldNames[i] = property.getPdxFieldName();
+			constructorArguments[i] = entity.isConstructorArgument(property);
+			if (property.isPdxIdentity()) {
+				identity.add(property.getPdxFieldName());
+			}
+		}
+
+		this.identityFields = identity.toArray(new String[identity.size()]);
+
+		PreferredConstructor<?, GemfirePersistentProperty> constructor = entity.getPersistenceConstructor();
+		boolean spel = false;
+
+		if (constructor != null) {
+			for (Parameter<Object, GemfirePersistentProperty> parameter : constructor.getParameters()) {
+				spel |= parameter.hasSpelExpression();
+			}
+		}
+
+		this.constructorParameters = constructor != null && constructor.hasParameters();
+		this.spelParameters = spel;
+	}
+
+	public GemfirePersistentEntity<?> getEntity() {
+		return entity;
+	}
+
+	public EntityPropertyAccessor getAccessor() {
+		return accessor;
+	}
+
+	/**
+	 * Returns the number of serialized properties.
+	 */
+	public int size() {
+		return indexes.length;
+	}
+
+	/**
+	 * Returns the accessor index of the serialized property at the given position.
+	 */
+	public int getIndex(int position) {
+		return indexes[position];
+	}
+
+	/**
+	 * Returns the serialized property at the given position.
+	 */
+	public GemfirePersistentProperty getProperty(int position) {
+		return accessor.getProperties().get(indexes[position]);
+	}
+
+	/**
+	 * Returns the name of the PDX field holding the property at the given position.
+	 */
+	public String getFieldName(int position) {
+		return fieldNames[position];
+	}
+
+	/**
+	 * Returns whether the property at the given position is set through the persistence constructor.
+	 */
+	public boolean isConstructorArgument(int position) {
+		return constructorArguments[position];
+	}
+
+	/**
+	 * Returns the names of the PDX identity fields.
+	 * 
+	 * @return the identity field names, empty if the entity has none
+	 */
+	public String[] getIdentityFields() {
+		return identityFields;
+	}
+
+	/**
+	 * Creates a new entity instance, passing the constructor arguments (if any) read from the given reader.
+	 * 
+	 * @param reader PDX reader
+	 * @param context context for the SpEL expressions of the constructor parameters
+	 * @return the new instance
+	 */
+	public Object instantiate(PdxReader reader, SpELContext context) {
+
+		if (!constructorParameters) {
+			return instantiator.createInstance(entity, NO_PARAMETERS);
+		}
+
+		PersistentEntityParameterValueProvider<GemfirePersistentProperty> provider = new PersistentEntityParameterValueProvider<GemfirePersistentProperty>(
+				entity, new GemfirePropertyValueProvider(reader), null);
+
+		if (spelParameters) {
+			provider.setSpELEvaluator(new DefaultSpELExpressionEvaluator(reader, context));
+		}
+
+		return instantiator.createInstance(entity, provider);
+	}
+}
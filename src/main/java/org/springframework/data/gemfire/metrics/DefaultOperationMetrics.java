@@ -0,0 +1,137 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedOperationParameter;
+import org.springframework.jmx.export.annotation.ManagedOperationParameters;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Default {@link OperationMetrics} implementation, keeping {@link OperationStatistics} in memory per region and
+ * operation. Annotated for JMX so that, once exported (for example through <tt>&lt;context:mbean-export/&gt;</tt>),
+ * the statistics can be inspected and reset through any JMX console. Latencies are exposed in microseconds.
+ *
+ * @author Costin Leau
+ */
+@ManagedResource(description = "GemFire operation metrics")
+public class DefaultOperationMetrics implements OperationMetrics {
+
+	private final ConcurrentMap<String, OperationStatistics> statistics = new ConcurrentHashMap<String, OperationStatistics>();
+
+	public void recordOperation(String region, String operation, long durationNanos, int payloadSize) {
+		statisticsFor(region, operation).record(durationNanos, payloadSize);
+	}
+
+	public void recordError(String region, String operation, long durationNanos, Throwable error) {
+		statisticsFor(region, operation).recordError(durationNanos, error);
+	}
+
+	private OperationStatistics statisticsFor(String region, String operation) {
+		String key = key(region, operation);
+		OperationStatistics stats = statistics.get(key);
+		if (stats == null) {
+			OperationStatistics newStats = new OperationStatistics(region, operation);
+			stats = statistics.putIfAbsent(key, newStats);
+			if (stats == null) {
+				stats = newStats;
+			}
+		}
+		return stats;
+	}
+
+	/**
+	 * Returns the statistics of the given operation.
+	 *
+	 * @param region region full path
+	 * @param operation operation name
+	 * @return operation statistics, or <code>null</code> if the operation was not recorded
+	 */
+	public OperationStatistics getStatistics(String region, String operation) {
+		return statistics.get(key(region, operation));
+	}
+
+	/**
+	 * Returns the statistics of all the recorded operations.
+	 *
+	 * @return operation statistics
+	 */
+	public Collection<OperationStatistics> getStatistics() {
+		return Collections.unmodifiableCollection(statistics.values());
+	}
+
+	@ManagedAttribute(description = "Summary of the recorded operations")
+	public String[] getSummary() {
+		List<String> summary = new ArrayList<String>();
+		for (OperationStatistics stats : statistics.values()) {
+			summary.add(stats.toString());
+		}
+		Collections.sort(summary);
+		return summary.toArray(new String[summary.size()]);
+	}
+
+	@ManagedOperation(description = "Number of executions of an operation")
+	@ManagedOperationParameters( { @ManagedOperationParameter(name = "region", description = "Region full path"),
+			@ManagedOperationParameter(name = "operation", description = "Operation name") })
+	public long getCount(String region, String operation) {
+		OperationStatistics stats = getStatistics(region, operation);
+		return (stats != null ? stats.getLatency().getCount() : 0);
+	}
+
+	@ManagedOperation(description = "Number of failed executions of an operation")
+	@ManagedOperationParameters( { @ManagedOperationParameter(name = "region", description = "Region full path"),
+			@ManagedOperationParameter(name = "operation", description = "Operation name") })
+	public long getErrorCount(String region, String operation) {
+		OperationStatistics stats = getStatistics(region, operation);
+		return (stats != null ? stats.getErrorCount() : 0);
+	}
+
+	@ManagedOperation(description = "Mean latency (in microseconds) of an operation")
+	@ManagedOperationParameters( { @ManagedOperationParameter(name = "region", description = "Region full path"),
+			@ManagedOperationParameter(name = "operation", description = "Operation name") })
+	public double getMeanLatency(String region, String operation) {
+		OperationStatistics stats = getStatistics(region, operation);
+		return (stats != null ? stats.getLatency().getMean() / 1000 : 0);
+	}
+
+	@ManagedOperation(description = "Latency percentile (in microseconds) of an operation")
+	@ManagedOperationParameters( { @ManagedOperationParameter(name = "region", description = "Region full path"),
+			@ManagedOperationParameter(name = "operation", description = "Operation name"),
+			@ManagedOperationParameter(name = "percentile", description = "Percentile (between 0 and 100)") })
+	public long getLatencyPercentile(String region, String operation, double percentile) {
+		OperationStatistics stats = getStatistics(region, operation);
+		return (stats != null ? stats.getLatency().getPercentile(percentile) / 1000 : 0);
+	}
+
+	@ManagedOperation(description = "Discards all the recorded statistics")
+	public void reset() {
+		for (OperationStatistics stats : statistics.values()) {
+			stats.reset();
+		}
+	}
+
+	private static String key(String region, String operation) {
+		return region + "#" + operation;
+	}
+}
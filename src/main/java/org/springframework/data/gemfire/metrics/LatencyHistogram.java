@@ -0,0 +1,139 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.util.Assert;
+
+/**
+ * Lock-free latency histogram with logarithmic (power of two) buckets. Recording a value costs a few atomic
+ * increments; percentiles are approximated by the upper bound of the bucket they fall into (thus within a factor of
+ * two of the actual value).
+ *
+ * @author Costin Leau
+ */
+public class LatencyHistogram {
+
+	// bucket i holds the values in [2^(i-1), 2^i); bucket 0 holds 0
+	private static final int BUCKETS = 65;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong total = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records the given value.
+	 *
+	 * @param nanos latency, in nanoseconds
+	 */
+	public void record(long nanos) {
+		long value = (nanos < 0 ? 0 : nanos);
+		buckets.incrementAndGet(bucket(value));
+		count.incrementAndGet();
+		total.addAndGet(value);
+
+		long current;
+		while (value > (current = max.get())) {
+			if (max.compareAndSet(current, value)) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of recorded values.
+	 *
+	 * @return number of values
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * Returns the sum of the recorded values, in nanoseconds.
+	 *
+	 * @return total latency
+	 */
+	public long getTotal() {
+		return total.get();
+	}
+
+	/**
+	 * Returns the largest recorded value, in nanoseconds.
+	 *
+	 * @return maximum latency
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Returns the mean of the recorded values, in nanoseconds.
+	 *
+	 * @return mean latency, 0 if no value was recorded
+	 */
+	public double getMean() {
+		long c = count.get();
+		return (c == 0 ? 0 : (double) total.get() / c);
+	}
+
+	/**
+	 * Returns the (approximated) given percentile of the recorded values, in nanoseconds.
+	 *
+	 * @param percentile percentile, between 0 and 100
+	 * @return latency below which the given percentage of the values falls, 0 if no value was recorded
+	 */
+	public long getPercentile(double percentile) {
+		Assert.isTrue(percentile >= 0 && percentile <= 100, "Percentile must be between 0 and 100");
+
+		long c = count.get();
+		if (c == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(c * percentile / 100));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += buckets.get(i);
+			if (seen >= target) {
+				return Math.min(upperBound(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	/**
+	 * Discards all the recorded values. Values recorded concurrently might be partially discarded.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets.set(i, 0);
+		}
+		count.set(0);
+		total.set(0);
+		max.set(0);
+	}
+
+	static int bucket(long value) {
+		return (value == 0 ? 0 : 64 - Long.numberOfLeadingZeros(value));
+	}
+
+	private static long upperBound(int bucket) {
+		return (bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1);
+	}
+}
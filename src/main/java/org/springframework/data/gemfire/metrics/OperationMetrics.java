@@ -0,0 +1,46 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.metrics;
+
+/**
+ * SPI for recording the operations executed by the GemFire templates. Called on the thread executing the operation,
+ * after it completes, so implementations should be fast and thread-safe.
+ *
+ * @see DefaultOperationMetrics
+ * @author Costin Leau
+ */
+public interface OperationMetrics {
+
+	/**
+	 * Records an operation that completed successfully.
+	 *
+	 * @param region full path of the region the operation was executed on
+	 * @param operation operation name (such as <tt>get</tt> or <tt>putAll</tt>)
+	 * @param durationNanos operation duration, in nanoseconds
+	 * @param payloadSize number of entries (or keys) sent by bulk operations; -1 for the other operations
+	 */
+	void recordOperation(String region, String operation, long durationNanos, int payloadSize);
+
+	/**
+	 * Records an operation that failed.
+	 *
+	 * @param region full path of the region the operation was executed on
+	 * @param operation operation name (such as <tt>get</tt> or <tt>putAll</tt>)
+	 * @param durationNanos operation duration, in nanoseconds
+	 * @param error the (translated) exception thrown by the operation
+	 */
+	void recordError(String region, String operation, long durationNanos, Throwable error);
+}
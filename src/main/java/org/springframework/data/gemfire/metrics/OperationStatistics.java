@@ -0,0 +1,165 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of a single operation (on a given region): latency histogram, error counts by exception type and, for
+ * bulk operations, payload sizes.
+ *
+ * @author Costin Leau
+ */
+public class OperationStatistics {
+
+	private final String region;
+	private final String operation;
+
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final ConcurrentMap<String, AtomicLong> errors = new ConcurrentHashMap<String, AtomicLong>();
+	private final AtomicLong payloadCount = new AtomicLong();
+	private final AtomicLong payloadTotal = new AtomicLong();
+	private final AtomicLong payloadMax = new AtomicLong();
+
+	public OperationStatistics(String region, String operation) {
+		this.region = region;
+		this.operation = operation;
+	}
+
+	void record(long durationNanos, int payloadSize) {
+		latency.record(durationNanos);
+		if (payloadSize >= 0) {
+			payloadCount.incrementAndGet();
+			payloadTotal.addAndGet(payloadSize);
+			long current;
+			while (payloadSize > (current = payloadMax.get())) {
+				if (payloadMax.compareAndSet(current, payloadSize)) {
+					break;
+				}
+			}
+		}
+	}
+
+	void recordError(long durationNanos, Throwable error) {
+		latency.record(durationNanos);
+		String type = error.getClass().getName();
+		AtomicLong counter = errors.get(type);
+		if (counter == null) {
+			AtomicLong newCounter = new AtomicLong();
+			counter = errors.putIfAbsent(type, newCounter);
+			if (counter == null) {
+				counter = newCounter;
+			}
+		}
+		counter.incrementAndGet();
+	}
+
+	void reset() {
+		latency.reset();
+		errors.clear();
+		payloadCount.set(0);
+		payloadTotal.set(0);
+		payloadMax.set(0);
+	}
+
+	public String getRegion() {
+		return region;
+	}
+
+	public String getOperation() {
+		return operation;
+	}
+
+	/**
+	 * Returns the latency histogram of the operation (covering both successful and failed executions).
+	 *
+	 * @return latency histogram
+	 */
+	public LatencyHistogram getLatency() {
+		return latency;
+	}
+
+	/**
+	 * Returns the number of failed executions, by exception class name.
+	 *
+	 * @return error counts
+	 */
+	public Map<String, Long> getErrors() {
+		Map<String, Long> result = new TreeMap<String, Long>();
+		for (Map.Entry<String, AtomicLong> entry : errors.entrySet()) {
+			result.put(entry.getKey(), Long.valueOf(entry.getValue().get()));
+		}
+		return Collections.unmodifiableMap(result);
+	}
+
+	/**
+	 * Returns the total number of failed executions.
+	 *
+	 * @return error count
+	 */
+	public long getErrorCount() {
+		long count = 0;
+		for (AtomicLong counter : errors.values()) {
+			count += counter.get();
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the average number of entries per (bulk) execution.
+	 *
+	 * @return mean payload size, 0 for non-bulk operations
+	 */
+	public double getMeanPayloadSize() {
+		long count = payloadCount.get();
+		return (count == 0 ? 0 : (double) payloadTotal.get() / count);
+	}
+
+	/**
+	 * Returns the largest number of entries sent by one (bulk) execution.
+	 *
+	 * @return maximum payload size, 0 for non-bulk operations
+	 */
+	public long getMaxPayloadSize() {
+		return payloadMax.get();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(region).append(' ').append(operation);
+		sb.append(": count=").append(latency.getCount());
+		sb.append(", mean=").append(micros((long) latency.getMean()));
+		sb.append("us, p50=").append(micros(latency.getPercentile(50)));
+		sb.append("us, p99=").append(micros(latency.getPercentile(99)));
+		sb.append("us, max=").append(micros(latency.getMax()));
+		sb.append("us, errors=").append(getErrorCount());
+		if (payloadCount.get() > 0) {
+			sb.append(", meanPayload=").append(Math.round(getMeanPayloadSize()));
+			sb.append(", maxPayload=").append(getMaxPayloadSize());
+		}
+		return sb.toString();
+	}
+
+	private static long micros(long nanos) {
+		return nanos / 1000;
+	}
+}
@@ -0,0 +1,6 @@
+/**
+ * Package providing the (pluggable) operation metrics of the GemFire templates, along with a default, JMX-enabled
+ * implementation.
+ */
+package org.springframework.data.gemfire.metrics;
+
@@ -16,15 +16,49 @@
 package org.springframework.data.gemfire.repository;
 
 import java.io.Serializable;
+import java.util.Iterator;
+import java.util.List;
 
+import org.springframework.data.gemfire.PagedRegionIterator;
+import org.springframework.data.gemfire.repository.query.Criteria;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.PagingAndSortingRepository;
 
 /**
- * Gemfire-specific extension of the {@link CrudRepository} interface.
+ * Gemfire-specific extension of the {@link CrudRepository} interface, supporting sorted and paged access through
+ * {@link PagingAndSortingRepository}.
  * 
  * @author Oliver Gierke
  */
-public interface GemfireRepository<T, ID extends Serializable> extends CrudRepository<T, ID> {
+public interface GemfireRepository<T, ID extends Serializable> extends PagingAndSortingRepository<T, ID> {
 
 	T save(Wrapper<T, ID> wrapper);
+
+	/**
+	 * Returns all entities, fetching them lazily in batches of the given size so that at most one batch is held in
+	 * memory, regardless of the size of the region. The ids need to be comparable, as they determine the order in
+	 * which the entities are returned.
+	 * 
+	 * @param batchSize the maximum number of entities fetched at once, must be greater than zero.
+	 * @return a lazy {@link Iterator} over all entities.
+	 * @see PagedRegionIterator
+	 */
+	PagedRegionIterator<T> findAllStreaming(int batchSize);
+
+	/**
+	 * Returns all entities meeting the given {@link Criteria}.
+	 * 
+	 * @param criteria must not be {@literal null}.
+	 * @return the matching entities.
+	 */
+	List<T> findAll(Criteria criteria);
+
+	/**
+	 * Returns all entities having the same values as the given example for the properties set on it.
+	 * 
+	 * @param example must not be {@literal null}.
+	 * @return the matching entities.
+	 * @see Criteria#byExample(Object, org.springframework.data.gemfire.mapping.GemfirePersistentEntity)
+	 */
+	List<T> findByExample(T example);
 }
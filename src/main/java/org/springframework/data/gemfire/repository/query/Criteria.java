@@ -0,0 +1,338 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.repository.query;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import org.springframework.data.gemfire.mapping.GemfirePersistentEntity;
+import org.springframework.data.gemfire.mapping.GemfirePersistentProperty;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.repository.query.parser.Part.Type;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Dynamic query criteria, compiled into OQL using bind parameters for all the values:
+ * 
+ * <pre>
+ * Criteria criteria = Criteria.where("lastname").is("Matthews").and("age").greaterThan(30)
+ * 		.or(Criteria.where("firstname").in(names));
+ * </pre>
+ * 
+ * The conditions of a {@link Criteria} are and-concatenated, the {@link Criteria} combined through
+ * {@link #or(Criteria)} or-concatenated. The compiled query is normalized - conditions and alternatives are ordered by
+ * property and comparison - so that criteria of the same shape produce the same OQL, regardless of the values or the
+ * order the conditions are declared in. This way, dynamic queries are compiled (and cached) by GemFire once per
+ * shape.
+ * <p/>
+ * Instances are not thread-safe.
+ * 
+ * @author Oliver Gierke
+ */
+public class Criteria {
+
+	private static final Comparator<Condition> CONDITION_ORDER = new Comparator<Condition>() {
+		public int compare(Condition o1, Condition o2) {
+			int result = o1.property.compareTo(o2.property);
+			return result != 0 ? result : o1.type.compareTo(o2.type);
+		}
+	};
+
+	private static final Comparator<List<Condition>> ALTERNATIVE_ORDER = new Comparator<List<Condition>>() {
+		public int compare(List<Condition> o1, List<Condition> o2) {
+			for (int i = 0; i < Math.min(o1.size(), o2.size()); i++) {
+				int result = CONDITION_ORDER.compare(o1.get(i), o2.get(i));
+				if (result != 0) {
+					return result;
+				}
+			}
+			return o1.size() - o2.size();
+		}
+	};
+
+	private final List<List<Condition>> alternatives = new ArrayList<List<Condition>>();
+
+	private Criteria() {
+		alternatives.add(new ArrayList<Condition>());
+	}
+
+	/**
+	 * Starts a new {@link Criteria} with a condition on the given property.
+	 * 
+	 * @param property property path, such as {@literal address.city}; must not be {@literal null} or empty.
+	 * @return the condition builder.
+	 */
+	public static PropertyCondition where(String property) {
+		return new Criteria().and(property);
+	}
+
+	/**
+	 * Returns a {@link Criteria} matching the entities having the same values as the given example for all the
+	 * persistent properties that are set, that is not {@literal null} and - for primitives - different from their
+	 * default value. The properties are resolved through the given {@link GemfirePersistentEntity}, so transient
+	 * properties and the ones left out of the PDX form are ignored and the conditions refer to the PDX field names.
+	 * 
+	 * @param example must not be {@literal null}.
+	 * @param entity the entity of the example, must not be {@literal null}.
+	 * @return the criteria.
+	 */
+	public static Criteria byExample(final Object example, GemfirePersistentEntity<?> entity) {
+
+		Assert.notNull(example);
+		Assert.notNull(entity);
+		Assert.isInstanceOf(entity.getType(), example);
+
+		final Criteria criteria = new Criteria();
+
+		entity.doWithProperties(new PropertyHandler<GemfirePersistentProperty>() {
+			public void doWithPersistentProperty(GemfirePersistentProperty property) {
+
+				if (property.isPdxIgnored()) {
+					return;
+				}
+
+				Field field = property.getField();
+				ReflectionUtils.makeAccessible(field);
+				Object value = ReflectionUtils.getField(field, example);
+
+				if (value != null && !(field.getType().isPrimitive() && isDefault(value))) {
+					criteria.add(property.getPdxFieldName(), Type.SIMPLE_PROPERTY, value);
+				}
+			}
+		});
+
+		return criteria;
+	}
+
+	/**
+	 * Adds a condition on the given property, to be met along with the current ones (the ones of this {@link Criteria},
+	 * not of its alternatives).
+	 * 
+	 * @param property property path; must not be {@literal null} or empty.
+	 * @return the condition builder.
+	 */
+	public PropertyCondition and(String property) {
+		Assert.hasText(property, "Property must not be empty");
+		return new PropertyCondition(property);
+	}
+
+	/**
+	 * Adds the given {@link Criteria} as an alternative to the current one.
+	 * 
+	 * @param criteria must not be {@literal null}.
+	 * @return the current {@link Criteria}.
+	 */
+	public Criteria or(Criteria criteria) {
+
+		Assert.notNull(criteria);
+
+		for (List<Condition> alternative : criteria.alternatives) {
+			if (!alternative.isEmpty()) {
+				alternatives.add(new ArrayList<Condition>(alternative));
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Returns the OQL selecting the entities of the given region that meet the criteria. The values are referred to
+	 * through bind parameters, see {@link #getParameters()}.
+	 * 
+	 * @param regionPath full path of the queried region; must not be {@literal null} or empty.
+	 * @return the OQL query.
+	 */
+	public String toQuery(String regionPath) {
+
+		Assert.hasText(regionPath);
+
+		QueryBuilder builder = new QueryBuilder(String.format("SELECT * FROM %s %s", regionPath,
+				QueryBuilder.DEFAULT_ALIAS));
+		List<List<Condition>> normalized = normalize();
+
+		if (normalized.isEmpty()) {
+			return builder.toString();
+		}
+
+		Iterator<Integer> indexes = new GemfireQueryCreator.IndexProvider();
+		Predicates predicate = null;
+
+		for (List<Condition> alternative : normalized) {
+			Predicates conjunction = null;
+			for (Condition condition : alternative) {
+				Predicates current = Predicates.create(condition.property, condition.type, indexes);
+				conjunction = conjunction == null ? current : conjunction.and(current);
+			}
+			predicate = predicate == null ? conjunction : predicate.or(conjunction);
+		}
+
+		return builder.create(predicate).withInBindParameters().toString();
+	}
+
+	/**
+	 * Returns the values to bind to the parameters of the query returned by {@link #toQuery(String)}, in parameter
+	 * order.
+	 * 
+	 * @return the parameter values.
+	 */
+	public Object[] getParameters() {
+
+		List<Object> result = new ArrayList<Object>();
+
+		for (List<Condition> alternative : normalize()) {
+			for (Condition condition : alternative) {
+				if (condition.type != Type.IS_NULL && condition.type != Type.IS_NOT_NULL) {
+					result.add(condition.value);
+				}
+			}
+		}
+
+		return result.toArray();
+	}
+
+	private List<List<Condition>> normalize() {
+
+		List<List<Condition>> result = new ArrayList<List<Condition>>(alternatives.size());
+
+		for (List<Condition> alternative : alternatives) {
+			if (!alternative.isEmpty()) {
+				List<Condition> sorted = new ArrayList<Condition>(alternative);
+				Collections.sort(sorted, CONDITION_ORDER);
+				result.add(sorted);
+			}
+		}
+
+		Collections.sort(result, ALTERNATIVE_ORDER);
+		return result;
+	}
+
+	private Criteria add(String property, Type type, Object value) {
+		alternatives.get(0).add(new Condition(property, type, value));
+		return this;
+	}
+
+	private static boolean isDefault(Object value) {
+		if (value instanceof Boolean) {
+			return !((Boolean) value);
+		}
+		if (value instanceof Character) {
+			return ((Character) value) == 0;
+		}
+		return ((Number) value).doubleValue() == 0;
+	}
+
+	/**
+	 * Builder for the condition on a property.
+	 */
+	public class PropertyCondition {
+
+		private final String property;
+
+		private PropertyCondition(String property) {
+			this.property = property;
+		}
+
+		/**
+		 * Requires the property to be equal to the given value ({@literal null} requires it to be {@literal null}).
+		 */
+		public Criteria is(Object value) {
+			return value == null ? isNull() : add(property, Type.SIMPLE_PROPERTY, value);
+		}
+
+		/**
+		 * Requires the property not to be equal to the given value ({@literal null} requires it to be set).
+		 */
+		public Criteria isNot(Object value) {
+			return value == null ? isNotNull() : add(property, Type.NEGATING_SIMPLE_PROPERTY, value);
+		}
+
+		public Criteria greaterThan(Object value) {
+			return add(property, Type.GREATER_THAN, notNull(value));
+		}
+
+		public Criteria greaterThanEqual(Object value) {
+			return add(property, Type.GREATER_THAN_EQUAL, notNull(value));
+		}
+
+		public Criteria lessThan(Object value) {
+			return add(property, Type.LESS_THAN, notNull(value));
+		}
+
+		public Criteria lessThanEqual(Object value) {
+			return add(property, Type.LESS_THAN_EQUAL, notNull(value));
+		}
+
+		/**
+		 * Requires the property to be equal to one of the given values (a collection or an array).
+		 */
+		public Criteria in(Object values) {
+			return add(property, Type.IN, toCollection(values));
+		}
+
+		/**
+		 * Requires the property not to be equal to any of the given values (a collection or an array).
+		 */
+		public Criteria notIn(Object values) {
+			return add(property, Type.NOT_IN, toCollection(values));
+		}
+
+		public Criteria isNull() {
+			return add(property, Type.IS_NULL, null);
+		}
+
+		public Criteria isNotNull() {
+			return add(property, Type.IS_NOT_NULL, null);
+		}
+
+		private Object notNull(Object value) {
+			Assert.notNull(value, "Value for property " + property + " must not be null");
+			return value;
+		}
+
+		private Collection<?> toCollection(Object values) {
+
+			Assert.notNull(values, "Values for property " + property + " must not be null");
+
+			if (values instanceof Collection) {
+				return (Collection<?>) values;
+			}
+
+			Assert.isTrue(values.getClass().isArray(), "Values for property " + property
+					+ " must be a collection or an array but is " + ClassUtils.getQualifiedName(values.getClass()));
+			return CollectionUtils.arrayToList(values);
+		}
+	}
+
+	private static class Condition {
+
+		private final String property;
+		private final Type type;
+		private final Object value;
+
+		Condition(String property, Type type, Object value) {
+			this.property = property;
+			this.type = type;
+			this.value = value;
+		}
+	}
+}
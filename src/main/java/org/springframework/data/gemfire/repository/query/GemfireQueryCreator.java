@@ -44,10 +44,21 @@ class GemfireQueryCreator extends AbstractQueryCreator<QueryString, Predicates>
 	 * @param entity must not be {@literal null}.
 	 */
 	public GemfireQueryCreator(PartTree tree, GemfirePersistentEntity<?> entity) {
+		this(tree, entity, null);
+	}
+
+	/**
+	 * Creates a new {@link GemfireQueryCreator} selecting the properties of the given {@link Projection} only.
+	 * 
+	 * @param tree must not be {@literal null}.
+	 * @param entity must not be {@literal null}.
+	 * @param projection can be {@literal null}.
+	 */
+	public GemfireQueryCreator(PartTree tree, GemfirePersistentEntity<?> entity, Projection projection) {
 
 		super(tree);
 
-		this.query = new QueryBuilder(entity);
+		this.query = new QueryBuilder(entity, projection);
 		this.indexes = new IndexProvider();
 	}
 
@@ -96,7 +107,7 @@ class GemfireQueryCreator extends AbstractQueryCreator<QueryString, Predicates>
 	@Override
 	protected QueryString complete(Predicates criteria, Sort sort) {
 
-		QueryString result = query.create(criteria);
+		QueryString result = query.create(criteria).orderBy(sort, QueryBuilder.DEFAULT_ALIAS);
 
 		if (LOG.isDebugEnabled()) {
 			LOG.debug("Created query: " + result.toString());
@@ -105,7 +116,7 @@ class GemfireQueryCreator extends AbstractQueryCreator<QueryString, Predicates>
 		return result;
 	}
 
-	private static class IndexProvider implements Iterator<Integer> {
+	static class IndexProvider implements Iterator<Integer> {
 
 		private int index;
 
@@ -18,6 +18,7 @@ package org.springframework.data.gemfire.repository.query;
 import java.lang.reflect.Method;
 
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.gemfire.mapping.GemfirePersistentEntity;
 import org.springframework.data.gemfire.mapping.GemfirePersistentProperty;
 import org.springframework.data.gemfire.repository.Query;
@@ -36,6 +37,7 @@ public class GemfireQueryMethod extends QueryMethod {
 
 	private final Method method;
 	private final GemfirePersistentEntity<?> entity;
+	private final Class<?> returnedType;
 
 	/**
 	 * Creates a new {@link GemfireQueryMethod} from the given {@link Method} and {@link RepositoryMetadata}.
@@ -53,6 +55,7 @@ public class GemfireQueryMethod extends QueryMethod {
 
 		this.method = method;
 		this.entity = context.getPersistentEntity(getDomainClass());
+		this.returnedType = metadata.getReturnedDomainClass(method);
 	}
 
 	/**
@@ -73,6 +76,61 @@ public class GemfireQueryMethod extends QueryMethod {
 		return entity;
 	}
 
+	/**
+	 * Returns whether the query method returns a declared projection of the entity rather than the entity itself.
+	 * 
+	 * @return whether the query method returns a projection of the entity.
+	 */
+	public boolean isProjecting() {
+		return getDeclaredProjection() != null;
+	}
+
+	/**
+	 * Returns the {@link Projection} the query derived from the method name selects.
+	 * 
+	 * @return the {@link Projection} or {@literal null} if the method returns entities.
+	 * @throws IllegalStateException if the return type refers to properties unknown to the entity.
+	 */
+	Projection getProjection() {
+		return Projection.create(returnedType, entity);
+	}
+
+	/**
+	 * Returns the {@link Projection} the results of an annotated or named query are turned into. As such queries select
+	 * arbitrary values, only return types whose properties are all properties of the entity are projected.
+	 * 
+	 * @return the {@link Projection} or {@literal null} if the results are returned as they are.
+	 */
+	Projection getDeclaredProjection() {
+		return Projection.createIfDeclared(returnedType, entity);
+	}
+
+	/**
+	 * Returns the order of the paged executions that are not sorted otherwise. OQL results have no defined order, so
+	 * consecutive pages (whose preceding results are skipped on the client) could overlap or miss entities.
+	 * 
+	 * @return the {@link Sort} by the id property of the entity.
+	 * @throws IllegalArgumentException if the entity has no id property.
+	 */
+	Sort getDefaultPagingSort() {
+
+		GemfirePersistentProperty idProperty = entity.getIdProperty();
+
+		Assert.isTrue(idProperty != null, String.format("Query method %s cannot page unsorted results as %s has no id "
+				+ "property to order them by; pass a Sort", method, entity.getType().getName()));
+
+		return new Sort(idProperty.getName());
+	}
+
+	/**
+	 * Returns the underlying repository method.
+	 * 
+	 * @return the repository method.
+	 */
+	Method getJavaMethod() {
+		return method;
+	}
+
 	/**
 	 * Returns the query annotated to the query method.
 	 * 
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.repository.query;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index coverage of a derived query method: the properties the query filters on, each with the name of the index
+ * covering it (if any).
+ * 
+ * @author Oliver Gierke
+ * @see QueryIndexChecker
+ */
+public class IndexCoverage {
+
+	private final Method method;
+	private final String regionPath;
+	private final Map<String, String> indexes;
+
+	IndexCoverage(Method method, String regionPath, Map<String, String> indexes) {
+		this.method = method;
+		this.regionPath = regionPath;
+		this.indexes = Collections.unmodifiableMap(new LinkedHashMap<String, String>(indexes));
+	}
+
+	/**
+	 * Returns the query method.
+	 * 
+	 * @return the query method.
+	 */
+	public Method getMethod() {
+		return method;
+	}
+
+	/**
+	 * Returns the full path of the region the query method runs against.
+	 * 
+	 * @return the region path.
+	 */
+	public String getRegionPath() {
+		return regionPath;
+	}
+
+	/**
+	 * Returns the properties used by the query, mapped to the names of the indexes covering them ({@literal null} for
+	 * the properties without index).
+	 * 
+	 * @return the indexes by property, in query order.
+	 */
+	public Map<String, String> getIndexes() {
+		return indexes;
+	}
+
+	/**
+	 * Returns the properties used by the query which are not covered by an index.
+	 * 
+	 * @return the properties without index, empty if all are covered.
+	 */
+	public List<String> getUncoveredProperties() {
+
+		List<String> result = new ArrayList<String>();
+		for (Map.Entry<String, String> entry : indexes.entrySet()) {
+			if (entry.getValue() == null) {
+				result.add(entry.getKey());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns whether all the properties used by the query are covered by an index.
+	 * 
+	 * @return whether the query is fully covered.
+	 */
+	public boolean isCovered() {
+		return !indexes.containsValue(null);
+	}
+
+	@Override
+	public String toString() {
+
+		StringBuilder sb = new StringBuilder();
+		sb.append(method.getDeclaringClass().getSimpleName()).append('.').append(method.getName()).append(" on ")
+				.append(regionPath).append(':');
+
+		for (Map.Entry<String, String> entry : indexes.entrySet()) {
+			sb.append(' ').append(entry.getKey()).append(" [")
+					.append(entry.getValue() == null ? "no index" : entry.getValue()).append(']');
+		}
+		return sb.toString();
+	}
+}
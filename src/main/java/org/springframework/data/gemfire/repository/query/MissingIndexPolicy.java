@@ -0,0 +1,37 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.repository.query;
+
+/**
+ * Defines what happens when a derived query method filters on a property no index of the queried region covers.
+ * 
+ * @author Oliver Gierke
+ * @see QueryIndexChecker
+ */
+public enum MissingIndexPolicy {
+
+	/** Index coverage is not checked */
+	IGNORE,
+
+	/** A warning is logged for each property without an index */
+	WARN,
+
+	/** Resolving the query method fails */
+	FAIL,
+
+	/** A functional index is created for each property without one */
+	CREATE
+}
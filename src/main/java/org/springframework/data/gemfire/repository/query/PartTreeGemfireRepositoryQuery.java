@@ -15,7 +15,12 @@
  */
 package org.springframework.data.gemfire.repository.query;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.data.domain.Sort;
 import org.springframework.data.gemfire.GemfireTemplate;
+import org.springframework.data.repository.query.Parameters;
 import org.springframework.data.repository.query.ParametersParameterAccessor;
 import org.springframework.data.repository.query.RepositoryQuery;
 import org.springframework.data.repository.query.parser.PartTree;
@@ -23,14 +28,30 @@ import org.springframework.data.repository.query.parser.PartTree;
 /**
  * {@link GemfireRepositoryQuery} backed by a {@link PartTree} and thus, deriving an OQL query from the backing query
  * method's name.
+ * <p/>
+ * The OQL is derived only once per method (and, for methods with a dynamic {@link Sort} parameter, once per sort):
+ * the resulting {@link StringBasedGemfireRepositoryQuery} is cached, so that invocations only bind the arguments. The
+ * sort ends up in the {@literal ORDER BY} clause of the derived query; paged executions without any sort (neither
+ * dynamic nor through the {@literal OrderBy} keyword) are ordered by the id property, so that the pages are consistent.
  * 
  * @author Oliver Gierke
  */
 public class PartTreeGemfireRepositoryQuery extends GemfireRepositoryQuery {
 
+	// upper bound for the queries cached per dynamic sort
+	static final int MAX_SORTED_QUERIES = 64;
+
+	private static final Object UNSORTED = new Object();
+
 	private final GemfireQueryMethod method;
 	private final PartTree tree;
 	private final GemfireTemplate template;
+	private final Projection projection;
+
+	private final StringBasedGemfireRepositoryQuery query;
+	private final ConcurrentMap<Object, RepositoryQuery> sortedQueries;
+
+	private QueryMonitor monitor;
 
 	/**
 	 * Creates a new {@link PartTreeGemfireRepositoryQuery} using the given {@link GemfireQueryMethod} and
@@ -48,6 +69,17 @@ public class PartTreeGemfireRepositoryQuery extends GemfireRepositoryQuery {
 		this.tree = new PartTree(method.getName(), domainClass);
 		this.method = method;
 		this.template = template;
+		this.projection = method.getProjection();
+
+		Parameters parameters = method.getParameters();
+
+		if (parameters.hasSortParameter() || parameters.hasPageableParameter()) {
+			this.query = null;
+			this.sortedQueries = new ConcurrentHashMap<Object, RepositoryQuery>();
+		} else {
+			this.query = createQuery(null);
+			this.sortedQueries = null;
+		}
 	}
 
 	/* 
@@ -56,13 +88,61 @@ public class PartTreeGemfireRepositoryQuery extends GemfireRepositoryQuery {
 	 */
 	@Override
 	public Object execute(Object[] parameters) {
+		return getQuery(parameters).execute(parameters);
+	}
+
+	/**
+	 * Configures the {@link QueryMonitor} recording the executions of the query.
+	 * 
+	 * @param monitor can be {@literal null}.
+	 */
+	public void setQueryMonitor(QueryMonitor monitor) {
 
-		ParametersParameterAccessor parameterAccessor = new ParametersParameterAccessor(method.getParameters(), parameters);
-		QueryString query = new GemfireQueryCreator(tree, method.getPersistentEntity()).createQuery(parameterAccessor
-				.getSort());
+		this.monitor = monitor;
+
+		if (query != null) {
+			query.setQueryMonitor(monitor);
+		}
+		// the queries for the other sorts are recreated with the new monitor
+		if (sortedQueries != null) {
+			sortedQueries.clear();
+		}
+	}
+
+	private RepositoryQuery getQuery(Object[] parameters) {
+
+		if (query != null) {
+			return query;
+		}
+
+		ParametersParameterAccessor accessor = new ParametersParameterAccessor(method.getParameters(), parameters);
+		Sort sort = accessor.getSort();
+
+		if (sort == null && accessor.getPageable() != null && tree.getSort() == null) {
+			sort = method.getDefaultPagingSort();
+		}
+
+		Object key = sort == null ? UNSORTED : sort;
+
+		RepositoryQuery result = sortedQueries.get(key);
+
+		if (result == null) {
+			result = createQuery(sort);
+			// don't let arbitrary sort combinations grow the cache unbounded
+			if (sortedQueries.size() < MAX_SORTED_QUERIES) {
+				sortedQueries.putIfAbsent(key, result);
+			}
+		}
+
+		return result;
+	}
 
-		RepositoryQuery repositoryQuery = new StringBasedGemfireRepositoryQuery(query.toString(), method, template);
+	private StringBasedGemfireRepositoryQuery createQuery(Sort sort) {
 
-		return repositoryQuery.execute(parameters);
+		QueryString query = new GemfireQueryCreator(tree, method.getPersistentEntity(), projection).createQuery(sort);
+		StringBasedGemfireRepositoryQuery result = new StringBasedGemfireRepositoryQuery(query.toString(), method,
+				template, false, projection);
+		result.setQueryMonitor(monitor);
+		return result;
 	}
 }
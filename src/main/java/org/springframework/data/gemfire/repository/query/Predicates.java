@@ -49,6 +49,18 @@ class Predicates implements Predicate {
 		return create(new AtomicPredicate(part, value));
 	}
 
+	/**
+	 * Creates a new Predicate comparing the given property path using the given {@link Type}.
+	 * 
+	 * @param property must not be {@literal null} or empty.
+	 * @param type must not be {@literal null}.
+	 * @param value must not be {@literal null}.
+	 * @return
+	 */
+	public static Predicates create(String property, Type type, Iterator<Integer> value) {
+		return create(new AtomicPredicate(property, type, value));
+	}
+
 	/**
 	 * And-concatenates the given {@link Predicate} to the current one.
 	 * 
@@ -97,7 +109,8 @@ class Predicates implements Predicate {
 	 */
 	public static class AtomicPredicate implements Predicate {
 
-		private final Part part;
+		private final String property;
+		private final Type type;
 		private final Iterator<Integer> value;
 
 		/**
@@ -107,11 +120,24 @@ class Predicates implements Predicate {
 		 * @param value must not be {@literal null}.
 		 */
 		public AtomicPredicate(Part part, Iterator<Integer> value) {
+			this(part.getProperty().toDotPath(), part.getType(), value);
+		}
 
-			Assert.notNull(part);
+		/**
+		 * Creates a new {@link AtomicPredicate} for the given property path and comparison type.
+		 * 
+		 * @param property must not be {@literal null} or empty.
+		 * @param type must not be {@literal null}.
+		 * @param value must not be {@literal null}.
+		 */
+		public AtomicPredicate(String property, Type type, Iterator<Integer> value) {
+
+			Assert.hasText(property);
+			Assert.notNull(type);
 			Assert.notNull(value);
 
-			this.part = part;
+			this.property = property;
+			this.type = type;
 			this.value = value;
 		}
 
@@ -121,10 +147,7 @@ class Predicates implements Predicate {
 		 */
 		@Override
 		public String toString(String alias) {
-
-			Type type = part.getType();
-			return String.format("%s.%s %s", alias == null ? QueryBuilder.DEFAULT_ALIAS : alias, part.getProperty()
-					.toDotPath(), toClause(type));
+			return String.format("%s.%s %s", alias == null ? QueryBuilder.DEFAULT_ALIAS : alias, property, toClause(type));
 		}
 
 		private String toClause(Type type) {
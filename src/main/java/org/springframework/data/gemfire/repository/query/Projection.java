@@ -0,0 +1,294 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.repository.query;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.gemfire.mapping.GemfirePersistentEntity;
+import org.springframework.data.gemfire.mapping.GemfirePersistentProperty;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import com.gemstone.gemfire.cache.query.Struct;
+import com.gemstone.gemfire.pdx.PdxInstance;
+
+/**
+ * Projection of an entity onto a subset of its properties, declared through the return type of a query method: either
+ * a class exposing the properties through setters or an interface exposing them through getters.
+ * <p/>
+ * Derived queries select the projected properties only ({@literal SELECT x.firstname, x.lastname}) so that neither
+ * the server nor the client needs to deserialize the whole entity. The query results (GemFire {@link Struct}s, single
+ * values, {@link PdxInstance}s or entities) are then turned into instances of the projection type. As a query selecting
+ * a single property returns its values as they are, the results of such derived queries are always taken as the
+ * property value, whatever their type.
+ * <p/>
+ * Results of string based queries are projected only if the return type is a declared projection, that is all its
+ * properties are properties of the entity; other return types are handed out as the query returns them.
+ * 
+ * @author Oliver Gierke
+ */
+class Projection {
+
+	private final Class<?> type;
+	private final GemfirePersistentEntity<?> entity;
+	private final List<String> properties;
+	private final Map<Method, String> getters;
+	private final boolean selected;
+
+	private Projection(Class<?> type, GemfirePersistentEntity<?> entity, List<String> properties, boolean selected) {
+
+		this.type = type;
+		this.entity = entity;
+		this.properties = Collections.unmodifiableList(properties);
+		this.getters = new HashMap<Method, String>();
+		this.selected = selected;
+
+		if (type.isInterface()) {
+			for (PropertyDescriptor descriptor : BeanUtils.getPropertyDescriptors(type)) {
+				if (descriptor.getReadMethod() != null) {
+					getters.put(descriptor.getReadMethod(), descriptor.getName());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the {@link Projection} of the given entity onto the given type, for queries selecting the projected
+	 * properties (see {@link #getSelection(String)}).
+	 * 
+	 * @param type the type returned by the query method, can be {@literal null}.
+	 * @param entity must not be {@literal null}.
+	 * @return the {@link Projection} or {@literal null} if the given type is not a projection of the entity.
+	 * @throws IllegalStateException if the given type refers to properties unknown to the entity.
+	 */
+	static Projection create(Class<?> type, GemfirePersistentEntity<?> entity) {
+		return create(type, entity, true);
+	}
+
+	/**
+	 * Returns the {@link Projection} of the given entity onto the given type if all the properties of the type are
+	 * properties of the entity, for queries whose selection is not known.
+	 * 
+	 * @param type the type returned by the query method, can be {@literal null}.
+	 * @param entity must not be {@literal null}.
+	 * @return the {@link Projection} or {@literal null} if the given type is not a projection of the entity.
+	 */
+	static Projection createIfDeclared(Class<?> type, GemfirePersistentEntity<?> entity) {
+		return create(type, entity, false);
+	}
+
+	private static Projection create(Class<?> type, GemfirePersistentEntity<?> entity, boolean strict) {
+
+		Assert.notNull(entity);
+
+		if (type == null || type.isAssignableFrom(entity.getType()) || entity.getType().isAssignableFrom(type)
+				|| ClassUtils.isPrimitiveOrWrapper(type) || type.getName().startsWith("java.")) {
+			return null;
+		}
+
+		List<String> properties = new ArrayList<String>();
+
+		for (PropertyDescriptor descriptor : BeanUtils.getPropertyDescriptors(type)) {
+
+			Method accessor = type.isInterface() ? descriptor.getReadMethod() : descriptor.getWriteMethod();
+
+			if (accessor == null || "class".equals(descriptor.getName())) {
+				continue;
+			}
+
+			if (entity.getPersistentProperty(descriptor.getName()) == null) {
+				if (!strict) {
+					return null;
+				}
+				throw new IllegalStateException(String.format("Projection %s refers to property %s unknown to entity %s",
+						type.getName(), descriptor.getName(), entity.getType().getName()));
+			}
+
+			properties.add(descriptor.getName());
+		}
+
+		// the projections of derived queries are the ones rejecting unknown properties
+		return properties.isEmpty() ? null : new Projection(type, entity, properties, strict);
+	}
+
+	/**
+	 * Returns the projection type.
+	 * 
+	 * @return
+	 */
+	public Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the names of the projected properties, in the order they are selected.
+	 * 
+	 * @return
+	 */
+	public List<String> getProperties() {
+		return properties;
+	}
+
+	/**
+	 * Returns the OQL projection selecting the properties of the given alias.
+	 * 
+	 * @param alias must not be {@literal null} or empty.
+	 * @return
+	 */
+	public String getSelection(String alias) {
+
+		Assert.hasText(alias);
+
+		List<String> selection = new ArrayList<String>(properties.size());
+		for (String property : properties) {
+			selection.add(alias + "." + property);
+		}
+
+		return StringUtils.collectionToDelimitedString(selection, ", ");
+	}
+
+	/**
+	 * Turns the given query results into projection instances.
+	 * 
+	 * @param results must not be {@literal null}.
+	 * @return
+	 */
+	public List<Object> project(Collection<?> results) {
+
+		List<Object> result = new ArrayList<Object>(results.size());
+		for (Object row : results) {
+			result.add(project(row));
+		}
+		return result;
+	}
+
+	/**
+	 * Turns the given query result into a projection instance.
+	 * 
+	 * @param row can be {@literal null}.
+	 * @return
+	 */
+	public Object project(Object row) {
+
+		if (row == null) {
+			return null;
+		}
+
+		Map<String, Object> values = new HashMap<String, Object>(properties.size() * 2);
+
+		if (selected && properties.size() == 1) {
+			// a single selected property is returned as is, even if it is an entity or a PdxInstance
+			values.put(properties.get(0), row);
+		} else if (row instanceof Struct) {
+			// annotated queries may select the properties in any order
+			Struct struct = (Struct) row;
+			String[] names = struct.getStructType().getFieldNames();
+			Object[] fields = struct.getFieldValues();
+			for (int i = 0; i < names.length; i++) {
+				if (properties.contains(names[i])) {
+					values.put(names[i], fields[i]);
+				}
+			}
+		} else if (row instanceof PdxInstance && isEntity(row)) {
+			// reads the fields of interest only, without deserializing the entity
+			PdxInstance instance = (PdxInstance) row;
+			for (String property : properties) {
+				GemfirePersistentProperty persistentProperty = entity.getPersistentProperty(property);
+				values.put(property, instance.getField(persistentProperty.getPdxFieldName()));
+			}
+		} else if (isEntity(row)) {
+			// entities expose their properties through the mapped fields, not necessarily through getters
+			for (String property : properties) {
+				Field field = entity.getPersistentProperty(property).getField();
+				ReflectionUtils.makeAccessible(field);
+				values.put(property, ReflectionUtils.getField(field, row));
+			}
+		} else if (properties.size() == 1) {
+			values.put(properties.get(0), row);
+		} else {
+			BeanWrapper wrapper = new BeanWrapperImpl(row);
+			for (String property : properties) {
+				values.put(property, wrapper.getPropertyValue(property));
+			}
+		}
+
+		for (Map.Entry<String, Object> entry : values.entrySet()) {
+			if (entry.getValue() instanceof PdxInstance) {
+				entry.setValue(((PdxInstance) entry.getValue()).getObject());
+			}
+		}
+
+		return type.isInterface() ? createProxy(values) : createInstance(values);
+	}
+
+	private boolean isEntity(Object row) {
+
+		if (row instanceof PdxInstance) {
+			return entity.getType().getName().equals(((PdxInstance) row).getClassName());
+		}
+
+		return entity.getType().isInstance(row);
+	}
+
+	private Object createInstance(Map<String, Object> values) {
+
+		BeanWrapper wrapper = new BeanWrapperImpl(BeanUtils.instantiateClass(type));
+		wrapper.setPropertyValues(values);
+		return wrapper.getWrappedInstance();
+	}
+
+	private Object createProxy(final Map<String, Object> values) {
+
+		return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new InvocationHandler() {
+
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+				if (getters.containsKey(method)) {
+					return values.get(getters.get(method));
+				}
+
+				String name = method.getName();
+
+				if ("equals".equals(name)) {
+					return proxy == args[0];
+				}
+				if ("hashCode".equals(name)) {
+					return System.identityHashCode(proxy);
+				}
+				if ("toString".equals(name)) {
+					return type.getSimpleName() + values;
+				}
+
+				throw new UnsupportedOperationException("Projection " + type.getName() + " does not support " + method);
+			}
+		});
+	}
+}
@@ -34,7 +34,12 @@ class QueryBuilder {
 	}
 
 	public QueryBuilder(GemfirePersistentEntity<?> entity) {
-		this(String.format("SELECT * FROM /%s %s", entity.getRegionName(), DEFAULT_ALIAS));
+		this(entity, null);
+	}
+
+	public QueryBuilder(GemfirePersistentEntity<?> entity, Projection projection) {
+		this(String.format("SELECT %s FROM /%s %s", projection == null ? "*" : projection.getSelection(DEFAULT_ALIAS),
+				entity.getRegionName(), DEFAULT_ALIAS));
 	}
 
 	public QueryString create(Predicate predicate) {
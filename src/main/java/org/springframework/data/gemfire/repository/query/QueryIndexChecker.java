@@ -0,0 +1,235 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.repository.query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.data.gemfire.IndexFactoryBean;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.query.parser.PartTree.OrPart;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.cache.query.Index;
+import com.gemstone.gemfire.cache.query.IndexType;
+import com.gemstone.gemfire.cache.query.QueryService;
+
+/**
+ * Checks whether the properties derived queries filter on are covered by indexes of the queried region, applying the
+ * configured {@link MissingIndexPolicy} to the ones that are not. Queries on properties without index scan the whole
+ * region.
+ * <p/>
+ * An index covers a property if its expression refers to the property (directly or through the alias declared in the
+ * index from clause) and its from clause iterates over the queried region. Client regions are not checked, as their
+ * indexes live on the servers.
+ * <p/>
+ * The coverage of all the checked methods is kept and can be retrieved through {@link #getCoverage()}.
+ * 
+ * @author Oliver Gierke
+ */
+public class QueryIndexChecker {
+
+	private static final Log log = LogFactory.getLog(QueryIndexChecker.class);
+
+	static final String INDEX_ALIAS = "x";
+
+	private final MissingIndexPolicy policy;
+	private final List<IndexCoverage> coverage = Collections.synchronizedList(new ArrayList<IndexCoverage>());
+
+	/**
+	 * Creates a new {@link QueryIndexChecker} using the given policy.
+	 * 
+	 * @param policy must not be {@literal null}.
+	 */
+	public QueryIndexChecker(MissingIndexPolicy policy) {
+		Assert.notNull(policy);
+		this.policy = policy;
+	}
+
+	/**
+	 * Returns the policy applied to properties without index.
+	 * 
+	 * @return the policy.
+	 */
+	public MissingIndexPolicy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Checks the index coverage of the query derived from the given method.
+	 * 
+	 * @param method must not be {@literal null}.
+	 * @param region the region queried by the method, must not be {@literal null}.
+	 * @return the index coverage, or {@literal null} if not checked.
+	 * @throws IllegalStateException if a property is not covered and the policy is {@link MissingIndexPolicy#FAIL}.
+	 */
+	public IndexCoverage check(GemfireQueryMethod method, Region<?, ?> region) {
+
+		if (policy == MissingIndexPolicy.IGNORE || StringUtils.hasText(region.getAttributes().getPoolName())) {
+			return null;
+		}
+
+		QueryService queryService = region.getRegionService().getQueryService();
+		Collection<Index> indexes = queryService.getIndexes(region);
+		// regions without any index do not have an index manager and return null
+		if (indexes == null) {
+			indexes = Collections.emptyList();
+		}
+		Map<String, String> indexByProperty = new LinkedHashMap<String, String>();
+
+		PartTree tree = new PartTree(method.getName(), method.getEntityInformation().getJavaType());
+
+		for (OrPart orPart : tree) {
+			for (Part part : orPart) {
+				String property = part.getProperty().toDotPath();
+				if (!indexByProperty.containsKey(property)) {
+					Index index = findIndex(indexes, property, region);
+					indexByProperty.put(property, index == null ? null : index.getName());
+				}
+			}
+		}
+
+		for (Map.Entry<String, String> entry : indexByProperty.entrySet()) {
+			if (entry.getValue() == null) {
+				entry.setValue(handleMissingIndex(method, entry.getKey(), region, queryService));
+			}
+		}
+
+		IndexCoverage result = new IndexCoverage(method.getJavaMethod(), region.getFullPath(), indexByProperty);
+		coverage.add(result);
+
+		if (log.isDebugEnabled()) {
+			log.debug("Index coverage of " + result);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the coverage of all the query methods checked so far.
+	 * 
+	 * @return the index coverage per query method.
+	 */
+	public List<IndexCoverage> getCoverage() {
+		synchronized (coverage) {
+			return new ArrayList<IndexCoverage>(coverage);
+		}
+	}
+
+	private String handleMissingIndex(GemfireQueryMethod method, String property, Region<?, ?> region,
+			QueryService queryService) {
+
+		String message = String.format("Query method %s filters on property '%s' not covered by any index of region %s; "
+				+ "the query will scan the whole region", method.getJavaMethod(), property, region.getFullPath());
+
+		switch (policy) {
+		case FAIL:
+			throw new IllegalStateException(message);
+		case CREATE:
+			return createIndex(property, region, queryService);
+		default:
+			log.warn(message);
+			return null;
+		}
+	}
+
+	private String createIndex(String property, Region<?, ?> region, QueryService queryService) {
+
+		String name = region.getName() + "_" + property.replace('.', '_') + "_idx";
+
+		IndexFactoryBean factory = new IndexFactoryBean();
+		factory.setQueryService(queryService);
+		factory.setName(name);
+		factory.setExpression(INDEX_ALIAS + "." + property);
+		factory.setFrom(region.getFullPath() + " " + INDEX_ALIAS);
+		factory.setType(IndexType.FUNCTIONAL);
+		factory.setOverride(false);
+
+		try {
+			factory.afterPropertiesSet();
+			log.info("Created index " + name + " on property '" + property + "' of region " + region.getFullPath());
+			return name;
+		} catch (Exception ex) {
+			log.warn("Cannot create index " + name + " for region " + region.getFullPath(), ex);
+			return null;
+		}
+	}
+
+	static Index findIndex(Collection<Index> indexes, String property, Region<?, ?> region) {
+
+		for (Index index : indexes) {
+			String alias = getAlias(index.getFromClause(), region.getFullPath());
+			if (alias == null) {
+				continue;
+			}
+
+			String expression = index.getIndexedExpression().trim();
+			if (alias.length() > 0 && expression.startsWith(alias + ".")) {
+				expression = expression.substring(alias.length() + 1);
+			}
+
+			if (property.equals(expression)) {
+				return index;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns the alias the given from clause declares for the given region, an empty {@link String} if the region has
+	 * no alias or {@literal null} if the from clause does not iterate over the region. Each iterator of the from clause
+	 * (separated by commas) is matched on its own, so that the alias of another iterator is not taken for the one of
+	 * the region.
+	 */
+	private static String getAlias(String from, String regionPath) {
+
+		if (from == null) {
+			return null;
+		}
+
+		for (String iterator : StringUtils.tokenizeToStringArray(from, ",")) {
+
+			String[] tokens = StringUtils.tokenizeToStringArray(iterator, " \t\n");
+
+			if (tokens.length == 0 || !iterates(tokens[0], regionPath)) {
+				continue;
+			}
+
+			boolean hasAlias = tokens.length > 1 && !"TYPE".equalsIgnoreCase(tokens[1]);
+			if (hasAlias && "AS".equalsIgnoreCase(tokens[1])) {
+				return tokens.length > 2 ? tokens[2] : "";
+			}
+			return hasAlias ? tokens[1] : "";
+		}
+
+		return null;
+	}
+
+	private static boolean iterates(String expression, String regionPath) {
+		return expression.equals(regionPath) || expression.equals(regionPath + ".values")
+				|| expression.equals(regionPath + ".values()");
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.repository.query;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.gemfire.metrics.DefaultOperationMetrics;
+import org.springframework.data.gemfire.metrics.OperationMetrics;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Records the executions of repository query methods: the latency and number of results of each execution are passed
+ * to an {@link OperationMetrics} (using the query method, as in <tt>PersonRepository.findByLastname</tt>, as
+ * operation name and the number of results as payload size) while executions slower than the configured threshold
+ * are logged with their OQL, bind parameters and elapsed time.
+ * <p/>
+ * Annotated for JMX so the slow query threshold can be adjusted at runtime; the aggregated statistics are available
+ * through the (exported) metrics, for example a {@link DefaultOperationMetrics}.
+ * 
+ * @author Oliver Gierke
+ */
+@ManagedResource(description = "GemFire repository query monitor")
+public class QueryMonitor {
+
+	private static final Log log = LogFactory.getLog(QueryMonitor.class);
+
+	private OperationMetrics metrics;
+	private volatile long slowQueryThreshold = -1;
+	private boolean logParameters = false;
+
+	private final AtomicLong slowQueries = new AtomicLong();
+
+	/**
+	 * Sets the metrics receiving the query executions. If not set, only slow queries are logged.
+	 * 
+	 * @param metrics metrics to record the executions into
+	 */
+	public void setMetrics(OperationMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Returns the metrics receiving the query executions.
+	 * 
+	 * @return metrics (can be <code>null</code>)
+	 */
+	public OperationMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Sets the duration (in milliseconds) above which query executions are logged (as warnings). A negative value
+	 * (the default) disables the slow query log.
+	 * 
+	 * @param slowQueryThreshold threshold in milliseconds
+	 */
+	@ManagedAttribute(description = "Duration (in ms) above which queries are logged; negative to disable")
+	public void setSlowQueryThreshold(long slowQueryThreshold) {
+		this.slowQueryThreshold = slowQueryThreshold;
+	}
+
+	@ManagedAttribute(description = "Duration (in ms) above which queries are logged; negative to disable")
+	public long getSlowQueryThreshold() {
+		return slowQueryThreshold;
+	}
+
+	/**
+	 * Sets whether the bind parameters of slow queries are logged. Disabled by default, in which case the parameter
+	 * values are redacted (only their types are logged) as they might contain sensitive data.
+	 * 
+	 * @param logParameters whether to log the parameter values
+	 */
+	public void setLogParameters(boolean logParameters) {
+		this.logParameters = logParameters;
+	}
+
+	/**
+	 * Returns the number of query executions exceeding the slow query threshold.
+	 * 
+	 * @return number of slow queries
+	 */
+	@ManagedAttribute(description = "Number of queries exceeding the slow query threshold")
+	public long getSlowQueryCount() {
+		return slowQueries.get();
+	}
+
+	/**
+	 * Records a successful query execution.
+	 * 
+	 * @param method the query method
+	 * @param region full path of the queried region
+	 * @param query the executed OQL
+	 * @param parameters the bind parameters
+	 * @param durationNanos execution duration, in nanoseconds
+	 * @param result the query method result
+	 */
+	public void queryExecuted(Method method, String region, String query, Object[] parameters, long durationNanos,
+			Object result) {
+
+		int results = resultCount(result);
+
+		if (metrics != null) {
+			metrics.recordOperation(region, operationName(method), durationNanos, results);
+		}
+
+		if (isSlow(durationNanos)) {
+			log.warn(String.format("Slow query method %s took %d ms returning %d results: %s with parameters %s",
+					operationName(method), TimeUnit.NANOSECONDS.toMillis(durationNanos), results, query,
+					describe(parameters)));
+		}
+	}
+
+	/**
+	 * Records a failed query execution.
+	 * 
+	 * @param method the query method
+	 * @param region full path of the queried region
+	 * @param query the executed OQL
+	 * @param parameters the bind parameters
+	 * @param durationNanos execution duration, in nanoseconds
+	 * @param error the exception thrown by the query
+	 */
+	public void queryFailed(Method method, String region, String query, Object[] parameters, long durationNanos,
+			Throwable error) {
+
+		if (metrics != null) {
+			metrics.recordError(region, operationName(method), durationNanos, error);
+		}
+
+		if (isSlow(durationNanos)) {
+			log.warn(String.format("Slow query method %s failed after %d ms: %s with parameters %s",
+					operationName(method), TimeUnit.NANOSECONDS.toMillis(durationNanos), query, describe(parameters)));
+		}
+	}
+
+	private boolean isSlow(long durationNanos) {
+
+		long threshold = slowQueryThreshold;
+
+		if (threshold >= 0 && durationNanos >= TimeUnit.MILLISECONDS.toNanos(threshold)) {
+			slowQueries.incrementAndGet();
+			return true;
+		}
+		return false;
+	}
+
+	private String describe(Object[] parameters) {
+
+		if (logParameters) {
+			return Arrays.deepToString(parameters);
+		}
+
+		String[] types = new String[parameters.length];
+		for (int i = 0; i < parameters.length; i++) {
+			types[i] = parameters[i] == null ? "null" : "<" + parameters[i].getClass().getSimpleName() + ">";
+		}
+		return Arrays.toString(types);
+	}
+
+	static String operationName(Method method) {
+		return method.getDeclaringClass().getSimpleName() + "." + method.getName();
+	}
+
+	static int resultCount(Object result) {
+
+		if (result == null) {
+			return 0;
+		}
+		if (result instanceof Collection) {
+			return ((Collection<?>) result).size();
+		}
+		if (result instanceof Page) {
+			return ((Page<?>) result).getNumberOfElements();
+		}
+		return 1;
+	}
+}
@@ -17,10 +17,13 @@ package org.springframework.data.gemfire.repository.query;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
@@ -28,16 +31,25 @@ import com.gemstone.gemfire.cache.Region;
 
 /**
  * Value object to work with OQL query strings.
+ * <p/>
+ * The query is parsed once, on creation, into a list of tokens: plain text and {@literal IN} parameters (such as
+ * {@literal IN SET $1}). The {@literal IN} parameters can then either be expanded into literals (see
+ * {@link #bindIn(Collection)}) or turned into plain bind parameters (see {@link #withInBindParameters()}) which keeps
+ * the query text independent of the actual values.
  * 
  * @author Oliver Gierke
  */
 class QueryString {
 
-	private static final String REGION_PATTERN = "(?<=\\/)%s";
-	private static final String IN_PARAMETER_PATTERN = "(?<=IN (SET|LIST) \\$)\\d";
-	private static final String IN_PATTERN = "(?<=IN (SET|LIST) )\\$\\d";
+	private static final Pattern IN_PATTERN = Pattern.compile("IN (SET|LIST) \\$(\\d+)");
+	private static final Pattern SELECT_PATTERN = Pattern.compile("^\\s*SELECT\\s+(DISTINCT\\s+)?.+?\\s+FROM\\s",
+			Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+	private static final Pattern ORDER_BY_PATTERN = Pattern.compile("\\s+ORDER\\s+BY\\s+", Pattern.CASE_INSENSITIVE);
+	private static final Pattern LIMIT_PATTERN = Pattern.compile("\\s+LIMIT\\s+(\\d+)\\s*$", Pattern.CASE_INSENSITIVE);
 
 	private final String query;
+	private final List<Object> tokens;
+	private final List<Integer> inParameterIndexes;
 
 	/**
 	 * Creates a {@link QueryString} from the given {@link String} query.
@@ -48,6 +60,27 @@ class QueryString {
 
 		Assert.hasText(source);
 		this.query = source;
+		this.tokens = new ArrayList<Object>();
+
+		List<Integer> indexes = new ArrayList<Integer>();
+		Matcher matcher = IN_PATTERN.matcher(source);
+		int start = 0;
+
+		while (matcher.find()) {
+			if (matcher.start() > start) {
+				tokens.add(source.substring(start, matcher.start()));
+			}
+			InParameter parameter = new InParameter(matcher.group(1), Integer.parseInt(matcher.group(2)));
+			tokens.add(parameter);
+			indexes.add(parameter.index);
+			start = matcher.end();
+		}
+
+		if (start < source.length()) {
+			tokens.add(source.substring(start));
+		}
+
+		this.inParameterIndexes = Collections.unmodifiableList(indexes);
 	}
 
 	/**
@@ -68,8 +101,28 @@ class QueryString {
 	 */
 	public QueryString forRegion(Class<?> domainClass, Region<?, ?> region) {
 
-		String pattern = String.format(REGION_PATTERN, domainClass.getSimpleName());
-		return new QueryString(query.replaceAll(pattern, region.getName()));
+		String name = domainClass.getSimpleName();
+		String regionName = region.getName();
+
+		StringBuilder result = new StringBuilder(query.length());
+		int start = 0;
+		int index;
+
+		while ((index = query.indexOf("/" + name, start)) >= 0) {
+			int end = index + name.length() + 1;
+			result.append(query, start, index + 1);
+			// only replace whole names
+			boolean partOfName = end < query.length() && Character.isJavaIdentifierPart(query.charAt(end));
+			result.append(partOfName ? name : regionName);
+			start = end;
+		}
+
+		if (start == 0) {
+			return this;
+		}
+
+		result.append(query, start, query.length());
+		return new QueryString(result.toString());
 	}
 
 	/**
@@ -86,25 +139,195 @@ class QueryString {
 		}
 
 		String valueString = StringUtils.collectionToDelimitedString(values, ", ", "'", "'");
-		return new QueryString(query.replaceFirst(IN_PATTERN, String.format("(%s)", valueString)));
+		StringBuilder result = new StringBuilder(query.length() + valueString.length());
+		boolean bound = false;
+
+		for (Object token : tokens) {
+			if (!bound && token instanceof InParameter) {
+				result.append("IN ").append(((InParameter) token).keyword).append(" (").append(valueString).append(")");
+				bound = true;
+			} else {
+				result.append(token);
+			}
+		}
+
+		return bound ? new QueryString(result.toString()) : this;
 	}
 
 	/**
-	 * Returns the parameter indexes used in this query.
+	 * Turns the {@literal IN} parameters (such as {@literal IN SET $1}) into plain bind parameters ({@literal IN $1}).
+	 * The values of the {@link #getInParameterIndexes() parameters} need to be passed as collections to the query
+	 * execution.
 	 * 
-	 * @return the parameter indexes used in this query or an empty {@link Iterable} if none are used.
+	 * @return the query using plain bind parameters, or the {@link QueryString} as is if it has no {@literal IN}
+	 *         parameters.
 	 */
-	public Iterable<Integer> getInParameterIndexes() {
+	public QueryString withInBindParameters() {
+
+		if (inParameterIndexes.isEmpty()) {
+			return this;
+		}
 
-		Pattern pattern = Pattern.compile(IN_PARAMETER_PATTERN);
-		Matcher matcher = pattern.matcher(query);
-		List<Integer> result = new ArrayList<Integer>();
+		StringBuilder result = new StringBuilder(query.length());
 
-		while (matcher.find()) {
-			result.add(Integer.parseInt(matcher.group()));
+		for (Object token : tokens) {
+			if (token instanceof InParameter) {
+				result.append("IN $").append(((InParameter) token).index);
+			} else {
+				result.append(token);
+			}
 		}
 
-		return result;
+		return new QueryString(result.toString());
+	}
+
+	/**
+	 * Adds an {@literal ORDER BY} clause for the given {@link Sort} to the query, appending to an already existing one.
+	 * As GemFire only supports ordering {@literal DISTINCT} results, the projection is turned into a
+	 * {@literal SELECT DISTINCT} one if necessary - which merges the results that are equal, such as equal entities
+	 * stored under different keys.
+	 * 
+	 * @param sort can be {@literal null}.
+	 * @return
+	 */
+	public QueryString orderBy(Sort sort) {
+		return orderBy(sort, null);
+	}
+
+	/**
+	 * Adds an {@literal ORDER BY} clause for the given {@link Sort} to the query, qualifying the properties with the
+	 * given alias.
+	 * 
+	 * @param sort can be {@literal null}.
+	 * @param alias can be {@literal null}.
+	 * @return
+	 * @see #orderBy(Sort)
+	 */
+	public QueryString orderBy(Sort sort, String alias) {
+
+		if (sort == null || !sort.iterator().hasNext()) {
+			return this;
+		}
+
+		StringBuilder orders = new StringBuilder();
+
+		for (Order order : sort) {
+			if (orders.length() > 0) {
+				orders.append(", ");
+			}
+			if (StringUtils.hasText(alias)) {
+				orders.append(alias).append('.');
+			}
+			orders.append(order.getProperty()).append(' ').append(order.getDirection().name());
+		}
+
+		Matcher select = SELECT_PATTERN.matcher(query);
+		Assert.isTrue(select.find(), "Only SELECT queries can be sorted: " + query);
+
+		StringBuilder result = new StringBuilder(query.length() + orders.length() + 20);
+
+		if (select.group(1) == null) {
+			int projection = query.toUpperCase().indexOf("SELECT") + "SELECT".length();
+			result.append(query, 0, projection).append(" DISTINCT").append(query, projection, query.length());
+		} else {
+			result.append(query);
+		}
+
+		Matcher limit = LIMIT_PATTERN.matcher(result);
+		int end = limit.find() ? limit.start() : result.length();
+		result.insert(end, (ORDER_BY_PATTERN.matcher(result).find() ? ", " : " ORDER BY ") + orders);
+
+		return new QueryString(result.toString());
+	}
+
+	/**
+	 * Returns whether the query has an {@literal ORDER BY} clause.
+	 * 
+	 * @return
+	 */
+	public boolean isOrdered() {
+		return ORDER_BY_PATTERN.matcher(query).find();
+	}
+
+	/**
+	 * Restricts the query to the given number of results. An already existing {@literal LIMIT} is only replaced if it
+	 * is larger than the given one.
+	 * 
+	 * @param limit must be greater than zero.
+	 * @return
+	 */
+	public QueryString limit(int limit) {
+
+		Assert.isTrue(limit > 0, "Limit must be greater than zero");
+
+		Matcher matcher = LIMIT_PATTERN.matcher(query);
+
+		if (!matcher.find()) {
+			return new QueryString(query + " LIMIT " + limit);
+		}
+
+		if (Integer.parseInt(matcher.group(1)) <= limit) {
+			return this;
+		}
+
+		return new QueryString(query.substring(0, matcher.start()) + " LIMIT " + limit);
+	}
+
+	/**
+	 * Returns the number of results the {@literal LIMIT} clause of the query restricts it to.
+	 * 
+	 * @return the limit or {@literal -1} if the query has no {@literal LIMIT} clause.
+	 */
+	public int getLimit() {
+
+		Matcher matcher = LIMIT_PATTERN.matcher(query);
+		return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+	}
+
+	/**
+	 * Returns the query without its {@literal LIMIT} clause.
+	 * 
+	 * @return
+	 */
+	public QueryString withoutLimit() {
+
+		Matcher matcher = LIMIT_PATTERN.matcher(query);
+		return matcher.find() ? new QueryString(query.substring(0, matcher.start())) : this;
+	}
+
+	/**
+	 * Returns a {@literal SELECT COUNT(*)} query over the results of the current one, that is without its projection,
+	 * ordering and limit.
+	 * 
+	 * @return
+	 */
+	public QueryString asCountQuery() {
+
+		Matcher select = SELECT_PATTERN.matcher(query);
+		Assert.isTrue(select.find(), "Only SELECT queries can be counted: " + query);
+
+		String result = "SELECT COUNT(*) FROM " + query.substring(select.end());
+
+		Matcher orderBy = ORDER_BY_PATTERN.matcher(result);
+		if (orderBy.find()) {
+			result = result.substring(0, orderBy.start());
+		} else {
+			Matcher limit = LIMIT_PATTERN.matcher(result);
+			if (limit.find()) {
+				result = result.substring(0, limit.start());
+			}
+		}
+
+		return new QueryString(result);
+	}
+
+	/**
+	 * Returns the parameter indexes used in this query.
+	 * 
+	 * @return the parameter indexes used in this query or an empty {@link Iterable} if none are used.
+	 */
+	public Iterable<Integer> getInParameterIndexes() {
+		return inParameterIndexes;
 	}
 
 	/*
@@ -115,4 +338,23 @@ class QueryString {
 	public String toString() {
 		return query;
 	}
+
+	/**
+	 * Token for an {@literal IN SET $n} or {@literal IN LIST $n} parameter.
+	 */
+	private static class InParameter {
+
+		private final String keyword;
+		private final int index;
+
+		InParameter(String keyword, int index) {
+			this.keyword = keyword;
+			this.index = index;
+		}
+
+		@Override
+		public String toString() {
+			return "IN " + keyword + " $" + index;
+		}
+	}
 }
@@ -15,26 +15,51 @@
  */
 package org.springframework.data.gemfire.repository.query;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.gemfire.GemfireTemplate;
 import org.springframework.data.repository.query.ParametersParameterAccessor;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
+import com.gemstone.gemfire.cache.query.SelectResults;
+
 /**
  * {@link GemfireRepositoryQuery} using plain {@link String} based OQL queries.
+ * <p/>
+ * {@link Sort} and {@link Pageable} method parameters are turned into {@literal ORDER BY} and {@literal LIMIT}
+ * clauses, so that sorting and the bounding of the results happen on the server. Unless the query is ordered already, a
+ * {@link Pageable} without {@link Sort} orders the results by the id property, so that the pages are consistent. Results of query methods returning
+ * a {@link Projection} are converted accordingly.
  * 
  * @author Oliver Gierke
  */
 public class StringBasedGemfireRepositoryQuery extends GemfireRepositoryQuery {
 
+	private static final Object UNSORTED = new Object();
+
 	private final QueryString query;
+	private final String bindableQuery;
+	private final String countQuery;
+	private final boolean dynamicSort;
+	private final boolean ordered;
+	private final Projection projection;
+	private final String regionPath;
+	private QueryMonitor monitor;
+	private final int[] inParameterIndexes;
 	private final GemfireQueryMethod method;
 	private final GemfireTemplate template;
+	private final ConcurrentMap<Object, SortedQuery> sortedQueries = new ConcurrentHashMap<Object, SortedQuery>();
 
 	/**
 	 * Creates a new {@link StringBasedGemfireRepositoryQuery} using the given {@link GemfireQueryMethod} and
@@ -57,12 +82,50 @@ public class StringBasedGemfireRepositoryQuery extends GemfireRepositoryQuery {
 	 * @param template must not be {@literal null}.
 	 */
 	public StringBasedGemfireRepositoryQuery(String query, GemfireQueryMethod method, GemfireTemplate template) {
+		this(query, method, template, true, method.getDeclaredProjection());
+	}
+
+	/**
+	 * Creates a new {@link StringBasedGemfireRepositoryQuery}.
+	 * 
+	 * @param query will fall back to the query annotated to the given {@link GemfireQueryMethod} if {@literal null} is
+	 *          given.
+	 * @param method must not be {@literal null}.
+	 * @param template must not be {@literal null}.
+	 * @param dynamicSort whether to apply the {@link Sort} handed to the query method; {@literal false} for queries that
+	 *          are already sorted accordingly.
+	 * @param projection the {@link Projection} the results are turned into, can be {@literal null}.
+	 */
+	StringBasedGemfireRepositoryQuery(String query, GemfireQueryMethod method, GemfireTemplate template,
+			boolean dynamicSort, Projection projection) {
 
 		super(method);
 
 		Assert.notNull(template);
 
-		this.query = new QueryString(StringUtils.hasText(query) ? query : method.getAnnotatedQuery());
+		// the region is fixed, so resolve it once
+		QueryString queryString = new QueryString(StringUtils.hasText(query) ? query : method.getAnnotatedQuery());
+		queryString = queryString.forRegion(method.getEntityInformation().getJavaType(), template.getRegion());
+
+		// IN parameters are bound as collections, keeping the OQL (and its compiled form) the same across invocations
+		this.query = queryString;
+		this.bindableQuery = queryString.withInBindParameters().toString();
+		this.countQuery = method.isPageQuery() ? queryString.asCountQuery().withInBindParameters().toString() : null;
+		this.dynamicSort = dynamicSort
+				&& (method.getParameters().hasSortParameter() || method.getParameters().hasPageableParameter());
+		this.ordered = queryString.isOrdered();
+
+		List<Integer> indexes = new ArrayList<Integer>();
+		for (Integer index : queryString.getInParameterIndexes()) {
+			indexes.add(index - 1);
+		}
+		this.inParameterIndexes = new int[indexes.size()];
+		for (int i = 0; i < inParameterIndexes.length; i++) {
+			inParameterIndexes[i] = indexes.get(i);
+		}
+
+		this.projection = projection;
+		this.regionPath = template.getRegion().getFullPath();
 		this.method = method;
 		this.template = template;
 	}
@@ -75,14 +138,117 @@ public class StringBasedGemfireRepositoryQuery extends GemfireRepositoryQuery {
 	public Object execute(Object[] parameters) {
 
 		ParametersParameterAccessor accessor = new ParametersParameterAccessor(method.getParameters(), parameters);
-		QueryString query = this.query.forRegion(method.getEntityInformation().getJavaType(), template.getRegion());
+		Object[] values = new Object[method.getParameters().getBindableParameters().getNumberOfParameters()];
+
+		for (int i = 0; i < values.length; i++) {
+			values[i] = accessor.getBindableValue(i);
+		}
 
-		Iterator<Integer> indexes = query.getInParameterIndexes().iterator();
-		while (indexes.hasNext()) {
-			query = query.bindIn(toCollection(accessor.getBindableValue(indexes.next() - 1)));
+		for (int index : inParameterIndexes) {
+			values[index] = toCollection(values[index]);
 		}
 
-		return template.find(query.toString(), parameters);
+		Pageable pageable = accessor.getPageable();
+		Sort sort = dynamicSort ? accessor.getSort() : null;
+
+		if (dynamicSort && pageable != null && sort == null && !ordered) {
+			sort = method.getDefaultPagingSort();
+		}
+
+		String oql;
+
+		if (pageable == null && sort == null) {
+			oql = bindableQuery;
+		} else {
+			SortedQuery sorted = getSortedQuery(sort);
+			// OQL has no offset, so the results of the previous pages are part of the LIMIT and skipped on the client
+			oql = pageable == null ? sorted.toString() : sorted.limit(pageable.getOffset() + pageable.getPageSize());
+		}
+
+		if (monitor == null) {
+			return execute(oql, values, sort, pageable);
+		}
+
+		long start = System.nanoTime();
+
+		try {
+			Object result = execute(oql, values, sort, pageable);
+			monitor.queryExecuted(method.getJavaMethod(), regionPath, oql, values, System.nanoTime() - start, result);
+			return result;
+		} catch (RuntimeException ex) {
+			monitor.queryFailed(method.getJavaMethod(), regionPath, oql, values, System.nanoTime() - start, ex);
+			throw ex;
+		}
+	}
+
+	private Object execute(String oql, Object[] values, Sort sort, Pageable pageable) {
+
+		if (pageable == null && sort == null) {
+
+			SelectResults<Object> results = template.find(oql, values);
+
+			if (method.isPageQuery()) {
+				return new PageImpl<Object>(project(results.asList()));
+			}
+
+			return projection == null ? results : projection.project(results);
+		}
+
+		List<Object> results = template.find(oql, values).asList();
+
+		if (pageable == null) {
+			return project(results);
+		}
+
+		List<Object> content = results.size() > pageable.getOffset() ? project(results.subList(pageable.getOffset(),
+				results.size())) : Collections.<Object> emptyList();
+
+		if (!method.isPageQuery()) {
+			return content;
+		}
+
+		// a result below the limit tells the total already
+		int limit = pageable.getOffset() + pageable.getPageSize();
+		long total = results.size() < limit ? results.size() : count(values);
+		return new PageImpl<Object>(content, pageable, total);
+	}
+
+	/**
+	 * Configures the {@link QueryMonitor} recording the executions of the query.
+	 * 
+	 * @param monitor can be {@literal null}.
+	 */
+	public void setQueryMonitor(QueryMonitor monitor) {
+		this.monitor = monitor;
+	}
+
+	/**
+	 * Returns the query rendered for the given {@link Sort}, computing it on first use.
+	 */
+	private SortedQuery getSortedQuery(Sort sort) {
+
+		Object key = sort == null ? UNSORTED : sort;
+		SortedQuery result = sortedQueries.get(key);
+
+		if (result == null) {
+			result = new SortedQuery(query.orderBy(sort).withInBindParameters());
+			// don't let arbitrary sort combinations grow the cache unbounded
+			if (sortedQueries.size() < PartTreeGemfireRepositoryQuery.MAX_SORTED_QUERIES) {
+				sortedQueries.putIfAbsent(key, result);
+			}
+		}
+
+		return result;
+	}
+
+	private List<Object> project(List<Object> results) {
+		return projection == null ? new ArrayList<Object>(results) : projection.project(results);
+	}
+
+	private long count(Object[] values) {
+
+		Iterator<Object> result = template.find(countQuery, values).iterator();
+		return result.hasNext() ? ((Number) result.next()).longValue() : 0;
 	}
 
 	/**
@@ -94,10 +260,39 @@ public class StringBasedGemfireRepositoryQuery extends GemfireRepositoryQuery {
 	 */
 	private Collection<?> toCollection(Object source) {
 
-		if (source instanceof Collection) {
+		if (source == null || source instanceof Collection) {
 			return (Collection<?>) source;
 		}
 
 		return source.getClass().isArray() ? CollectionUtils.arrayToList(source) : Collections.singleton(source);
 	}
+
+	/**
+	 * OQL rendered for a {@link Sort}, split from its {@literal LIMIT} clause (if any) so that paged executions only
+	 * append theirs.
+	 */
+	private static class SortedQuery {
+
+		private final String query;
+		private final String withoutLimit;
+		private final int limit;
+
+		SortedQuery(QueryString query) {
+			this.query = query.toString();
+			this.withoutLimit = query.withoutLimit().toString();
+			this.limit = query.getLimit();
+		}
+
+		/**
+		 * Returns the query restricted to the given number of results (or less, if the query limits them further).
+		 */
+		String limit(int limit) {
+			return withoutLimit + " LIMIT " + (this.limit < 0 ? limit : Math.min(limit, this.limit));
+		}
+
+		@Override
+		public String toString() {
+			return query;
+		}
+	}
 }
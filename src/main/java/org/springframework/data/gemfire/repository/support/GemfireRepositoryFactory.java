@@ -17,6 +17,8 @@ package org.springframework.data.gemfire.repository.support;
 
 import java.io.Serializable;
 import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 import org.springframework.data.gemfire.GemfireTemplate;
 import org.springframework.data.gemfire.mapping.GemfireMappingContext;
@@ -26,7 +28,11 @@ import org.springframework.data.gemfire.mapping.Regions;
 import org.springframework.data.gemfire.repository.query.DefaultGemfireEntityInformation;
 import org.springframework.data.gemfire.repository.query.GemfireEntityInformation;
 import org.springframework.data.gemfire.repository.query.GemfireQueryMethod;
+import org.springframework.data.gemfire.repository.query.IndexCoverage;
+import org.springframework.data.gemfire.repository.query.MissingIndexPolicy;
 import org.springframework.data.gemfire.repository.query.PartTreeGemfireRepositoryQuery;
+import org.springframework.data.gemfire.repository.query.QueryIndexChecker;
+import org.springframework.data.gemfire.repository.query.QueryMonitor;
 import org.springframework.data.gemfire.repository.query.StringBasedGemfireRepositoryQuery;
 import org.springframework.data.mapping.context.MappingContext;
 import org.springframework.data.repository.core.NamedQueries;
@@ -48,6 +54,11 @@ public class GemfireRepositoryFactory extends RepositoryFactorySupport {
 
 	private final MappingContext<? extends GemfirePersistentEntity<?>, GemfirePersistentProperty> context;
 	private final Regions regions;
+	private QueryIndexChecker indexChecker = new QueryIndexChecker(MissingIndexPolicy.WARN);
+	private QueryMonitor queryMonitor;
+	private int bulkChunkSize = 0;
+	private Executor bulkExecutor;
+	private boolean useRemoveAllFunction = false;
 
 	/**
 	 * Creates a new {@link GemfireRepositoryFactory}.
@@ -64,6 +75,69 @@ public class GemfireRepositoryFactory extends RepositoryFactorySupport {
 		this.regions = new Regions(regions, this.context);
 	}
 
+	/**
+	 * Configures what happens when a derived query filters on properties not covered by an index of the queried region.
+	 * Defaults to {@link MissingIndexPolicy#WARN}.
+	 * 
+	 * @param policy must not be {@literal null}.
+	 */
+	public void setMissingIndexPolicy(MissingIndexPolicy policy) {
+		this.indexChecker = new QueryIndexChecker(policy);
+	}
+
+	/**
+	 * Configures the {@link QueryMonitor} recording the executions of the query methods.
+	 * 
+	 * @param queryMonitor can be {@literal null}.
+	 */
+	public void setQueryMonitor(QueryMonitor queryMonitor) {
+		this.queryMonitor = queryMonitor;
+	}
+
+	/**
+	 * Configures the maximum number of entities the repositories save or fetch per bulk call; larger
+	 * {@code save(Iterable)} and {@code findAll(Iterable)} calls are split into chunks executed concurrently. Defaults to
+	 * 0 (no chunking).
+	 * 
+	 * @param bulkChunkSize the chunk size.
+	 * @see GemfireTemplate#setBulkChunkSize(int)
+	 */
+	public void setBulkChunkSize(int bulkChunkSize) {
+		this.bulkChunkSize = bulkChunkSize;
+	}
+
+	/**
+	 * Configures the executor running the bulk chunks of all repositories. Required when a bulk chunk size is set, as
+	 * the repository templates are not managed beans and thus could not release internal pools.
+	 * 
+	 * @param bulkExecutor can be {@literal null}.
+	 * @see GemfireTemplate#setBulkExecutor(Executor)
+	 */
+	public void setBulkExecutor(Executor bulkExecutor) {
+		this.bulkExecutor = bulkExecutor;
+	}
+
+	/**
+	 * Configures whether {@code delete(Iterable)} removes the entities through the
+	 * {@link org.springframework.data.gemfire.function.RemoveAllFunction}, which needs to be registered on the members
+	 * hosting the data. Defaults to {@literal false}.
+	 * 
+	 * @param useRemoveAllFunction whether to remove the entities through a function execution.
+	 * @see GemfireTemplate#setUseRemoveAllFunction(boolean)
+	 */
+	public void setUseRemoveAllFunction(boolean useRemoveAllFunction) {
+		this.useRemoveAllFunction = useRemoveAllFunction;
+	}
+
+	/**
+	 * Returns the index coverage of the derived query methods resolved so far.
+	 * 
+	 * @return the index coverage per query method.
+	 */
+	public List<IndexCoverage> getIndexCoverage() {
+		return indexChecker.getCoverage();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.springframework.data.repository.core.support.RepositoryFactorySupport#getEntityInformation(java.lang.Class)
@@ -84,13 +158,27 @@ public class GemfireRepositoryFactory extends RepositoryFactorySupport {
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	protected Object getTargetRepository(RepositoryMetadata metadata) {
 
+		Assert.isTrue(bulkChunkSize <= 0 || bulkExecutor != null, "A bulk executor is required for chunking bulk calls");
+
 		GemfireEntityInformation<?, Serializable> entityInformation = getEntityInformation(metadata.getDomainType());
-		GemfireTemplate gemfireTemplate = getTemplate(metadata);
 
-		return new SimpleGemfireRepository(gemfireTemplate, entityInformation);
+		// query methods don't use bulk operations, so only the repository template is configured for them
+		GemfireTemplate gemfireTemplate = new GemfireTemplate();
+		gemfireTemplate.setRegion(getRegion(metadata));
+		gemfireTemplate.setUseRemoveAllFunction(useRemoveAllFunction);
+		gemfireTemplate.setBulkChunkSize(bulkChunkSize);
+		gemfireTemplate.setBulkExecutor(bulkExecutor);
+		gemfireTemplate.afterPropertiesSet();
+
+		return new SimpleGemfireRepository(gemfireTemplate, entityInformation, context.getPersistentEntity(metadata
+				.getDomainType()));
 	}
 
 	private GemfireTemplate getTemplate(RepositoryMetadata metadata) {
+		return new GemfireTemplate(getRegion(metadata));
+	}
+
+	private Region<?, ?> getRegion(RepositoryMetadata metadata) {
 
 		Class<?> domainClass = metadata.getDomainType();
 		GemfirePersistentEntity<?> entity = context.getPersistentEntity(domainClass);
@@ -111,7 +199,7 @@ public class GemfireRepositoryFactory extends RepositoryFactorySupport {
 					regionKeyType, entityIdType));
 		}
 
-		return new GemfireTemplate(region);
+		return region;
 	}
 
 	/*
@@ -137,15 +225,23 @@ public class GemfireRepositoryFactory extends RepositoryFactorySupport {
 				GemfireTemplate template = getTemplate(metadata);
 
 				if (queryMethod.hasAnnotatedQuery()) {
-					return new StringBasedGemfireRepositoryQuery(queryMethod, template);
+					StringBasedGemfireRepositoryQuery query = new StringBasedGemfireRepositoryQuery(queryMethod, template);
+					query.setQueryMonitor(queryMonitor);
+					return query;
 				}
 
 				String namedQueryName = queryMethod.getNamedQueryName();
 				if (namedQueries.hasQuery(namedQueryName)) {
-					return new StringBasedGemfireRepositoryQuery(namedQueries.getQuery(namedQueryName), queryMethod, template);
+					StringBasedGemfireRepositoryQuery query = new StringBasedGemfireRepositoryQuery(
+							namedQueries.getQuery(namedQueryName), queryMethod, template);
+					query.setQueryMonitor(queryMonitor);
+					return query;
 				}
 
-				return new PartTreeGemfireRepositoryQuery(queryMethod, template);
+				indexChecker.check(queryMethod, template.getRegion());
+				PartTreeGemfireRepositoryQuery query = new PartTreeGemfireRepositoryQuery(queryMethod, template);
+				query.setQueryMonitor(queryMonitor);
+				return query;
 			}
 		};
 	}
@@ -17,20 +17,31 @@ package org.springframework.data.gemfire.repository.support;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.data.gemfire.mapping.GemfirePersistentEntity;
 import org.springframework.data.gemfire.mapping.GemfirePersistentProperty;
+import org.springframework.data.gemfire.repository.query.IndexCoverage;
+import org.springframework.data.gemfire.repository.query.MissingIndexPolicy;
+import org.springframework.data.gemfire.repository.query.QueryMonitor;
 import org.springframework.data.mapping.context.MappingContext;
 import org.springframework.data.repository.Repository;
 import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
 import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+import org.springframework.util.CustomizableThreadCreator;
 
 import com.gemstone.bp.edu.emory.mathcs.backport.java.util.Collections;
 import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.cache.query.Index;
 
 /**
  * {@link FactoryBean} adapter for {@link GemfireRepositoryFactory}.
@@ -38,10 +49,19 @@ import com.gemstone.gemfire.cache.Region;
  * @author Oliver Gierke
  */
 public class GemfireRepositoryFactoryBean<T extends Repository<S, ID>, S, ID extends Serializable> extends
-RepositoryFactoryBeanSupport<T, S, ID> implements ApplicationContextAware {
+RepositoryFactoryBeanSupport<T, S, ID> implements ApplicationContextAware, DisposableBean {
+
+	private static final int BULK_CONCURRENCY = 4;
 
 	private MappingContext<? extends GemfirePersistentEntity<?>, GemfirePersistentProperty> context;
 	private Iterable<Region<?, ?>> regions;
+	private MissingIndexPolicy missingIndexPolicy = MissingIndexPolicy.WARN;
+	private QueryMonitor queryMonitor;
+	private int bulkChunkSize = 0;
+	private Executor bulkExecutor;
+	private boolean useRemoveAllFunction = false;
+	private ExecutorService internalBulkExecutor;
+	private GemfireRepositoryFactory factory;
 
 	/*
 	 * (non-Javadoc)
@@ -52,6 +72,11 @@ RepositoryFactoryBeanSupport<T, S, ID> implements ApplicationContextAware {
 	public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
 		Collection<Region> regions = applicationContext.getBeansOfType(Region.class).values();
 		this.regions = Collections.unmodifiableCollection(regions);
+
+		if (missingIndexPolicy != MissingIndexPolicy.IGNORE) {
+			// make sure the declared indexes exist before the query methods get checked against them
+			applicationContext.getBeansOfType(Index.class);
+		}
 	}
 
 	/**
@@ -63,12 +88,106 @@ RepositoryFactoryBeanSupport<T, S, ID> implements ApplicationContextAware {
 		this.context = context;
 	}
 
+	/**
+	 * Configures what happens when a derived query filters on properties not covered by an index of the queried region.
+	 * Defaults to {@link MissingIndexPolicy#WARN}.
+	 * 
+	 * @param missingIndexPolicy the policy to set
+	 */
+	public void setMissingIndexPolicy(MissingIndexPolicy missingIndexPolicy) {
+		this.missingIndexPolicy = missingIndexPolicy;
+	}
+
+	/**
+	 * Configures the {@link QueryMonitor} recording the executions of the query methods (such as their latency) and
+	 * logging the slow ones.
+	 * 
+	 * @param queryMonitor the monitor to set
+	 */
+	public void setQueryMonitor(QueryMonitor queryMonitor) {
+		this.queryMonitor = queryMonitor;
+	}
+
+	/**
+	 * Configures the maximum number of entities the repository saves or fetches per bulk call. Defaults to 0 (no
+	 * chunking).
+	 * 
+	 * @param bulkChunkSize the chunk size
+	 * @see GemfireRepositoryFactory#setBulkChunkSize(int)
+	 */
+	public void setBulkChunkSize(int bulkChunkSize) {
+		this.bulkChunkSize = bulkChunkSize;
+	}
+
+	/**
+	 * Configures the executor running the bulk chunks of the repository. If not set, a pool of 4 threads is created
+	 * once a bulk chunk size is set, and shut down with this factory bean.
+	 * 
+	 * @param bulkExecutor the executor to set
+	 * @see GemfireRepositoryFactory#setBulkExecutor(Executor)
+	 */
+	public void setBulkExecutor(Executor bulkExecutor) {
+		this.bulkExecutor = bulkExecutor;
+	}
+
+	/**
+	 * Configures whether the repository removes entities in bulk through a function execution.
+	 * 
+	 * @param useRemoveAllFunction whether to use the function
+	 * @see GemfireRepositoryFactory#setUseRemoveAllFunction(boolean)
+	 */
+	public void setUseRemoveAllFunction(boolean useRemoveAllFunction) {
+		this.useRemoveAllFunction = useRemoveAllFunction;
+	}
+
+	/**
+	 * Returns the index coverage of the derived query methods of the repository.
+	 * 
+	 * @return the index coverage per query method.
+	 */
+	public List<IndexCoverage> getIndexCoverage() {
+		return factory == null ? java.util.Collections.<IndexCoverage> emptyList() : factory.getIndexCoverage();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport#createRepositoryFactory()
 	 */
 	@Override
 	protected RepositoryFactorySupport createRepositoryFactory() {
-		return new GemfireRepositoryFactory(regions, context);
+
+		factory = new GemfireRepositoryFactory(regions, context);
+		factory.setMissingIndexPolicy(missingIndexPolicy);
+		factory.setQueryMonitor(queryMonitor);
+		factory.setBulkChunkSize(bulkChunkSize);
+		factory.setBulkExecutor(bulkExecutor != null || bulkChunkSize <= 0 ? bulkExecutor : createBulkExecutor());
+		factory.setUseRemoveAllFunction(useRemoveAllFunction);
+		return factory;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.beans.factory.DisposableBean#destroy()
+	 */
+	public void destroy() {
+		if (internalBulkExecutor != null) {
+			internalBulkExecutor.shutdown();
+			internalBulkExecutor = null;
+		}
+	}
+
+	private Executor createBulkExecutor() {
+
+		if (internalBulkExecutor == null) {
+			final CustomizableThreadCreator threadCreator = new CustomizableThreadCreator("GemfireRepository-bulk-");
+			threadCreator.setDaemon(true);
+
+			internalBulkExecutor = Executors.newFixedThreadPool(BULK_CONCURRENCY, new ThreadFactory() {
+				public Thread newThread(Runnable runnable) {
+					return threadCreator.createThread(runnable);
+				}
+			});
+		}
+		return internalBulkExecutor;
 	}
 }
@@ -3,18 +3,33 @@ package org.springframework.data.gemfire.repository.support;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
 import org.springframework.data.gemfire.GemfireCallback;
 import org.springframework.data.gemfire.GemfireTemplate;
+import org.springframework.data.gemfire.PagedRegionIterator;
+import org.springframework.data.gemfire.mapping.GemfireMappingContext;
+import org.springframework.data.gemfire.mapping.GemfirePersistentEntity;
 import org.springframework.data.gemfire.repository.GemfireRepository;
 import org.springframework.data.gemfire.repository.Wrapper;
+import org.springframework.data.gemfire.repository.query.Criteria;
 import org.springframework.data.repository.core.EntityInformation;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 
 import com.gemstone.gemfire.GemFireCheckedException;
 import com.gemstone.gemfire.GemFireException;
 import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.cache.query.SelectResults;
+import com.gemstone.gemfire.cache.query.Struct;
 
 /**
  * Basic repository implementation.
@@ -25,6 +40,7 @@ public class SimpleGemfireRepository<T, ID extends Serializable> implements Gemf
 
 	private final GemfireTemplate template;
 	private final EntityInformation<T, ID> entityInformation;
+	private final GemfirePersistentEntity<?> entity;
 
 	/**
 	 * Creates a new {@link SimpleGemfireRepository}.
@@ -33,12 +49,27 @@ public class SimpleGemfireRepository<T, ID extends Serializable> implements Gemf
 	 * @param entityInformation must not be {@literal null}.
 	 */
 	public SimpleGemfireRepository(GemfireTemplate template, EntityInformation<T, ID> entityInformation) {
+		this(template, entityInformation, null);
+	}
+
+	/**
+	 * Creates a new {@link SimpleGemfireRepository} using the given {@link GemfirePersistentEntity} for resolving the
+	 * properties of the entities.
+	 * 
+	 * @param template must not be {@literal null}.
+	 * @param entityInformation must not be {@literal null}.
+	 * @param entity can be {@literal null}, in which case a new {@link GemfireMappingContext} is used.
+	 */
+	public SimpleGemfireRepository(GemfireTemplate template, EntityInformation<T, ID> entityInformation,
+			GemfirePersistentEntity<?> entity) {
 
 		Assert.notNull(template);
 		Assert.notNull(entityInformation);
 
 		this.template = template;
 		this.entityInformation = entityInformation;
+		this.entity = entity == null ? new GemfireMappingContext().getPersistentEntity(entityInformation.getJavaType())
+				: entity;
 	}
 
 	/*
@@ -55,10 +86,17 @@ public class SimpleGemfireRepository<T, ID extends Serializable> implements Gemf
 	 * @see org.springframework.data.repository.CrudRepository#save(java.lang.Iterable)
 	 */
 	public <U extends T> Iterable<U> save(Iterable<U> entities) {
+
 		List<U> result = new ArrayList<U>();
+		Map<ID, U> entries = new LinkedHashMap<ID, U>();
+
 		for (U entity : entities) {
-			result.add(save(entity));
+			result.add(entity);
+			entries.put(entityInformation.getId(entity), entity);
 		}
+
+		// a single (possibly chunked) putAll instead of one round trip per entity
+		template.putAll(entries);
 		return result;
 	}
 
@@ -77,7 +115,8 @@ public class SimpleGemfireRepository<T, ID extends Serializable> implements Gemf
 	 * @see org.springframework.data.repository.CrudRepository#exists(java.io.Serializable)
 	 */
 	public boolean exists(ID id) {
-		return findOne(id) != null;
+		// checks the key only, without transferring the value
+		return isClientRegion(template.getRegion()) ? template.containsKeyOnServer(id) : template.containsKey(id);
 	}
 
 	/*
@@ -101,12 +140,103 @@ public class SimpleGemfireRepository<T, ID extends Serializable> implements Gemf
 	@SuppressWarnings("unchecked")
 	public Collection<T> findAll(Iterable<ID> ids) {
 
-		List<ID> parameters = new ArrayList<ID>();
-		for (ID id : ids) {
-			parameters.add(id);
+		Collection<?> keys = ids instanceof Collection ? (Collection<?>) ids : toList(ids);
+		return (Collection<T>) template.getAll(keys).values();
+	}
+
+	/* 
+	 * (non-Javadoc)
+	 * @see org.springframework.data.gemfire.repository.GemfireRepository#findAllStreaming(int)
+	 */
+	@Override
+	public PagedRegionIterator<T> findAllStreaming(int batchSize) {
+		return template.stream(null, batchSize);
+	}
+
+	/* 
+	 * (non-Javadoc)
+	 * @see org.springframework.data.gemfire.repository.GemfireRepository#findAll(org.springframework.data.gemfire.repository.query.Criteria)
+	 */
+	@Override
+	public List<T> findAll(Criteria criteria) {
+
+		Assert.notNull(criteria, "Criteria must not be null");
+		return template.<T> find(criteria.toQuery(template.getRegion().getFullPath()), criteria.getParameters()).asList();
+	}
+
+	/* 
+	 * (non-Javadoc)
+	 * @see org.springframework.data.gemfire.repository.GemfireRepository#findByExample(java.lang.Object)
+	 */
+	@Override
+	public List<T> findByExample(T example) {
+		return findAll(Criteria.byExample(example, entity));
+	}
+
+	/* 
+	 * (non-Javadoc)
+	 * @see org.springframework.data.repository.PagingAndSortingRepository#findAll(org.springframework.data.domain.Sort)
+	 */
+	@Override
+	public List<T> findAll(Sort sort) {
+		return findAllOrdered(sort, -1);
+	}
+
+	/* 
+	 * (non-Javadoc)
+	 * @see org.springframework.data.repository.PagingAndSortingRepository#findAll(org.springframework.data.domain.Pageable)
+	 */
+	@Override
+	public Page<T> findAll(Pageable pageable) {
+
+		// OQL has no offset, so the entries of the previous pages are part of the LIMIT and skipped on the client
+		int limit = pageable.getOffset() + pageable.getPageSize();
+		List<T> results = findAllOrdered(pageable.getSort(), limit);
+
+		List<T> content = results.size() > pageable.getOffset() ? new ArrayList<T>(results.subList(
+				pageable.getOffset(), results.size())) : Collections.<T> emptyList();
+
+		return new PageImpl<T>(content, pageable, results.size() < limit ? results.size() : count());
+	}
+
+	/**
+	 * Returns the entities of the region in the given order, then in the order of their keys, so that consecutive
+	 * pages neither overlap nor miss entities. As GemFire only orders {@literal DISTINCT} results, the entries are
+	 * selected (rather than the values only) so that equal entities stored under different keys are not merged.
+	 * 
+	 * @param sort can be {@literal null}.
+	 * @param limit the maximum number of entities to return, or {@literal -1} for all of them.
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	private List<T> findAllOrdered(Sort sort, int limit) {
+
+		StringBuilder projection = new StringBuilder("e.key, e.value");
+		StringBuilder orders = new StringBuilder();
+
+		if (sort != null) {
+			for (Order order : sort) {
+				String property = "e.value." + order.getProperty();
+				// ordered DISTINCT queries need the ordered expressions to be projected as well
+				projection.append(", ").append(property);
+				orders.append(property).append(' ').append(order.getDirection().name()).append(", ");
+			}
+		}
+
+		StringBuilder query = new StringBuilder("SELECT DISTINCT ").append(projection).append(" FROM ")
+				.append(template.getRegion().getFullPath()).append(".entries e ORDER BY ").append(orders).append("e.key");
+
+		if (limit > 0) {
+			query.append(" LIMIT ").append(limit);
 		}
 
-		return (Collection<T>) template.getAll(parameters).values();
+		SelectResults<Struct> entries = template.find(query.toString());
+
+		List<T> result = new ArrayList<T>(entries.size());
+		for (Struct entry : entries) {
+			result.add((T) entry.getFieldValues()[1]);
+		}
+		return result;
 	}
 
 	/*
@@ -117,7 +247,8 @@ public class SimpleGemfireRepository<T, ID extends Serializable> implements Gemf
 		return template.execute(new GemfireCallback<Long>() {
 			@SuppressWarnings("rawtypes")
 			public Long doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
-				return Long.valueOf(region.keySet().size());
+				// client regions hold (at most) a subset of the entries, so ask the server instead
+				return Long.valueOf(isClientRegion(region) ? region.sizeOnServer() : region.size());
 			}
 		});
 	}
@@ -135,9 +266,13 @@ public class SimpleGemfireRepository<T, ID extends Serializable> implements Gemf
 	 * @see org.springframework.data.repository.CrudRepository#delete(java.lang.Iterable)
 	 */
 	public void delete(Iterable<? extends T> entities) {
+
+		List<ID> ids = new ArrayList<ID>();
 		for (T entity : entities) {
-			delete(entity);
+			ids.add(entityInformation.getId(entity));
 		}
+
+		template.removeAll(ids);
 	}
 
 	/*
@@ -171,4 +306,17 @@ public class SimpleGemfireRepository<T, ID extends Serializable> implements Gemf
 	public T save(Wrapper<T, ID> wrapper) {
 		return template.put(wrapper.getKey(), wrapper.getEntity());
 	}
+
+	private static <E> List<E> toList(Iterable<E> source) {
+
+		List<E> result = new ArrayList<E>();
+		for (E element : source) {
+			result.add(element);
+		}
+		return result;
+	}
+
+	private static boolean isClientRegion(Region<?, ?> region) {
+		return StringUtils.hasText(region.getAttributes().getPoolName());
+	}
 }
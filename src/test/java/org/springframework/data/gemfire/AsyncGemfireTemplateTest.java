@@ -0,0 +1,131 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.gemfire;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+
+import com.gemstone.gemfire.GemFireCheckedException;
+import com.gemstone.gemfire.GemFireException;
+import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.cache.query.SelectResults;
+
+/**
+ * @author Costin Leau
+ */
+public class AsyncGemfireTemplateTest extends RecreatingContextTest {
+
+	@Override
+	protected String location() {
+		return "org/springframework/data/gemfire/basic-template.xml";
+	}
+
+	@Test
+	public void testPutAndGet() throws Exception {
+		AsyncGemfireTemplate template = ctx.getBean("asyncTemplate", AsyncGemfireTemplate.class);
+		template.put("key", "value").get();
+		Future<String> value = template.get("key");
+		assertEquals("value", value.get());
+	}
+
+	@Test
+	public void testPutAllAndGetAll() throws Exception {
+		AsyncGemfireTemplate template = ctx.getBean("asyncTemplate", AsyncGemfireTemplate.class);
+		Map<String, String> map = new HashMap<String, String>();
+		map.put("one", "1");
+		map.put("two", "2");
+		template.putAll(map).get();
+
+		Future<Map<String, String>> all = template.getAll(Arrays.asList("one", "two"));
+		assertEquals(map, all.get());
+
+		Future<SelectResults<Object>> find = template.find("select * from /simple");
+		assertEquals(2, find.get().size());
+	}
+
+	@Test
+	public void testPerCallTimeouts() throws Exception {
+		AsyncGemfireTemplate template = ctx.getBean("asyncTemplate", AsyncGemfireTemplate.class);
+		template.put("key", "value", 1000).get();
+		assertEquals("value", template.get("key", 1000).get());
+		assertEquals(1, template.getAll(Arrays.asList("key"), 1000).get().size());
+
+		Future<SelectResults<Object>> find = template.find("select * from /simple", new Object[0], 1000);
+		assertEquals(1, find.get().size());
+	}
+
+	@Test
+	public void testExceptionTranslation() throws Exception {
+		AsyncGemfireTemplate template = ctx.getBean("asyncTemplate", AsyncGemfireTemplate.class);
+		try {
+			template.find("(select * from /simple).size").get();
+			fail("expected exception");
+		} catch (ExecutionException ex) {
+			assertTrue(ex.getCause() instanceof InvalidDataAccessApiUsageException);
+		}
+	}
+
+	@Test(expected = CancellationException.class)
+	public void testTimeout() throws Exception {
+		AsyncGemfireTemplate template = ctx.getBean("asyncTemplate", AsyncGemfireTemplate.class);
+		Future<Object> future = template.execute(new GemfireCallback<Object>() {
+			@SuppressWarnings("rawtypes")
+			public Object doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
+				try {
+					Thread.sleep(5000);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				return null;
+			}
+		}, 100);
+		future.get();
+	}
+
+	@Test
+	public void testTimeoutCancelsRunningOperationWithoutWaitingCaller() throws Exception {
+		AsyncGemfireTemplate template = ctx.getBean("asyncTemplate", AsyncGemfireTemplate.class);
+		final CountDownLatch interrupted = new CountDownLatch(1);
+		Future<Object> future = template.execute(new GemfireCallback<Object>() {
+			@SuppressWarnings("rawtypes")
+			public Object doInGemfire(Region region) throws GemFireCheckedException, GemFireException {
+				try {
+					Thread.sleep(5000);
+				} catch (InterruptedException ex) {
+					interrupted.countDown();
+				}
+				return null;
+			}
+		}, 100);
+
+		assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+		assertTrue(future.isCancelled());
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.gemfire;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.gemstone.gemfire.cache.PartitionAttributes;
+import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.cache.RegionAttributes;
+
+/**
+ * @author Costin Leau
+ */
+public class ChunkedBulkOperationsTest {
+
+	private ChunkedBulkOperations operations;
+
+	@After
+	public void tearDown() {
+		if (operations != null) {
+			operations.destroy();
+		}
+	}
+
+	@Test
+	public void testChunkingWithoutPartitioning() throws Exception {
+		operations = new ChunkedBulkOperations(template(null), 3, 2, null);
+		List<List<Object>> chunks = operations.chunk(Arrays.asList(1, 2, 3, 4, 5, 6, 7));
+
+		assertEquals(3, chunks.size());
+		assertEquals(Arrays.<Object> asList(1, 2, 3), chunks.get(0));
+		assertEquals(Arrays.<Object> asList(7), chunks.get(2));
+	}
+
+	@Test
+	public void testClientRegionChunkedInIterationOrder() throws Exception {
+		GemfireTemplate template = template(null);
+		// client regions have no partition attributes, whatever the server region
+		when(template.getRegion().getAttributes().getPoolName()).thenReturn("pool");
+
+		operations = new ChunkedBulkOperations(template, 2, 2, null);
+		List<List<Object>> chunks = operations.chunk(Arrays.asList(5, 1, 4, 2, 3));
+
+		assertEquals(3, chunks.size());
+		assertEquals(Arrays.<Object> asList(5, 1), chunks.get(0));
+		assertEquals(Arrays.<Object> asList(4, 2), chunks.get(1));
+		assertEquals(Arrays.<Object> asList(3), chunks.get(2));
+	}
+
+	@Test
+	public void testChunksFilledFromSingleMember() throws Exception {
+		PartitionAttributes<?, ?> partitionAttributes = mock(PartitionAttributes.class);
+
+		operations = new ChunkedBulkOperations(template(partitionAttributes), 2, 2, null) {
+			@Override
+			Object getPrimaryMember(Region<?, ?> region, Object key) {
+				// primaries spread by the key parity
+				return "member" + (((Integer) key) % 2);
+			}
+		};
+		List<List<Object>> chunks = operations.chunk(Arrays.asList(1, 2, 3, 4, 5, 6));
+
+		// the remaining keys of both members are not packed together
+		assertEquals(4, chunks.size());
+		assertEquals(Arrays.<Object> asList(1, 3), chunks.get(0));
+		assertEquals(Arrays.<Object> asList(5), chunks.get(1));
+		assertEquals(Arrays.<Object> asList(2, 4), chunks.get(2));
+		assertEquals(Arrays.<Object> asList(6), chunks.get(3));
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private GemfireTemplate template(PartitionAttributes partitionAttributes) {
+		Region region = mock(Region.class);
+		RegionAttributes attributes = mock(RegionAttributes.class);
+		when(region.getAttributes()).thenReturn(attributes);
+		when(attributes.getPartitionAttributes()).thenReturn(partitionAttributes);
+
+		GemfireTemplate template = new GemfireTemplate();
+		template.setRegion(region);
+		return template;
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.gemfire;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.gemstone.gemfire.cache.Region;
+
+/**
+ * @author Costin Leau
+ */
+public class CloseSuppressingRegionGeneratorTest {
+
+	private CloseSuppressingRegionGenerator generator;
+	private Region<String, String> region;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		generator = new CloseSuppressingRegionGenerator();
+		region = mock(Region.class);
+	}
+
+	@Test
+	public void testDelegation() throws Exception {
+		when(region.get("key")).thenReturn("value");
+		when(region.containsKey("key")).thenReturn(true);
+		when(region.size()).thenReturn(3);
+
+		Region<String, String> wrapper = generator.createRegion(region);
+		assertNotSame(region, wrapper);
+		assertEquals("value", wrapper.get("key"));
+		assertTrue(wrapper.containsKey("key"));
+		assertEquals(3, wrapper.size());
+
+		wrapper.put("another", "value");
+		verify(region).put("another", "value");
+	}
+
+	@Test
+	public void testCloseSuppressed() throws Exception {
+		Region<String, String> wrapper = generator.createRegion(region);
+		wrapper.close();
+		verify(region, never()).close();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testExceptionsPropagatedAsIs() throws Exception {
+		when(region.get("key")).thenThrow(new IllegalStateException());
+		generator.createRegion(region).get("key");
+	}
+
+	@Test
+	public void testIdentityEquality() throws Exception {
+		Region<String, String> wrapper = generator.createRegion(region);
+		Region<String, String> other = generator.createRegion(region);
+		assertTrue(wrapper.equals(wrapper));
+		assertFalse(wrapper.equals(other));
+		assertFalse(wrapper.equals(region));
+		assertEquals(System.identityHashCode(wrapper), wrapper.hashCode());
+	}
+
+	@Test
+	public void testClassCacheInPlace() throws Exception {
+		Region<String, String> wrapper = generator.createRegion(region);
+		Region<String, String> other = generator.createRegion(region);
+		assertSame(wrapper.getClass(), other.getClass());
+		assertTrue(wrapper.getClass().getName().contains("$"));
+	}
+}
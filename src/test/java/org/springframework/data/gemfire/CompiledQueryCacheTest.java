@@ -0,0 +1,95 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.gemfire;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.gemstone.gemfire.cache.query.Query;
+import com.gemstone.gemfire.cache.query.QueryService;
+
+/**
+ * @author Costin Leau
+ */
+public class CompiledQueryCacheTest {
+
+	private static final String Q1 = "SELECT * FROM /a";
+	private static final String Q2 = "SELECT * FROM /b";
+	private static final String Q3 = "SELECT * FROM /c";
+
+	private QueryService queryService;
+	private CompiledQueryCache cache;
+
+	@Before
+	public void setUp() {
+		queryService = mock(QueryService.class);
+		when(queryService.newQuery(Q1)).thenReturn(mock(Query.class), mock(Query.class));
+		when(queryService.newQuery(Q2)).thenReturn(mock(Query.class));
+		when(queryService.newQuery(Q3)).thenReturn(mock(Query.class));
+		cache = new CompiledQueryCache(2);
+	}
+
+	@Test
+	public void testHitsAndMisses() throws Exception {
+		Query query = cache.getQuery(queryService, Q1);
+		assertSame(query, cache.getQuery(queryService, Q1));
+		verify(queryService, times(1)).newQuery(Q1);
+
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testKeyedByQueryService() throws Exception {
+		QueryService other = mock(QueryService.class);
+		when(other.newQuery(Q1)).thenReturn(mock(Query.class));
+
+		assertNotSame(cache.getQuery(queryService, Q1), cache.getQuery(other, Q1));
+		assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEviction() throws Exception {
+		Query q1 = cache.getQuery(queryService, Q1);
+		cache.getQuery(queryService, Q2);
+		// touch Q1 so that Q2 becomes the eldest
+		cache.getQuery(queryService, Q1);
+		cache.getQuery(queryService, Q3);
+
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictionCount());
+		assertSame(q1, cache.getQuery(queryService, Q1));
+		verify(queryService, times(1)).newQuery(Q1);
+	}
+
+	@Test
+	public void testInvalidationOnIndexChanges() throws Exception {
+		Query query = cache.getQuery(queryService, Q1);
+		CompiledQueryCache.indexesChanged();
+		assertNotSame(query, cache.getQuery(queryService, Q1));
+		assertEquals(2, cache.getMissCount());
+	}
+}
@@ -17,11 +17,25 @@
 package org.springframework.data.gemfire;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
+import org.springframework.dao.DataAccessException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.gemfire.client.NearCache;
+import org.springframework.data.gemfire.metrics.DefaultOperationMetrics;
 
+import com.gemstone.gemfire.cache.Region;
 import com.gemstone.gemfire.cache.query.SelectResults;
 
 /**
@@ -62,4 +76,233 @@ public class GemfireTemplateTest extends RecreatingContextTest {
 		GemfireTemplate template = ctx.getBean("template", GemfireTemplate.class);
 		SelectResults<Object> find = template.findUnique(MULTI_QUERY);
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testCompiledQueriesCached() throws Exception {
+		GemfireTemplate template = ctx.getBean("template", GemfireTemplate.class);
+		template.find(MULTI_QUERY);
+		template.find(MULTI_QUERY);
+		template.findUnique(SINGLE_QUERY);
+
+		CompiledQueryCache queryCache = template.getQueryCache();
+		assertEquals(2, queryCache.size());
+		assertEquals(1, queryCache.getHitCount());
+		assertEquals(2, queryCache.getMissCount());
+	}
+
+	@Test
+	public void testStream() throws Exception {
+		GemfireTemplate template = ctx.getBean("template", GemfireTemplate.class);
+		for (int i = 0; i < 25; i++) {
+			template.put(Integer.valueOf(i), Integer.valueOf(i * 10));
+		}
+
+		PagedRegionIterator<Integer> it = template.stream(null, 10);
+		int count = 0;
+		while (it.hasNext()) {
+			assertEquals(Integer.valueOf(count * 10), it.next());
+			count++;
+		}
+		assertEquals(25, count);
+		assertEquals(3, it.getPagesFetched());
+	}
+
+	@Test
+	public void testStreamWithPredicate() throws Exception {
+		GemfireTemplate template = ctx.getBean("template", GemfireTemplate.class);
+		for (int i = 0; i < 25; i++) {
+			template.put(Integer.valueOf(i), Integer.valueOf(i * 10));
+		}
+
+		PagedRegionIterator<Integer> it = template.stream("e.value >= $1", 4, Integer.valueOf(200));
+		assertEquals(Integer.valueOf(200), it.next());
+		assertEquals(1, it.getPagesFetched());
+		it.close();
+		assertFalse(it.hasNext());
+	}
+
+	@Test
+	public void testStreamWithTypedParameterArray() throws Exception {
+		GemfireTemplate template = ctx.getBean("template", GemfireTemplate.class);
+		for (int i = 0; i < 5; i++) {
+			template.put(Integer.valueOf(i), "v" + i);
+		}
+
+		// the Integer keys of the next pages don't fit into the given String[]
+		PagedRegionIterator<String> it = template.stream("e.value >= $1", 2, new String[] { "v2" });
+		List<String> values = new ArrayList<String>();
+		while (it.hasNext()) {
+			values.add(it.next());
+		}
+		assertEquals(Arrays.asList("v2", "v3", "v4"), values);
+	}
+
+	@Test
+	public void testChunkedBulkOperations() throws Exception {
+		GemfireTemplate template = ctx.getBean("bulkTemplate", GemfireTemplate.class);
+		Map<String, String> map = new HashMap<String, String>();
+		for (int i = 0; i < 7; i++) {
+			map.put("key" + i, "value" + i);
+		}
+		template.putAll(map);
+		assertEquals(7, template.getRegion().size());
+
+		Map<String, String> result = template.getAll(map.keySet());
+		assertEquals(map, result);
+	}
+
+	@Test
+	public void testChunkedRemoveAll() throws Exception {
+		GemfireTemplate template = ctx.getBean("bulkTemplate", GemfireTemplate.class);
+		Map<String, String> map = new HashMap<String, String>();
+		for (int i = 0; i < 7; i++) {
+			map.put("key" + i, "value" + i);
+		}
+		template.putAll(map);
+
+		List<String> keys = new ArrayList<String>(map.keySet());
+		keys.remove("key0");
+		// missing keys are ignored
+		keys.add("missing");
+		template.removeAll(keys);
+
+		assertEquals(1, template.getRegion().size());
+		assertEquals("value0", template.get("key0"));
+	}
+
+	@Test
+	public void testRemoveAllThroughFunction() throws Exception {
+		GemfireTemplate template = ctx.getBean("removeAllFunctionTemplate", GemfireTemplate.class);
+		template.put("key0", "value0");
+		template.put("key1", "value1");
+		template.put("key2", "value2");
+
+		template.removeAll(Arrays.asList("key1", "key2", "missing"));
+
+		assertEquals(1, template.getRegion().size());
+		assertEquals("value0", template.get("key0"));
+	}
+
+	@Test
+	public void testBatchedPuts() throws Exception {
+		GemfireTemplate template = ctx.getBean("batchingTemplate", GemfireTemplate.class);
+		Region<?, ?> region = template.getRegion();
+
+		assertNull(template.put("one", "1"));
+		template.put("two", "2");
+		template.put("one", "uno");
+		assertTrue(region.isEmpty());
+
+		template.create("three", "3");
+		assertEquals(3, region.size());
+		assertEquals("uno", region.get("one"));
+
+		template.put("four", "4");
+		assertFalse(region.containsKey("four"));
+		template.flush();
+		assertEquals("4", region.get("four"));
+	}
+
+	@Test
+	public void testBatchedPutsDrainedOnDestroy() throws Exception {
+		GemfireTemplate template = ctx.getBean("batchingTemplate", GemfireTemplate.class);
+		Region<?, ?> region = template.getRegion();
+
+		template.put("one", "1");
+		assertFalse(region.containsKey("one"));
+		template.destroy();
+		assertEquals("1", region.get("one"));
+	}
+
+	@Test
+	public void testBatchedPutsWrittenBeforeRemove() throws Exception {
+		GemfireTemplate template = ctx.getBean("batchingTemplate", GemfireTemplate.class);
+		Region<?, ?> region = template.getRegion();
+
+		template.put("one", "1");
+		assertEquals("1", template.remove("one"));
+		template.flush();
+		assertFalse(region.containsKey("one"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testNearCache() throws Exception {
+		Region<String, String> region = ctx.getBean("simple", Region.class);
+		NearCache<String, String> nearCache = new NearCache<String, String>();
+		nearCache.afterPropertiesSet();
+		region.getAttributesMutator().addCacheListener(nearCache);
+
+		GemfireTemplate template = new GemfireTemplate(region);
+		template.setNearCache(nearCache);
+
+		template.put("one", "1");
+		assertEquals("1", template.get("one"));
+		assertEquals("1", template.get("one"));
+		assertEquals(1, nearCache.getHitCount());
+		assertEquals(1, nearCache.size());
+
+		// changes bypassing the template are propagated through the region events
+		region.put("one", "uno");
+		assertEquals(0, nearCache.size());
+		assertEquals("uno", template.get("one"));
+
+		region.put("two", "2");
+		Map<String, String> all = template.getAll(Arrays.asList("one", "two"));
+		assertEquals(2, all.size());
+		assertEquals(2, nearCache.getHitCount());
+		assertEquals(2, nearCache.size());
+
+		template.remove("two");
+		assertNull(template.get("two"));
+		assertEquals(1, nearCache.size());
+	}
+
+	@Test
+	public void testNearCacheInvalidatedOnceBufferedPutsAreWritten() throws Exception {
+		Region<String, String> region = ctx.getBean("simple", Region.class);
+		// no listener: clients receive no events for their own writes
+		NearCache<String, String> nearCache = new NearCache<String, String>();
+		nearCache.afterPropertiesSet();
+
+		GemfireTemplate template = new GemfireTemplate();
+		template.setRegion(region);
+		template.setBatchSize(10);
+		template.setNearCache(nearCache);
+		template.afterPropertiesSet();
+
+		region.put("one", "1");
+		template.put("one", "uno");
+		// read while the put is buffered
+		assertEquals("1", template.get("one"));
+
+		template.flush();
+		assertEquals("uno", template.get("one"));
+		template.destroy();
+	}
+
+	@Test
+	public void testMetrics() throws Exception {
+		DefaultOperationMetrics metrics = new DefaultOperationMetrics();
+		GemfireTemplate template = new GemfireTemplate();
+		template.setRegion(ctx.getBean("simple", Region.class));
+		template.setMetrics(metrics);
+		template.afterPropertiesSet();
+
+		template.put("one", "1");
+		template.get("one");
+		template.get("two");
+		template.getAll(Arrays.asList("one", "two", "three"));
+		try {
+			template.find("select * from /nonexistent");
+			fail("expected an exception");
+		} catch (DataAccessException ex) {
+			// expected
+		}
+
+		assertEquals(1, metrics.getCount("/simple", "put"));
+		assertEquals(2, metrics.getCount("/simple", "get"));
+		assertEquals(3, metrics.getStatistics("/simple", "getAll").getMaxPayloadSize());
+		assertEquals(1, metrics.getErrorCount("/simple", "find"));
+	}
+}
@@ -5,6 +5,8 @@ import static org.junit.Assert.assertSame;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import com.gemstone.gemfire.cache.AttributesMutator;
+import com.gemstone.gemfire.cache.InterestResultPolicy;
 import com.gemstone.gemfire.cache.Region;
 import com.gemstone.gemfire.cache.client.ClientCache;
 import com.gemstone.gemfire.cache.client.ClientRegionFactory;
@@ -37,4 +39,22 @@ public class ClientRegionFactoryBeanTest {
 		assertSame(region, result);
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testNearCacheWithoutInterestsListensToAllKeys() throws Exception {
+		NearCache<Object, Object> nearCache = new NearCache<Object, Object>();
+		nearCache.afterPropertiesSet();
+
+		ClientRegionFactoryBean<Object, Object> fb = new ClientRegionFactoryBean<Object, Object>();
+		fb.setNearCache(nearCache);
+
+		Region<Object, Object> region = Mockito.mock(Region.class);
+		AttributesMutator<Object, Object> mutator = Mockito.mock(AttributesMutator.class);
+		Mockito.when(region.getAttributesMutator()).thenReturn(mutator);
+
+		fb.postProcess(region);
+
+		Mockito.verify(mutator).addCacheListener(nearCache);
+		Mockito.verify(region).registerInterestRegex(".*", InterestResultPolicy.NONE, false, false);
+	}
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.springframework.data.gemfire.client.NearCache.EvictionPolicy;
+
+import com.gemstone.gemfire.cache.util.ObjectSizer;
+
+/**
+ * @author Costin Leau
+ */
+public class NearCacheTest {
+
+	private NearCache<String, String> createCache(int maxEntries, EvictionPolicy policy) {
+		NearCache<String, String> cache = new NearCache<String, String>();
+		cache.setMaxEntries(maxEntries);
+		cache.setEvictionPolicy(policy);
+		cache.afterPropertiesSet();
+		return cache;
+	}
+
+	@Test
+	public void testHitRatio() throws Exception {
+		NearCache<String, String> cache = createCache(10, EvictionPolicy.LRU);
+		assertNull(cache.get("one"));
+		assertTrue(cache.put("one", "1", cache.sequence("one")));
+		assertEquals("1", cache.get("one"));
+		assertEquals("1", cache.get("one"));
+		assertEquals("1", cache.get("one"));
+
+		assertEquals(3, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(0.75, cache.getHitRatio(), 0.0001);
+	}
+
+	@Test
+	public void testLruEviction() throws Exception {
+		NearCache<String, String> cache = createCache(2, EvictionPolicy.LRU);
+		cache.put("one", "1", cache.sequence("one"));
+		cache.put("two", "2", cache.sequence("two"));
+		cache.get("one");
+		cache.put("three", "3", cache.sequence("three"));
+
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictionCount());
+		assertEquals("1", cache.get("one"));
+		assertNull(cache.get("two"));
+	}
+
+	@Test
+	public void testEvictionBelowBoundInBatch() throws Exception {
+		NearCache<String, String> cache = createCache(20, EvictionPolicy.LRU);
+		for (int i = 0; i < 20; i++) {
+			cache.put("key" + i, "value", cache.sequence("key" + i));
+		}
+		cache.get("key0");
+		assertEquals(0, cache.getEvictionCount());
+
+		cache.put("key20", "value", cache.sequence("key20"));
+		assertEquals(18, cache.size());
+		assertEquals(3, cache.getEvictionCount());
+		assertEquals("value", cache.get("key0"));
+		assertNull(cache.get("key1"));
+	}
+
+	@Test
+	public void testFifoEviction() throws Exception {
+		NearCache<String, String> cache = createCache(2, EvictionPolicy.FIFO);
+		cache.put("one", "1", cache.sequence("one"));
+		cache.put("two", "2", cache.sequence("two"));
+		cache.get("one");
+		cache.put("three", "3", cache.sequence("three"));
+
+		assertNull(cache.get("one"));
+		assertEquals("2", cache.get("two"));
+	}
+
+	@Test
+	public void testSizeBasedEviction() throws Exception {
+		NearCache<String, String> cache = new NearCache<String, String>();
+		cache.setMaxSize(10);
+		cache.setSizer(new ObjectSizer() {
+			public int sizeof(Object o) {
+				return ((String) o).length();
+			}
+		});
+		cache.afterPropertiesSet();
+
+		cache.put("one", "12345", cache.sequence("one"));
+		cache.put("two", "12345", cache.sequence("two"));
+		assertEquals(10, cache.getSize());
+		cache.put("three", "123", cache.sequence("three"));
+		assertEquals(8, cache.getSize());
+		assertNull(cache.get("one"));
+		assertFalse(cache.put("four", "12345678901", cache.sequence("four")));
+	}
+
+	@Test
+	public void testStaleValueNotCached() throws Exception {
+		NearCache<String, String> cache = createCache(10, EvictionPolicy.LRU);
+		long sequence = cache.sequence("one");
+		// update received while the value was fetched
+		cache.invalidate("one");
+		assertFalse(cache.put("one", "stale", sequence));
+		assertNull(cache.get("one"));
+	}
+
+	@Test
+	public void testInvalidationOfOtherKeysKeepsFetchedValue() throws Exception {
+		NearCache<String, String> cache = createCache(10, EvictionPolicy.LRU);
+		long sequence = cache.sequence("one");
+		// update of another key received while the value was fetched
+		cache.invalidate("two");
+		assertTrue(cache.put("one", "1", sequence));
+		assertEquals("1", cache.get("one"));
+	}
+
+	@Test
+	public void testInvalidation() throws Exception {
+		NearCache<String, String> cache = createCache(10, EvictionPolicy.LRU);
+		cache.put("one", "1", cache.sequence("one"));
+		cache.put("two", "2", cache.sequence("two"));
+		cache.put("three", "3", cache.sequence("three"));
+
+		cache.invalidate("one");
+		cache.invalidateAll(Arrays.asList("two", "four"));
+		assertEquals(1, cache.size());
+		assertEquals(2, cache.getInvalidationCount());
+
+		cache.clear();
+		assertEquals(0, cache.size());
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.data.gemfire.RecreatingContextTest;
+import org.springframework.data.gemfire.function.FunctionResultHandler;
+import org.springframework.data.gemfire.function.GemfireFunctionTemplate;
+
+import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.cache.execute.FunctionAdapter;
+import com.gemstone.gemfire.cache.execute.FunctionContext;
+import com.gemstone.gemfire.cache.execute.FunctionService;
+
+/**
+ * @author Costin Leau
+ */
+public class FunctionTemplateNamespaceTest extends RecreatingContextTest {
+
+	@Override
+	protected String location() {
+		return "org/springframework/data/gemfire/config/function-ns.xml";
+	}
+
+	@Test
+	public void testFunctionRegistered() throws Exception {
+		assertTrue(FunctionService.isRegistered(EchoFunction.ID));
+		ctx.destroy();
+		ctx = null;
+		assertFalse(FunctionService.isRegistered(EchoFunction.ID));
+	}
+
+	@Test
+	public void testExecuteOnRegion() throws Exception {
+		GemfireFunctionTemplate template = ctx.getBean("functionTemplate", GemfireFunctionTemplate.class);
+		List<Object> result = template.executeOnRegion(EchoFunction.ID, "hello");
+		assertEquals(Collections.singletonList("hello"), result);
+
+		Region<?, ?> region = ctx.getBean("simple", Region.class);
+		result = template.executeOnRegion(region, EchoFunction.ID, Collections.singleton("key"), "filtered");
+		assertEquals(Collections.singletonList("filtered"), result);
+	}
+
+	@Test
+	public void testExecuteOnMembers() throws Exception {
+		GemfireFunctionTemplate template = ctx.getBean("memberTemplate", GemfireFunctionTemplate.class);
+		assertEquals(Collections.singletonList("hello"), template.executeOnMembers(EchoFunction.ID, "hello"));
+	}
+
+	@Test
+	public void testStreamingExecution() throws Exception {
+		GemfireFunctionTemplate template = ctx.getBean("memberTemplate", GemfireFunctionTemplate.class);
+		final List<String> received = new ArrayList<String>();
+
+		int count = template.executeOnMembers(EchoFunction.ID, "hello", new FunctionResultHandler<String>() {
+			public void handleResult(String result) {
+				received.add(result);
+			}
+		});
+
+		assertEquals(1, count);
+		assertEquals(Collections.singletonList("hello"), received);
+	}
+
+	@SuppressWarnings("serial")
+	public static class EchoFunction extends FunctionAdapter {
+
+		static final String ID = "echo";
+
+		@Override
+		public void execute(FunctionContext context) {
+			context.getResultSender().lastResult(context.getArguments());
+		}
+
+		@Override
+		public String getId() {
+			return ID;
+		}
+	}
+}
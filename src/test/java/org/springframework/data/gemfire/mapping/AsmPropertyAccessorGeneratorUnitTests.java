@@ -0,0 +1,128 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.mapping;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link AsmPropertyAccessorGenerator}.
+ * 
+ * @author Costin Leau
+ */
+public class AsmPropertyAccessorGeneratorUnitTests {
+
+	GemfireMappingContext context;
+	AsmPropertyAccessorGenerator generator;
+
+	@Before
+	public void setUp() {
+		context = new GemfireMappingContext();
+		generator = new AsmPropertyAccessorGenerator();
+	}
+
+	@Test
+	public void readsAndWritesPropertiesOfPublicEntity() {
+
+		EntityPropertyAccessor accessor = generator.getPropertyAccessor(context.getPersistentEntity(Account.class));
+
+		assertThat(accessor.getClass(), is(not((Object) EntityPropertyAccessor.class)));
+
+		Account account = new Account();
+		account.number = "4711";
+		account.setBalance(42L);
+		account.setActive(true);
+
+		int number = indexOf(accessor, "number");
+		int balance = indexOf(accessor, "balance");
+		int active = indexOf(accessor, "active");
+		int note = indexOf(accessor, "note");
+
+		assertThat(accessor.getProperty(account, number), is((Object) "4711"));
+		assertThat(accessor.getProperty(account, balance), is((Object) 42L));
+		assertThat(accessor.getProperty(account, active), is((Object) true));
+
+		accessor.setProperty(account, number, "0815");
+		accessor.setProperty(account, balance, 23L);
+		accessor.setProperty(account, active, false);
+		accessor.setProperty(account, note, "private");
+
+		assertThat(account.number, is("0815"));
+		assertThat(account.getBalance(), is(23L));
+		assertThat(account.isActive(), is(false));
+		assertThat(accessor.getProperty(account, note), is((Object) "private"));
+	}
+
+	@Test
+	public void fallsBackToReflectionForNonPublicEntity() {
+
+		EntityPropertyAccessor accessor = generator.getPropertyAccessor(context.getPersistentEntity(Hidden.class));
+
+		Hidden hidden = new Hidden();
+		accessor.setProperty(hidden, indexOf(accessor, "value"), 42);
+
+		assertThat(hidden.value, is(42));
+		assertThat(accessor.getProperty(hidden, indexOf(accessor, "value")), is((Object) 42));
+	}
+
+	@Test
+	public void cachesAccessorPerEntity() {
+
+		GemfirePersistentEntity<?> entity = context.getPersistentEntity(Account.class);
+		assertThat(generator.getPropertyAccessor(entity), is(sameInstance(generator.getPropertyAccessor(entity))));
+	}
+
+	private static int indexOf(EntityPropertyAccessor accessor, String name) {
+		for (int i = 0; i < accessor.getProperties().size(); i++) {
+			if (accessor.getProperties().get(i).getName().equals(name)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException(name);
+	}
+
+	public static class Account {
+
+		public String number;
+		private long balance;
+		private boolean active;
+		private String note;
+
+		public long getBalance() {
+			return balance;
+		}
+
+		public void setBalance(long balance) {
+			this.balance = balance;
+		}
+
+		public boolean isActive() {
+			return active;
+		}
+
+		public void setActive(boolean active) {
+			this.active = active;
+		}
+	}
+
+	static class Hidden {
+
+		int value;
+	}
+}
@@ -15,24 +15,33 @@
  */
 package org.springframework.data.gemfire.mapping;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.*;
 import static org.mockito.Matchers.*;
 import static org.mockito.Mockito.*;
 
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.data.annotation.Id;
 import org.springframework.data.convert.EntityInstantiator;
 import org.springframework.data.gemfire.repository.sample.Person;
 import org.springframework.data.mapping.model.ParameterValueProvider;
 
+import com.gemstone.gemfire.pdx.PdxFieldTypeMismatchException;
 import com.gemstone.gemfire.pdx.PdxReader;
+import com.gemstone.gemfire.pdx.PdxWriter;
 
 /**
  * Unit tests for {@link MappingPdxSerializer}.
@@ -50,6 +59,8 @@ public class MappingPdxSerializerUnitTests {
 	EntityInstantiator instantiator;
 	@Mock
 	PdxReader reader;
+	@Mock
+	PdxWriter writer;
 
 	@Before
 	public void setUp() {
@@ -78,4 +89,141 @@ public class MappingPdxSerializerUnitTests {
 		verify(instantiator, times(1)).createInstance(eq(context.getPersistentEntity(Person.class)),
 				any(ParameterValueProvider.class));
 	}
+
+	@Test
+	public void computesSerializationPlanOnce() {
+
+		PdxSerializationPlan plan = serializer.getPlan(Person.class);
+
+		assertThat(serializer.getPlan(Person.class), is(sameInstance(plan)));
+		assertThat(plan.getEntity(), is(sameInstance((Object) context.getPersistentEntity(Person.class))));
+		assertThat(plan.getIdentityFields(), is(new String[] { "id" }));
+
+		serializer.setGemfireInstantiators(new HashMap<Class<?>, EntityInstantiator>());
+		assertThat(serializer.getPlan(Person.class), is(not(sameInstance(plan))));
+	}
+
+	@Test
+	public void writesTypedFields() {
+
+		Quote quote = new Quote();
+		quote.symbol = "VMW";
+		quote.price = 42.5;
+		quote.volume = 1000L;
+		quote.time = new Date(0);
+		quote.digest = new byte[] { 1 };
+		quote.sequence = 7;
+
+		serializer.setTypedFields(true);
+		serializer.toData(quote, writer);
+
+		verify(writer).writeString("symbol", "VMW");
+		verify(writer).writeDouble("price", 42.5);
+		verify(writer).writeLong("volume", 1000L);
+		verify(writer).writeDate("time", quote.time);
+		verify(writer).writeByteArray("digest", quote.digest);
+		verify(writer).writeObject("sequence", 7);
+	}
+
+	@Test
+	public void readsTypedFields() {
+
+		when(reader.readString("symbol")).thenReturn("VMW");
+		when(reader.readDouble("price")).thenReturn(42.5);
+		when(reader.readLong("volume")).thenReturn(1000L);
+		when(reader.readField("sequence")).thenReturn(7);
+
+		serializer.setTypedFields(true);
+		Quote quote = (Quote) serializer.fromData(Quote.class, reader);
+
+		assertThat(quote.symbol, is("VMW"));
+		assertThat(quote.price, is(42.5));
+		assertThat(quote.volume, is(1000L));
+		assertThat(quote.sequence, is(7));
+		verify(reader, never()).readField("price");
+	}
+
+	@Test
+	public void writesObjectFieldsByDefault() {
+
+		Quote quote = new Quote();
+		quote.symbol = "VMW";
+		quote.volume = 1000L;
+
+		serializer.toData(quote, writer);
+
+		verify(writer).writeObject("symbol", "VMW");
+		verify(writer).writeObject("volume", 1000L);
+		verify(writer, never()).writeLong(anyString(), anyLong());
+	}
+
+	@Test
+	public void readsTypedPropertiesWrittenAsObjects() {
+
+		when(reader.readLong("volume")).thenThrow(new PdxFieldTypeMismatchException("volume is an object field"));
+		when(reader.readField("volume")).thenReturn(1000);
+		when(reader.readString("symbol")).thenReturn("VMW");
+
+		serializer.setTypedFields(true);
+		Quote quote = (Quote) serializer.fromData(Quote.class, reader);
+
+		assertThat(quote.volume, is(1000L));
+		assertThat(quote.symbol, is("VMW"));
+	}
+
+	@Test
+	public void appliesPdxFieldMapping() {
+
+		Trade trade = new Trade();
+		trade.id = 1L;
+		trade.venue = "XNYS";
+		trade.quantity = 100;
+		trade.comment = "none";
+
+		serializer.toData(trade, writer);
+
+		InOrder order = inOrder(writer);
+		order.verify(writer).writeObject("q", 100L);
+		order.verify(writer).writeObject("v", "XNYS");
+		order.verify(writer).writeObject("id", 1L);
+
+		verify(writer, never()).writeObject(eq("comment"), anyObject());
+		verify(writer).markIdentityField("id");
+		verify(writer).markIdentityField("v");
+	}
+
+	@Test
+	public void readsRenamedFieldsAndSkipsIgnoredOnes() {
+
+		when(reader.readField("v")).thenReturn("XNYS");
+		when(reader.readField("q")).thenReturn(100L);
+
+		Trade trade = (Trade) serializer.fromData(Trade.class, reader);
+
+		assertThat(trade.venue, is("XNYS"));
+		assertThat(trade.quantity, is(100L));
+		verify(reader, never()).readField("comment");
+	}
+
+	public static class Trade {
+
+		@Id
+		public Long id;
+		@PdxField(value = "v", order = 1, identity = true)
+		public String venue;
+		@PdxField(value = "q", order = 0)
+		public long quantity;
+		@PdxField(ignore = true)
+		public String comment;
+	}
+
+	public static class Quote {
+
+		public String symbol;
+		public double price;
+		public long volume;
+		public Date time;
+		public byte[] digest;
+		public Integer sequence;
+	}
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.mapping;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.gemfire.repository.sample.Address;
+
+import com.gemstone.gemfire.pdx.PdxInstance;
+
+/**
+ * Unit tests for {@link PdxEntityViewFactory}.
+ * 
+ * @author Costin Leau
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class PdxEntityViewFactoryUnitTests {
+
+	PdxEntityViewFactory factory;
+
+	@Mock
+	PdxInstance instance;
+
+	@Before
+	public void setUp() {
+		factory = new PdxEntityViewFactory(new GemfireMappingContext(), new DefaultConversionService());
+		when(instance.getClassName()).thenReturn(Quote.class.getName());
+	}
+
+	@Test
+	public void decodesFieldsOnFirstAccessOnly() {
+
+		when(instance.getField("symbol")).thenReturn("VMW");
+		when(instance.getField("price")).thenReturn(42.5);
+
+		QuoteView view = factory.createView(instance, QuoteView.class);
+
+		verify(instance, never()).getField(anyString());
+
+		assertThat(view.getSymbol(), is("VMW"));
+		assertThat(view.getSymbol(), is("VMW"));
+		assertThat(view.getPrice(), is(42.5));
+
+		verify(instance, times(1)).getField("symbol");
+		verify(instance, never()).getField("volume");
+	}
+
+	@Test
+	public void convertsFieldValues() {
+
+		Address address = new Address();
+		PdxInstance nested = mock(PdxInstance.class);
+		when(nested.getObject()).thenReturn(address);
+
+		when(instance.getField("volume")).thenReturn(1000);
+		when(instance.getField("address")).thenReturn(nested);
+		when(instance.getField("active")).thenReturn(null);
+
+		QuoteView view = factory.createView(instance, QuoteView.class);
+
+		assertThat(view.getVolume(), is(1000L));
+		assertThat(view.getAddress(), is(sameInstance(address)));
+		assertThat(view.isActive(), is(false));
+	}
+
+	@Test
+	public void exposesUnderlyingInstance() {
+
+		Quote quote = new Quote();
+		when(instance.getObject()).thenReturn(quote);
+
+		PdxEntityView view = (PdxEntityView) factory.createView(instance, QuoteView.class);
+
+		assertThat(view.getPdxInstance(), is(instance));
+		assertThat(view.getEntity(), is((Object) quote));
+	}
+
+	@Test
+	public void createsViewsForCollections() {
+
+		Quote quote = new Quote();
+		List<Object> values = Arrays.<Object> asList(instance, null);
+
+		List<QuoteView> views = factory.createViews(values, QuoteView.class);
+
+		assertThat(views.size(), is(2));
+		assertThat(views.get(0), is(instanceOf(PdxEntityView.class)));
+		assertThat(views.get(1), is(nullValue()));
+		assertThat(factory.createView(quote, Quote.class), is(sameInstance(quote)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsMethodsNotMappedToProperties() {
+		factory.createView(instance, InvalidView.class);
+	}
+
+	public static class Quote {
+
+		String symbol;
+		double price;
+		long volume;
+		boolean active;
+		Address address;
+	}
+
+	public interface QuoteView {
+
+		String getSymbol();
+
+		double getPrice();
+
+		long getVolume();
+
+		boolean isActive();
+
+		Address getAddress();
+	}
+
+	public interface InvalidView {
+
+		String getIsin();
+	}
+}
@@ -61,14 +61,14 @@ public class PdxReaderPropertyAccessorUnitTests {
 	@Test
 	public void returnsTypedNullIfNullIsReadFromReader() {
 
-		when(reader.readObject("key")).thenReturn(null);
+		when(reader.readField("key")).thenReturn(null);
 		assertThat(PdxReaderPropertyAccessor.INSTANCE.read(null, reader, "key"), is(TypedValue.NULL));
 	}
 
 	@Test
 	public void returnsTypeValueWithValueReadFromReader() {
 
-		when(reader.readObject("key")).thenReturn("String");
+		when(reader.readField("key")).thenReturn("String");
 
 		TypedValue result = PdxReaderPropertyAccessor.INSTANCE.read(null, reader, "key");
 
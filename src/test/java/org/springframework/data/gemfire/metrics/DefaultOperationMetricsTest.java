@@ -0,0 +1,74 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.springframework.dao.DataRetrievalFailureException;
+
+/**
+ * @author Costin Leau
+ */
+public class DefaultOperationMetricsTest {
+
+	@Test
+	public void testHistogramPercentiles() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(i * 1000);
+		}
+
+		assertEquals(100, histogram.getCount());
+		assertEquals(100000, histogram.getMax());
+		assertEquals(50500, histogram.getMean(), 0.1);
+
+		long p50 = histogram.getPercentile(50);
+		// within a factor of two of the actual value
+		assertTrue(p50 >= 50000 && p50 < 100000);
+		assertEquals(100000, histogram.getPercentile(100));
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getPercentile(99));
+	}
+
+	@Test
+	public void testOperationStatistics() throws Exception {
+		DefaultOperationMetrics metrics = new DefaultOperationMetrics();
+		metrics.recordOperation("/simple", "get", 1000, -1);
+		metrics.recordOperation("/simple", "get", 3000, -1);
+		metrics.recordOperation("/simple", "getAll", 5000, 10);
+		metrics.recordOperation("/simple", "getAll", 5000, 30);
+		metrics.recordError("/simple", "get", 2000, new DataRetrievalFailureException("test"));
+
+		assertEquals(3, metrics.getCount("/simple", "get"));
+		assertEquals(1, metrics.getErrorCount("/simple", "get"));
+		assertEquals(2.0, metrics.getMeanLatency("/simple", "get"), 0.001);
+		assertEquals(Long.valueOf(1),
+				metrics.getStatistics("/simple", "get").getErrors().get(DataRetrievalFailureException.class.getName()));
+
+		OperationStatistics bulk = metrics.getStatistics("/simple", "getAll");
+		assertEquals(20.0, bulk.getMeanPayloadSize(), 0.001);
+		assertEquals(30, bulk.getMaxPayloadSize());
+		assertEquals(2, metrics.getSummary().length);
+
+		metrics.reset();
+		assertEquals(0, metrics.getCount("/simple", "get"));
+		assertEquals(0, metrics.getCount("/other", "get"));
+	}
+}
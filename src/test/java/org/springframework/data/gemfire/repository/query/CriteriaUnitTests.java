@@ -0,0 +1,121 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.repository.query;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.gemfire.mapping.GemfireMappingContext;
+import org.springframework.data.gemfire.mapping.GemfirePersistentEntity;
+import org.springframework.data.gemfire.mapping.PdxField;
+
+/**
+ * Unit tests for {@link Criteria}.
+ * 
+ * @author Oliver Gierke
+ */
+public class CriteriaUnitTests {
+
+	GemfirePersistentEntity<?> entity = new GemfireMappingContext().getPersistentEntity(Person.class);
+
+	@Test
+	public void createsQueryWithBindParameters() {
+
+		Criteria criteria = Criteria.where("firstname").is("Dave").and("age").greaterThan(30);
+
+		assertThat(criteria.toQuery("/simple"), is("SELECT * FROM /simple x WHERE x.age > $1 AND x.firstname = $2"));
+		assertThat(Arrays.asList(criteria.getParameters()), is(Arrays.<Object> asList(30, "Dave")));
+	}
+
+	@Test
+	public void normalizesCriteriaOfTheSameShape() {
+
+		Criteria first = Criteria.where("lastname").is("Matthews").and("firstname").is("Dave")
+				.or(Criteria.where("age").lessThan(20));
+		Criteria second = Criteria.where("age").lessThan(40)
+				.or(Criteria.where("firstname").is("Carter").and("lastname").is("Beauford"));
+
+		assertThat(first.toQuery("/simple"), is(second.toQuery("/simple")));
+		assertThat(Arrays.asList(first.getParameters()), is(Arrays.<Object> asList(20, "Dave", "Matthews")));
+		assertThat(Arrays.asList(second.getParameters()), is(Arrays.<Object> asList(40, "Carter", "Beauford")));
+	}
+
+	@Test
+	public void bindsInValuesAsCollections() {
+
+		Criteria criteria = Criteria.where("firstname").in(new String[] { "Dave", "Oliver" });
+
+		assertThat(criteria.toQuery("/simple"), is("SELECT * FROM /simple x WHERE x.firstname IN $1"));
+		assertThat(criteria.getParameters()[0], is((Object) Arrays.asList("Dave", "Oliver")));
+	}
+
+	@Test
+	public void doesNotBindNullChecks() {
+
+		Criteria criteria = Criteria.where("firstname").is(null).and("lastname").is("Matthews");
+
+		assertThat(criteria.toQuery("/simple"),
+				is("SELECT * FROM /simple x WHERE x.firstname = NULL AND x.lastname = $1"));
+		assertThat(criteria.getParameters().length, is(1));
+	}
+
+	@Test
+	public void createsCriteriaFromExample() {
+
+		Person example = new Person();
+		example.lastname = "Matthews";
+
+		Criteria criteria = Criteria.byExample(example, entity);
+
+		assertThat(criteria.toQuery("/simple"), is("SELECT * FROM /simple x WHERE x.lastname = $1"));
+		assertThat(criteria.getParameters()[0], is((Object) "Matthews"));
+	}
+
+	@Test
+	public void selectsAllForExampleWithoutValues() {
+		assertThat(Criteria.byExample(new Person(), entity).toQuery("/simple"), is("SELECT * FROM /simple x"));
+	}
+
+	@Test
+	public void refersToPdxFieldNamesOfExampleProperties() {
+
+		Person example = new Person();
+		example.city = "Charlottesville";
+
+		assertThat(Criteria.byExample(example, entity).toQuery("/simple"),
+				is("SELECT * FROM /simple x WHERE x.town = $1"));
+	}
+
+	static class Person {
+
+		static String DEFAULT = "default";
+
+		String firstname;
+		String lastname;
+		int age;
+		transient String nickname = "nick";
+		@Transient
+		String alias = "alias";
+		@PdxField(ignore = true)
+		String note = "note";
+		@PdxField("town")
+		String city;
+	}
+}
@@ -51,4 +51,15 @@ public class GemfireQueryCreatorUnitTests {
 		QueryString query = creator.createQuery();
 		assertThat(query.toString(), is("SELECT * FROM /simple x WHERE x.firstname = $1"));
 	}
+
+	@Test
+	public void createsOrderByForSort() {
+
+		PartTree partTree = new PartTree("findByFirstnameOrderByLastnameDesc", Person.class);
+		GemfireQueryCreator creator = new GemfireQueryCreator(partTree, entity);
+
+		QueryString query = creator.createQuery();
+		assertThat(query.toString(),
+				is("SELECT DISTINCT * FROM /simple x WHERE x.firstname = $1 ORDER BY x.lastname DESC"));
+	}
 }
@@ -20,6 +20,7 @@ import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -62,6 +63,35 @@ public class GemfireQueryMethodUnitTests {
 		assertThat(method.getAnnotatedQuery(), is(nullValue()));
 	}
 
+	@Test
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void projectsAnnotatedQueriesOnDeclaredProjectionsOnly() throws Exception {
+
+		GemfireMappingContext context = new GemfireMappingContext();
+		when(metadata.getDomainType()).thenReturn((Class) Person.class);
+		when(metadata.getReturnedDomainClass(Mockito.any(Method.class))).thenReturn((Class) Nickname.class);
+
+		GemfireQueryMethod method = new GemfireQueryMethod(Sample.class.getMethod("annotated"), metadata, context);
+		assertThat(method.getDeclaredProjection(), is(nullValue()));
+		assertThat(method.isProjecting(), is(false));
+
+		when(metadata.getReturnedDomainClass(Mockito.any(Method.class))).thenReturn((Class) Name.class);
+
+		method = new GemfireQueryMethod(Sample.class.getMethod("annotated"), metadata, context);
+		assertThat(method.getDeclaredProjection().getProperties(), is(Arrays.asList("lastname")));
+		assertThat(method.isProjecting(), is(true));
+	}
+
+	interface Name {
+
+		String getLastname();
+	}
+
+	interface Nickname {
+
+		String getNickname();
+	}
+
 	interface Sample {
 
 		@Query("foo")
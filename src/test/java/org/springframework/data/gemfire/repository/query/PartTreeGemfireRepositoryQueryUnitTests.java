@@ -0,0 +1,145 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.repository.query;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.gemfire.GemfireTemplate;
+import org.springframework.data.gemfire.mapping.GemfireMappingContext;
+import org.springframework.data.gemfire.repository.sample.Person;
+import org.springframework.data.repository.core.RepositoryMetadata;
+
+import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.cache.query.SelectResults;
+
+/**
+ * Unit tests for {@link PartTreeGemfireRepositoryQuery}.
+ * 
+ * @author Oliver Gierke
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class PartTreeGemfireRepositoryQueryUnitTests {
+
+	@Mock
+	RepositoryMetadata metadata;
+	@Mock
+	GemfireTemplate template;
+	@Mock
+	@SuppressWarnings("rawtypes")
+	Region region;
+
+	@Before
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void setUp() {
+
+		when(metadata.getDomainType()).thenReturn((Class) Person.class);
+		when(metadata.getReturnedDomainClass(Mockito.any(Method.class))).thenReturn((Class) Person.class);
+		when(template.getRegion()).thenReturn(region);
+		when(region.getName()).thenReturn("simple");
+	}
+
+	@Test
+	public void reusesDerivedQueryAcrossInvocations() throws Exception {
+
+		GemfireQueryMethod method = new GemfireQueryMethod(Sample.class.getMethod("findByFirstname", String.class),
+				metadata, new GemfireMappingContext());
+		PartTreeGemfireRepositoryQuery query = new PartTreeGemfireRepositoryQuery(method, template);
+
+		query.execute(new Object[] { "Dave" });
+		query.execute(new Object[] { "Oliver" });
+
+		String oql = "SELECT * FROM /simple x WHERE x.firstname = $1";
+		verify(template).find(oql, "Dave");
+		verify(template).find(oql, "Oliver");
+	}
+
+	@Test
+	public void bindsInValuesAsCollectionParameter() throws Exception {
+
+		GemfireQueryMethod method = new GemfireQueryMethod(Sample.class.getMethod("findByFirstnameIn", String[].class),
+				metadata, new GemfireMappingContext());
+		PartTreeGemfireRepositoryQuery query = new PartTreeGemfireRepositoryQuery(method, template);
+
+		query.execute(new Object[] { new String[] { "Dave", "Oliver" } });
+
+		verify(template).find("SELECT * FROM /simple x WHERE x.firstname IN $1", Arrays.asList("Dave", "Oliver"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void pushesPageableIntoOrderByAndLimit() throws Exception {
+
+		GemfireQueryMethod method = new GemfireQueryMethod(Sample.class.getMethod("findByLastname", String.class,
+				Pageable.class), metadata, new GemfireMappingContext());
+		PartTreeGemfireRepositoryQuery query = new PartTreeGemfireRepositoryQuery(method, template);
+
+		SelectResults<Object> results = mock(SelectResults.class);
+		when(results.asList()).thenReturn(Arrays.<Object> asList("a", "b", "c"));
+		when(template.find(anyString(), Mockito.<Object> anyVararg())).thenReturn(results);
+
+		Page<?> page = (Page<?>) query.execute(new Object[] { "Matthews",
+				new PageRequest(1, 2, new Sort("firstname")) });
+
+		verify(template).find(
+				"SELECT DISTINCT * FROM /simple x WHERE x.lastname = $1 ORDER BY x.firstname ASC LIMIT 4", "Matthews");
+		assertThat(page.getContent(), is((List<Object>) Arrays.<Object> asList("c")));
+		assertThat(page.getTotalElements(), is(3L));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void ordersUnsortedPagesById() throws Exception {
+
+		GemfireQueryMethod method = new GemfireQueryMethod(Sample.class.getMethod("findByLastname", String.class,
+				Pageable.class), metadata, new GemfireMappingContext());
+		PartTreeGemfireRepositoryQuery query = new PartTreeGemfireRepositoryQuery(method, template);
+
+		SelectResults<Object> results = mock(SelectResults.class);
+		when(results.asList()).thenReturn(Arrays.<Object> asList("a"));
+		when(template.find(anyString(), Mockito.<Object> anyVararg())).thenReturn(results);
+
+		query.execute(new Object[] { "Matthews", new PageRequest(0, 2) });
+
+		verify(template).find("SELECT DISTINCT * FROM /simple x WHERE x.lastname = $1 ORDER BY x.id ASC LIMIT 2",
+				"Matthews");
+	}
+
+	interface Sample {
+
+		Page<Person> findByLastname(String lastname, Pageable pageable);
+
+		Collection<Person> findByFirstname(String firstname);
+
+		Collection<Person> findByFirstnameIn(String... firstnames);
+	}
+}
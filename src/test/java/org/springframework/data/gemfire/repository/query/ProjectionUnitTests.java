@@ -0,0 +1,220 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.repository.query;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.gemfire.mapping.GemfireMappingContext;
+import org.springframework.data.gemfire.mapping.GemfirePersistentEntity;
+import org.springframework.data.gemfire.mapping.PdxField;
+import org.springframework.data.gemfire.repository.sample.Address;
+import org.springframework.data.gemfire.repository.sample.Person;
+import org.springframework.data.repository.query.parser.PartTree;
+
+import com.gemstone.gemfire.cache.query.Struct;
+import com.gemstone.gemfire.cache.query.types.StructType;
+import com.gemstone.gemfire.pdx.PdxInstance;
+
+/**
+ * Unit tests for {@link Projection}.
+ * 
+ * @author Oliver Gierke
+ */
+public class ProjectionUnitTests {
+
+	GemfirePersistentEntity<?> entity;
+
+	@Before
+	public void setUp() {
+		entity = new GemfireMappingContext().getPersistentEntity(Person.class);
+	}
+
+	@Test
+	public void ignoresEntityAndSimpleTypes() {
+
+		assertThat(Projection.create(Person.class, entity), is(nullValue()));
+		assertThat(Projection.create(Object.class, entity), is(nullValue()));
+		assertThat(Projection.create(String.class, entity), is(nullValue()));
+		assertThat(Projection.create(Long.class, entity), is(nullValue()));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsUnknownProperties() {
+		Projection.create(Unknown.class, entity);
+	}
+
+	@Test
+	public void createsDeclaredProjectionsOnly() {
+
+		assertThat(Projection.createIfDeclared(Unknown.class, entity), is(nullValue()));
+		assertThat(Projection.createIfDeclared(Person.class, entity), is(nullValue()));
+		assertThat(Projection.createIfDeclared(Name.class, entity).getProperties(),
+				is(Arrays.asList("firstname", "lastname")));
+	}
+
+	@Test
+	public void derivesQuerySelectingProjectedPropertiesOnly() {
+
+		Projection projection = Projection.create(Name.class, entity);
+		GemfireQueryCreator creator = new GemfireQueryCreator(new PartTree("findByLastname", Person.class), entity,
+				projection);
+
+		assertThat(creator.createQuery().toString(),
+				is("SELECT x.firstname, x.lastname FROM /simple x WHERE x.lastname = $1"));
+	}
+
+	@Test
+	public void convertsStructsIntoInterfaceProjections() {
+
+		Projection projection = Projection.create(Name.class, entity);
+
+		Name name = (Name) projection.project(struct(new String[] { "firstname", "lastname" }, "Dave", "Matthews"));
+		assertThat(name.getFirstname(), is("Dave"));
+		assertThat(name.getLastname(), is("Matthews"));
+	}
+
+	@Test
+	public void mapsStructFieldsByName() {
+
+		Projection projection = Projection.create(Name.class, entity);
+
+		Name name = (Name) projection.project(struct(new String[] { "lastname", "id", "firstname" }, "Matthews", 1L,
+				"Dave"));
+		assertThat(name.getFirstname(), is("Dave"));
+		assertThat(name.getLastname(), is("Matthews"));
+	}
+
+	@Test
+	public void readsPdxFieldsIntoClassProjections() {
+
+		Projection projection = Projection.create(NameDto.class, entity);
+
+		PdxInstance instance = mock(PdxInstance.class);
+		when(instance.getClassName()).thenReturn(Person.class.getName());
+		when(instance.getField("firstname")).thenReturn("Carter");
+		when(instance.getField("lastname")).thenReturn("Beauford");
+
+		NameDto name = (NameDto) projection.project(Arrays.asList(instance)).get(0);
+		assertThat(name.firstname, is("Carter"));
+		assertThat(name.lastname, is("Beauford"));
+		verify(instance, never()).getObject();
+	}
+
+	@Test
+	public void convertsEntities() {
+
+		Projection projection = Projection.create(Name.class, entity);
+
+		Name name = (Name) projection.project(new Person(1L, "Leroi", "Moore"));
+		assertThat(name.getFirstname(), is("Leroi"));
+		assertThat(name.getLastname(), is("Moore"));
+	}
+
+	@Test
+	public void takesSingleSelectedPropertyAsIs() {
+
+		Projection projection = Projection.create(AddressOnly.class, entity);
+
+		Address address = new Address();
+		AddressOnly result = (AddressOnly) projection.project(address);
+		assertThat(result.getAddress(), is(sameInstance(address)));
+	}
+
+	@Test
+	public void readsSinglePropertyOfSelectedEntities() {
+
+		Projection projection = Projection.createIfDeclared(AddressOnly.class, entity);
+
+		Person person = new Person(1L, "Dave", "Matthews");
+		person.address = new Address();
+
+		assertThat(((AddressOnly) projection.project(person)).getAddress(), is(sameInstance(person.address)));
+		assertThat(((AddressOnly) projection.project(person.address)).getAddress(), is(sameInstance(person.address)));
+	}
+
+	@Test
+	public void readsPdxFieldsByTheirMappedName() {
+
+		GemfirePersistentEntity<?> resident = new GemfireMappingContext().getPersistentEntity(Resident.class);
+		Projection projection = Projection.createIfDeclared(CityOnly.class, resident);
+
+		PdxInstance instance = mock(PdxInstance.class);
+		when(instance.getClassName()).thenReturn(Resident.class.getName());
+		when(instance.getField("town")).thenReturn("Hamburg");
+
+		assertThat(((CityOnly) projection.project(instance)).getCity(), is("Hamburg"));
+	}
+
+	private static Struct struct(String[] names, Object... values) {
+
+		StructType type = mock(StructType.class);
+		when(type.getFieldNames()).thenReturn(names);
+
+		Struct struct = mock(Struct.class);
+		when(struct.getStructType()).thenReturn(type);
+		when(struct.getFieldValues()).thenReturn(values);
+		return struct;
+	}
+
+	interface Name {
+
+		String getFirstname();
+
+		String getLastname();
+	}
+
+	interface AddressOnly {
+
+		Address getAddress();
+	}
+
+	interface CityOnly {
+
+		String getCity();
+	}
+
+	interface Unknown {
+
+		String getNickname();
+	}
+
+	public static class NameDto {
+
+		String firstname, lastname;
+
+		public void setFirstname(String firstname) {
+			this.firstname = firstname;
+		}
+
+		public void setLastname(String lastname) {
+			this.lastname = lastname;
+		}
+	}
+
+	static class Resident {
+
+		Long id;
+
+		@PdxField("town")
+		String city;
+	}
+}
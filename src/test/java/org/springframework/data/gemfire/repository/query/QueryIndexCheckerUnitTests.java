@@ -0,0 +1,161 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.repository.query;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.gemfire.mapping.GemfireMappingContext;
+import org.springframework.data.gemfire.repository.sample.Person;
+import org.springframework.data.repository.core.RepositoryMetadata;
+
+import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.cache.RegionAttributes;
+import com.gemstone.gemfire.cache.RegionService;
+import com.gemstone.gemfire.cache.query.Index;
+import com.gemstone.gemfire.cache.query.IndexType;
+import com.gemstone.gemfire.cache.query.QueryService;
+
+/**
+ * Unit tests for {@link QueryIndexChecker}.
+ * 
+ * @author Oliver Gierke
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class QueryIndexCheckerUnitTests {
+
+	@Mock
+	RepositoryMetadata metadata;
+	@Mock
+	@SuppressWarnings("rawtypes")
+	Region region;
+	@Mock
+	@SuppressWarnings("rawtypes")
+	RegionAttributes attributes;
+	@Mock
+	RegionService regionService;
+	@Mock
+	QueryService queryService;
+	@Mock
+	Index index;
+
+	GemfireQueryMethod method;
+
+	@Before
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void setUp() throws Exception {
+
+		when(metadata.getDomainType()).thenReturn((Class) Person.class);
+		when(metadata.getReturnedDomainClass(Mockito.any(Method.class))).thenReturn((Class) Person.class);
+
+		when(region.getName()).thenReturn("simple");
+		when(region.getFullPath()).thenReturn("/simple");
+		when(region.getAttributes()).thenReturn(attributes);
+		when(region.getRegionService()).thenReturn(regionService);
+		when(regionService.getQueryService()).thenReturn(queryService);
+
+		when(index.getName()).thenReturn("firstnameIdx");
+		when(index.getFromClause()).thenReturn("/simple p");
+		when(index.getIndexedExpression()).thenReturn("p.firstname");
+		when(queryService.getIndexes(region)).thenReturn((Collection) Arrays.asList(index));
+
+		method = new GemfireQueryMethod(Sample.class.getMethod("findByFirstnameAndLastname", String.class,
+				String.class), metadata, new GemfireMappingContext());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void reportsCoveredAndUncoveredProperties() {
+
+		IndexCoverage coverage = new QueryIndexChecker(MissingIndexPolicy.WARN).check(method, region);
+
+		assertThat(coverage.getIndexes().get("firstname"), is("firstnameIdx"));
+		assertThat(coverage.getUncoveredProperties(), is(Arrays.asList("lastname")));
+		assertThat(coverage.isCovered(), is(false));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void failsForUncoveredPropertiesIfConfigured() {
+		new QueryIndexChecker(MissingIndexPolicy.FAIL).check(method, region);
+	}
+
+	@Test
+	public void createsMissingIndexesIfConfigured() throws Exception {
+
+		QueryIndexChecker checker = new QueryIndexChecker(MissingIndexPolicy.CREATE);
+		IndexCoverage coverage = checker.check(method, region);
+
+		verify(queryService).createIndex("simple_lastname_idx", IndexType.FUNCTIONAL, "x.lastname", "/simple x");
+		assertThat(coverage.isCovered(), is(true));
+		assertThat(checker.getCoverage().size(), is(1));
+	}
+
+	@Test
+	public void treatsRegionWithoutIndexManagerAsUnindexed() {
+
+		when(queryService.getIndexes(region)).thenReturn(null);
+
+		IndexCoverage coverage = new QueryIndexChecker(MissingIndexPolicy.WARN).check(method, region);
+
+		assertThat(coverage.getUncoveredProperties(), is(Arrays.asList("firstname", "lastname")));
+	}
+
+	@Test
+	public void skipsClientRegions() {
+
+		when(attributes.getPoolName()).thenReturn("pool");
+		assertThat(new QueryIndexChecker(MissingIndexPolicy.FAIL).check(method, region), is(nullValue()));
+	}
+
+	@Test
+	public void matchesRegionPerFromClauseIterator() {
+
+		when(index.getFromClause()).thenReturn("/simple, /other o");
+		when(index.getIndexedExpression()).thenReturn("o.firstname");
+		assertThat(QueryIndexChecker.findIndex(Arrays.asList(index), "firstname", region), is(nullValue()));
+
+		when(index.getFromClause()).thenReturn("/other o, /simple p");
+		when(index.getIndexedExpression()).thenReturn("p.firstname");
+		assertThat(QueryIndexChecker.findIndex(Arrays.asList(index), "firstname", region), is(index));
+	}
+
+	@Test
+	public void recognizesValuesMethodAsRegionIterator() {
+
+		when(index.getFromClause()).thenReturn("/simple.values() p");
+		assertThat(QueryIndexChecker.findIndex(Arrays.asList(index), "firstname", region), is(index));
+
+		when(index.getFromClause()).thenReturn("/simple.values");
+		when(index.getIndexedExpression()).thenReturn("firstname");
+		assertThat(QueryIndexChecker.findIndex(Arrays.asList(index), "firstname", region), is(index));
+	}
+
+	interface Sample {
+
+		Collection<Person> findByFirstnameAndLastname(String firstname, String lastname);
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.gemfire.repository.query;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+import org.springframework.data.gemfire.GemfireTemplate;
+import org.springframework.data.gemfire.mapping.GemfireMappingContext;
+import org.springframework.data.gemfire.metrics.OperationMetrics;
+import org.springframework.data.gemfire.repository.sample.Person;
+import org.springframework.data.repository.core.RepositoryMetadata;
+
+import com.gemstone.gemfire.cache.Region;
+import com.gemstone.gemfire.cache.query.SelectResults;
+
+/**
+ * Unit tests for {@link QueryMonitor}.
+ * 
+ * @author Oliver Gierke
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class QueryMonitorUnitTests {
+
+	@Mock
+	RepositoryMetadata metadata;
+	@Mock
+	GemfireTemplate template;
+	@Mock
+	@SuppressWarnings("rawtypes")
+	Region region;
+	@Mock
+	OperationMetrics metrics;
+
+	QueryMonitor monitor;
+	PartTreeGemfireRepositoryQuery query;
+
+	@Before
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void setUp() throws Exception {
+
+		when(metadata.getDomainType()).thenReturn((Class) Person.class);
+		when(metadata.getReturnedDomainClass(Mockito.any(Method.class))).thenReturn((Class) Person.class);
+		when(template.getRegion()).thenReturn(region);
+		when(region.getName()).thenReturn("simple");
+		when(region.getFullPath()).thenReturn("/simple");
+
+		monitor = new QueryMonitor();
+		monitor.setMetrics(metrics);
+
+		GemfireQueryMethod method = new GemfireQueryMethod(Sample.class.getMethod("findByFirstname", String.class),
+				metadata, new GemfireMappingContext());
+		query = new PartTreeGemfireRepositoryQuery(method, template);
+		query.setQueryMonitor(monitor);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void recordsLatencyAndResultCountPerQueryMethod() {
+
+		SelectResults<Object> results = mock(SelectResults.class);
+		when(results.size()).thenReturn(2);
+		when(template.find(anyString(), Mockito.<Object> anyVararg())).thenReturn(results);
+
+		query.execute(new Object[] { "Dave" });
+
+		verify(metrics).recordOperation(eq("/simple"), eq("Sample.findByFirstname"), anyLong(), eq(2));
+		assertThat(monitor.getSlowQueryCount(), is(0L));
+	}
+
+	@Test
+	public void recordsFailuresAndSlowQueries() {
+
+		DataAccessException error = new InvalidDataAccessResourceUsageException("invalid");
+		when(template.find(anyString(), Mockito.<Object> anyVararg())).thenThrow(error);
+		monitor.setSlowQueryThreshold(0);
+
+		try {
+			query.execute(new Object[] { "Dave" });
+			fail("Expected DataAccessException");
+		} catch (DataAccessException ex) {
+			// expected
+		}
+
+		verify(metrics).recordError(eq("/simple"), eq("Sample.findByFirstname"), anyLong(), same(error));
+		assertThat(monitor.getSlowQueryCount(), is(1L));
+	}
+
+	@Test
+	public void countsResults() {
+
+		assertThat(QueryMonitor.resultCount(null), is(0));
+		assertThat(QueryMonitor.resultCount(Arrays.asList(1, 2, 3)), is(3));
+		assertThat(QueryMonitor.resultCount(new Person(1L, "Dave", "Matthews")), is(1));
+	}
+
+	interface Sample {
+
+		Collection<Person> findByFirstname(String firstname);
+	}
+}
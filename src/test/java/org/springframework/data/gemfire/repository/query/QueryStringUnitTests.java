@@ -26,6 +26,8 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.gemfire.repository.sample.Person;
 
 import com.gemstone.gemfire.cache.Region;
@@ -65,4 +67,88 @@ public class QueryStringUnitTests {
 		Iterable<Integer> indexes = query.getInParameterIndexes();
 		assertThat(indexes, is((Iterable<Integer>) Arrays.asList(1, 2)));
 	}
+
+	@Test
+	public void detectsMultiDigitInParameterIndexes() {
+
+		QueryString query = new QueryString("x.a IN LIST $12 AND x.b IN SET $3");
+		Iterable<Integer> indexes = query.getInParameterIndexes();
+		assertThat(indexes, is((Iterable<Integer>) Arrays.asList(12, 3)));
+	}
+
+	@Test
+	public void turnsInParametersIntoBindParameters() {
+
+		QueryString query = new QueryString("SELECT * FROM /Person p WHERE p.firstname IN SET $1 OR p.lastname IN LIST $2");
+		QueryString result = query.withInBindParameters();
+
+		assertThat(result.toString(), is("SELECT * FROM /Person p WHERE p.firstname IN $1 OR p.lastname IN $2"));
+		assertThat(result.getInParameterIndexes().iterator().hasNext(), is(false));
+	}
+
+	@Test
+	public void onlyReplacesWholeDomainClassNames() {
+
+		QueryString query = new QueryString("SELECT * FROM /Person p, /PersonDetails d WHERE p.firstname = $1");
+
+		when(region.getName()).thenReturn("foo");
+		assertThat(query.forRegion(Person.class, region).toString(),
+				is("SELECT * FROM /foo p, /PersonDetails d WHERE p.firstname = $1"));
+	}
+
+	@Test
+	public void addsOrderByAndDistinct() {
+
+		QueryString query = new QueryString("SELECT * FROM /Person p WHERE p.firstname = $1");
+
+		assertThat(query.orderBy(new Sort(Direction.DESC, "lastname"), "p").toString(),
+				is("SELECT DISTINCT * FROM /Person p WHERE p.firstname = $1 ORDER BY p.lastname DESC"));
+		assertThat(query.orderBy(null), is(sameInstance(query)));
+	}
+
+	@Test
+	public void appendsToExistingOrderByBeforeLimit() {
+
+		QueryString query = new QueryString("SELECT DISTINCT * FROM /Person p ORDER BY p.lastname ASC LIMIT 10");
+
+		assertThat(query.orderBy(new Sort("firstname")).toString(),
+				is("SELECT DISTINCT * FROM /Person p ORDER BY p.lastname ASC, firstname ASC LIMIT 10"));
+	}
+
+	@Test
+	public void addsOrReducesLimit() {
+
+		QueryString query = new QueryString("SELECT * FROM /Person p");
+
+		assertThat(query.limit(20).toString(), is("SELECT * FROM /Person p LIMIT 20"));
+		assertThat(query.limit(20).limit(10).toString(), is("SELECT * FROM /Person p LIMIT 10"));
+		assertThat(query.limit(10).limit(20).toString(), is("SELECT * FROM /Person p LIMIT 10"));
+	}
+
+	@Test
+	public void exposesAndRemovesLimit() {
+
+		QueryString query = new QueryString("SELECT * FROM /Person p ORDER BY p.lastname ASC LIMIT 10");
+
+		assertThat(query.getLimit(), is(10));
+		assertThat(query.withoutLimit().toString(), is("SELECT * FROM /Person p ORDER BY p.lastname ASC"));
+		assertThat(query.withoutLimit().getLimit(), is(-1));
+		assertThat(query.withoutLimit().withoutLimit().toString(), is(query.withoutLimit().toString()));
+	}
+
+	@Test
+	public void detectsOrderByClause() {
+
+		assertThat(new QueryString("SELECT * FROM /Person p ORDER BY p.lastname ASC").isOrdered(), is(true));
+		assertThat(new QueryString("SELECT * FROM /Person p LIMIT 10").isOrdered(), is(false));
+	}
+
+	@Test
+	public void createsCountQuery() {
+
+		QueryString query = new QueryString(
+				"SELECT DISTINCT * FROM /Person p WHERE p.firstname IN SET $1 ORDER BY p.lastname ASC LIMIT 10");
+
+		assertThat(query.asCountQuery().toString(), is("SELECT COUNT(*) FROM /Person p WHERE p.firstname IN SET $1"));
+	}
 }
@@ -44,4 +44,12 @@ public class GemfireRepositoryFactoryIntegrationTests extends AbstractGemfireRep
 		GemfireRepositoryFactory factory = new GemfireRepositoryFactory(Collections.emptySet(), null);
 		factory.getRepository(PersonRepository.class);
 	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsBulkChunkingWithoutExecutor() {
+
+		GemfireRepositoryFactory factory = new GemfireRepositoryFactory(regions, null);
+		factory.setBulkChunkSize(2);
+		factory.getRepository(PersonRepository.class);
+	}
 }
@@ -18,14 +18,22 @@ package org.springframework.data.gemfire.repository.support;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.gemfire.GemfireTemplate;
+import org.springframework.data.gemfire.PagedRegionIterator;
+import org.springframework.data.gemfire.repository.query.Criteria;
 import org.springframework.data.gemfire.repository.sample.Person;
 import org.springframework.data.repository.core.EntityInformation;
 import org.springframework.data.repository.core.support.ReflectionEntityInformation;
@@ -48,11 +56,17 @@ public class SimpleGemfireRepositoryIntegrationTest {
 
 	SimpleGemfireRepository<Person, Long> repository;
 
+	Person dave, carter, leroi;
+
 	@Before
 	public void setUp() {
 
 		EntityInformation<Person, Long> information = new ReflectionEntityInformation<Person, Long>(Person.class);
 		repository = new SimpleGemfireRepository<Person, Long>(template, information);
+
+		dave = new Person(1L, "Dave", "Matthews");
+		carter = new Person(2L, "Carter", "Beauford");
+		leroi = new Person(3L, "Leroi", "Moore");
 	}
 
 	@Test
@@ -63,11 +77,14 @@ public class SimpleGemfireRepositoryIntegrationTest {
 		repository.save(person);
 
 		assertThat(repository.count(), is(1L));
+		assertThat(repository.exists(person.id), is(true));
 		assertThat(repository.findOne(person.id), is(person));
 		assertThat(repository.findAll().size(), is(1));
 
 		repository.delete(person);
 
+		assertThat(repository.exists(person.id), is(false));
+
 		assertThat(repository.count(), is(0L));
 		assertThat(repository.findOne(person.id), is(nullValue()));
 		assertThat(repository.findAll().size(), is(0));
@@ -89,16 +106,102 @@ public class SimpleGemfireRepositoryIntegrationTest {
 	@Test
 	public void findAllWithGivenIds() {
 
-		Person dave = new Person(1L, "Dave", "Matthews");
-		Person carter = new Person(2L, "Carter", "Beauford");
-		Person leroi = new Person(3L, "Leroi", "Moore");
-
-		template.put(dave.id, dave);
-		template.put(carter.id, carter);
-		template.put(leroi.id, leroi);
+		storeOnly(dave, carter, leroi);
 
 		Collection<Person> result = repository.findAll(Arrays.asList(carter.id, leroi.id));
 		assertThat(result, hasItems(carter, leroi));
 		assertThat(result, not(hasItems(dave)));
 	}
+
+	@Test
+	public void savesAndDeletesInBulk() {
+
+		repository.deleteAll();
+
+		Iterable<Person> saved = repository.save(Arrays.asList(dave, carter, leroi));
+
+		assertThat(saved, contains(dave, carter, leroi));
+		assertThat(repository.count(), is(3L));
+
+		repository.delete(Arrays.asList(dave, leroi));
+
+		assertThat(repository.count(), is(1L));
+		assertThat(repository.findOne(carter.id), is(carter));
+	}
+
+	@Test
+	public void streamsAllEntitiesInBatches() {
+
+		storeOnly(dave, carter, leroi);
+
+		PagedRegionIterator<Person> iterator = repository.findAllStreaming(2);
+		List<Person> result = new ArrayList<Person>();
+		while (iterator.hasNext()) {
+			result.add(iterator.next());
+		}
+
+		assertThat(result, contains(dave, carter, leroi));
+		assertThat(iterator.getPagesFetched(), is(2));
+	}
+
+	@Test
+	public void findAllSortedAndPaged() {
+
+		storeOnly(dave, carter, leroi);
+
+		assertThat(repository.findAll(new Sort(Direction.DESC, "firstname")), contains(leroi, dave, carter));
+
+		Page<Person> first = repository.findAll(new PageRequest(0, 2, new Sort("firstname")));
+		assertThat(first.getContent(), contains(carter, dave));
+		assertThat(first.getTotalElements(), is(3L));
+
+		Page<Person> second = repository.findAll(new PageRequest(1, 2, new Sort("firstname")));
+		assertThat(second.getContent(), contains(leroi));
+		assertThat(second.getTotalElements(), is(3L));
+	}
+
+	@Test
+	public void findAllPagedInKeyOrderWithoutSort() {
+
+		storeOnly(leroi, carter, dave);
+
+		Page<Person> first = repository.findAll(new PageRequest(0, 2));
+		assertThat(first.getContent(), contains(dave, carter));
+		assertThat(first.getTotalElements(), is(3L));
+
+		Page<Person> second = repository.findAll(new PageRequest(1, 2));
+		assertThat(second.getContent(), contains(leroi));
+	}
+
+	@Test
+	public void keepsEqualEntitiesStoredUnderDifferentKeysWhenSorting() {
+
+		storeOnly(dave, carter, leroi);
+		template.put(4L, dave);
+
+		assertThat(repository.findAll(new Sort("firstname")), contains(carter, dave, dave, leroi));
+		assertThat(repository.findAll(new PageRequest(0, 3, new Sort("firstname"))).getContent(),
+				contains(carter, dave, dave));
+	}
+
+	@Test
+	public void findsByCriteriaAndExample() {
+
+		storeOnly(dave, carter, leroi);
+
+		List<Person> result = repository.findAll(Criteria.where("lastname").is("Moore")
+				.or(Criteria.where("firstname").in(Arrays.asList("Dave", "Boyd"))));
+		assertThat(result, containsInAnyOrder(dave, leroi));
+
+		assertThat(repository.findByExample(new Person(null, "Carter", null)), contains(carter));
+	}
+
+	/**
+	 * Replaces the content of the region with the given people, saved in the given order.
+	 */
+	private void storeOnly(Person... people) {
+
+		repository.deleteAll();
+		repository.save(Arrays.asList(people));
+	}
 }